@@ -0,0 +1,412 @@
+package com.marketplace.loadtest;
+
+import com.marketplace.auction.AuctionBidWriter;
+import com.marketplace.auction.AuctionEngine;
+import com.marketplace.auction.AuctionState;
+import com.marketplace.auction.BidJournal;
+import com.marketplace.auction.BidRecord;
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.exception.BadRequestException;
+import com.marketplace.model.dto.request.BidRequest;
+import com.marketplace.model.dto.response.AuctionBidResponse;
+import com.marketplace.model.entity.Image;
+import com.marketplace.model.entity.User;
+import com.marketplace.model.enums.SaleType;
+import com.marketplace.model.enums.UserRole;
+import com.marketplace.repository.ImageRepository;
+import com.marketplace.repository.UserRepository;
+import com.marketplace.service.AuctionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bidding wars against the real bid path on an embedded database.
+ *
+ * N auctions receive bids from M concurrent bidders, a share of them proxy bids. For
+ * the last fifth of the run the anti-sniping window of every auction is open and all
+ * bidders turn snipers, firing larger bids without pausing. Afterwards the latency
+ * percentiles and throughput are reported, and the engine, the journal and the
+ * database are checked against each other for lost updates and broken invariants.
+ *
+ * Runs with {@code mvn -P load-test test}, sized with -Dload.auctions, -Dload.bidders,
+ * -Dload.duration-seconds, -Dload.proxy-share and -Dload.think-millis.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("load-test")
+class AuctionLoadTest {
+
+    private static final BigDecimal STARTING_BID = new BigDecimal("10.00");
+    private static final long PERSIST_TIMEOUT_MS = 60000;
+    private static final int MAX_REPORTED_VIOLATIONS = 20;
+
+    @Value("${load.auctions:50}")
+    private int auctionCount;
+
+    @Value("${load.bidders:200}")
+    private int bidderCount;
+
+    @Value("${load.duration-seconds:30}")
+    private int durationSeconds;
+
+    @Value("${load.proxy-share:0.3}")
+    private double proxyShare;
+
+    @Value("${load.think-millis:2}")
+    private int thinkMillis;
+
+    @Autowired
+    private AuctionService auctionService;
+
+    @Autowired
+    private AuctionEngine auctionEngine;
+
+    @Autowired
+    private AuctionBidWriter bidWriter;
+
+    @Autowired
+    private BidJournal journal;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+
+    @DynamicPropertySource
+    static void dataDirectories(DynamicPropertyRegistry registry) throws IOException {
+        // A fresh journal per run, bids of a previous run belong to images that no longer exist
+        Path dir = Files.createTempDirectory("auction-load-test");
+        registry.add("marketplace.auction.journal-dir", () -> dir.resolve("journal").toString());
+        registry.add("marketplace.similarity-index-path", () -> dir.resolve("similarity-index.bin").toString());
+    }
+
+    @Test
+    void biddingWar() throws Exception {
+        long durationNanos = Duration.ofSeconds(durationSeconds).toNanos();
+        long snipingNanos = durationNanos / 5;
+
+        // The sniping window opens when the last fifth of the run starts
+        LocalDateTime endTime = LocalDateTime.now()
+                .plusNanos(durationNanos - snipingNanos)
+                .plusSeconds(applicationPropertiesProvider.getAuction().getExtendWindowSeconds());
+
+        User seller = createUser("seller", UserRole.SELLER);
+        List<UUID> imageIds = new ArrayList<>(auctionCount);
+        for (int i = 0; i < auctionCount; i++) {
+            imageIds.add(createAuction(seller, i, endTime));
+        }
+        List<UUID> bidderIds = new ArrayList<>(bidderCount);
+        for (int i = 0; i < bidderCount; i++) {
+            bidderIds.add(createUser("bidder-" + i, UserRole.BUYER).getId());
+        }
+        long firstSequence = journal.getLastSequence() + 1;
+
+        ExecutorService pool = Executors.newFixedThreadPool(bidderCount);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Bidder>> futures = new ArrayList<>(bidderCount);
+        for (UUID bidderId : bidderIds) {
+            futures.add(pool.submit(() -> {
+                Bidder bidder = new Bidder(bidderId);
+                startGate.await();
+                bidder.run(imageIds, System.nanoTime(), durationNanos, snipingNanos);
+                return bidder;
+            }));
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        List<Bidder> results = new ArrayList<>(bidderCount);
+        for (Future<Bidder> future : futures) {
+            results.add(future.get());
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        assertTrue(bidWriter.awaitPersisted(journal.getLastSequence(), PERSIST_TIMEOUT_MS),
+                "Bid writer did not catch up with the journal");
+
+        List<String> violations = new ArrayList<>();
+        Map<UUID, List<BidRecord>> journaled = readJournal(firstSequence);
+        checkAcceptedBids(results, journaled, violations);
+        for (UUID imageId : imageIds) {
+            checkAuction(imageId, journaled.getOrDefault(imageId, List.of()), endTime, violations);
+        }
+
+        report(results, elapsedSeconds, imageIds, endTime, violations);
+        assertTrue(violations.isEmpty(), violations.size() + " consistency violations, see report");
+    }
+
+    // Private helper methods
+
+    private User createUser(String name, UserRole role) {
+        User user = new User(name + "-" + UUID.randomUUID() + "@loadtest.local", "not-a-hash", name, "Load");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private UUID createAuction(User seller, int index, LocalDateTime endTime) {
+        Image image = new Image();
+        image.setTitle("Load test auction " + index);
+        image.setFileUrl("/load-test/" + index + ".jpg");
+        image.setUploader(seller);
+        image.setCurrentOwner(seller);
+        image.setSaleType(SaleType.AUCTION);
+        image.setStartingBid(STARTING_BID);
+        image.setBidCount(0);
+        image.setAuctionStartTime(LocalDateTime.now().minusMinutes(1));
+        image.setAuctionEndTime(endTime);
+        return imageRepository.save(image).getId();
+    }
+
+    private Map<UUID, List<BidRecord>> readJournal(long firstSequence) {
+        Map<UUID, List<BidRecord>> byAuction = new HashMap<>();
+        long last = journal.getLastSequence();
+        for (long from = firstSequence; from <= last; from += 10000) {
+            for (BidRecord record : journal.read(from, 10000)) {
+                byAuction.computeIfAbsent(record.getImageId(), id -> new ArrayList<>()).add(record);
+            }
+        }
+        return byAuction;
+    }
+
+    private void checkAcceptedBids(List<Bidder> bidders, Map<UUID, List<BidRecord>> journaled,
+                                   List<String> violations) {
+        // Every acknowledged bid is journaled, plus one counter-bid for each bid a standing maximum covered
+        long expected = bidders.stream().mapToLong(b -> b.accepted + b.countered).sum();
+        long actual = journaled.values().stream().mapToLong(List::size).sum();
+        if (expected != actual) {
+            violations.add(String.format("Journal holds %d bids, bidders were acknowledged %d", actual, expected));
+        }
+    }
+
+    private void checkAuction(UUID imageId, List<BidRecord> records, LocalDateTime initialEndTime,
+                              List<String> violations) {
+        AuctionState state = auctionEngine.getState(imageId);
+
+        // Replay the journal and check each transition
+        BigDecimal price = STARTING_BID;
+        UUID leader = null;
+        UUID winningBidId = null;
+        int bidCount = 0;
+        Map<UUID, BigDecimal> maxima = new HashMap<>();
+        for (BidRecord record : records) {
+            if (record.getAuctionBidCount() != bidCount + 1) {
+                violations.add(String.format("Auction %s: bid %s has count %d after %d",
+                        imageId, record.getBidId(), record.getAuctionBidCount(), bidCount));
+            }
+            bidCount = record.getAuctionBidCount();
+
+            if (record.isWinning()) {
+                if (leader != null && record.getAuctionPrice().compareTo(price.add(AuctionEngine.MIN_BID_INCREMENT)) < 0) {
+                    violations.add(String.format("Auction %s: winning bid %s at %s does not beat %s",
+                            imageId, record.getBidId(), record.getAuctionPrice(), price));
+                }
+                if (!Objects.equals(record.getReplacedWinningBidId(), winningBidId)) {
+                    violations.add(String.format("Auction %s: bid %s replaced %s, leading bid was %s",
+                            imageId, record.getBidId(), record.getReplacedWinningBidId(), winningBidId));
+                }
+                price = record.getAuctionPrice();
+                leader = record.getBidderId();
+                winningBidId = record.getBidId();
+            } else if (record.getAuctionPrice().compareTo(price) != 0) {
+                violations.add(String.format("Auction %s: losing bid %s moved the price to %s",
+                        imageId, record.getBidId(), record.getAuctionPrice()));
+            }
+            if (record.getMaxBidAmount() != null) {
+                maxima.merge(record.getBidderId(), record.getMaxBidAmount(), BigDecimal::max);
+            }
+        }
+
+        // Nobody but the leader may hold a maximum above the price, or a proxy bid was not honoured
+        for (Map.Entry<UUID, BigDecimal> entry : maxima.entrySet()) {
+            if (!entry.getKey().equals(leader) && entry.getValue().compareTo(price) > 0) {
+                violations.add(String.format("Auction %s: bidder %s lost at %s with a maximum of %s",
+                        imageId, entry.getKey(), price, entry.getValue()));
+            }
+        }
+
+        // Engine state must match the journal
+        if (state.getBidCount() != bidCount || !Objects.equals(state.getLeaderId(), leader)
+                || (leader != null && state.getCurrentPrice().compareTo(price) != 0)) {
+            violations.add(String.format("Auction %s: engine has %d bids at %s led by %s, journal %d bids at %s led by %s",
+                    imageId, state.getBidCount(), state.getCurrentPrice(), state.getLeaderId(), bidCount, price, leader));
+        }
+        if (state.getEndTime().isBefore(initialEndTime)) {
+            violations.add(String.format("Auction %s: end time moved backwards to %s", imageId, state.getEndTime()));
+        }
+        if (state.getExtensionCount() > applicationPropertiesProvider.getAuction().getMaxExtensions()) {
+            violations.add(String.format("Auction %s: extended %d times", imageId, state.getExtensionCount()));
+        }
+
+        // And the database must match both
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM auction_bids WHERE image_id = ?", Integer.class, imageId);
+        List<UUID> winners = jdbcTemplate.queryForList(
+                "SELECT bidder_id FROM auction_bids WHERE image_id = ? AND is_winning_bid = true", UUID.class, imageId);
+        Map<String, Object> image = jdbcTemplate.queryForMap(
+                "SELECT current_bid, bid_count FROM images WHERE id = ?", imageId);
+
+        if (rows == null || rows != bidCount) {
+            violations.add(String.format("Auction %s: %s bid rows for %d journaled bids", imageId, rows, bidCount));
+        }
+        if (leader != null && (winners.size() != 1 || !winners.get(0).equals(leader))) {
+            violations.add(String.format("Auction %s: winning rows %s, leader is %s", imageId, winners, leader));
+        }
+        BigDecimal storedPrice = (BigDecimal) image.get("current_bid");
+        Number storedCount = (Number) image.get("bid_count");
+        if (leader != null && (storedPrice == null || storedPrice.compareTo(price) != 0
+                || storedCount == null || storedCount.intValue() != bidCount)) {
+            violations.add(String.format("Auction %s: image row has %s bids at %s, journal %d at %s",
+                    imageId, storedCount, storedPrice, bidCount, price));
+        }
+    }
+
+    private void report(List<Bidder> bidders, double elapsedSeconds, List<UUID> imageIds,
+                        LocalDateTime initialEndTime, List<String> violations) {
+        long accepted = 0, countered = 0, rejected = 0, failed = 0, snipes = 0;
+        int samples = 0;
+        for (Bidder bidder : bidders) {
+            accepted += bidder.accepted;
+            countered += bidder.countered;
+            rejected += bidder.rejected;
+            failed += bidder.failed;
+            snipes += bidder.snipes;
+            samples += bidder.latencyCount;
+        }
+
+        long[] latencies = new long[samples];
+        int offset = 0;
+        for (Bidder bidder : bidders) {
+            System.arraycopy(bidder.latencies, 0, latencies, offset, bidder.latencyCount);
+            offset += bidder.latencyCount;
+        }
+        Arrays.sort(latencies);
+
+        long extended = imageIds.stream()
+                .filter(id -> auctionEngine.getState(id).getEndTime().isAfter(initialEndTime))
+                .count();
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%nAuction load test: %d auctions, %d bidders, %.1f s, %.0f%% proxy bids%n",
+                imageIds.size(), bidders.size(), elapsedSeconds, proxyShare * 100));
+        report.append(String.format("  Bids        %d attempted, %d accepted (+%d counter-bids), %d rejected, %d failed, %d snipes%n",
+                samples, accepted, countered, rejected, failed, snipes));
+        report.append(String.format("  Throughput  %.0f attempts/s, %.0f accepted/s%n",
+                samples / elapsedSeconds, accepted / elapsedSeconds));
+        report.append(String.format("  Latency     p50 %d us, p99 %d us, p99.9 %d us, max %d us%n",
+                percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                samples > 0 ? latencies[samples - 1] / 1000 : 0));
+        report.append(String.format("  Anti-sniping extended %d of %d auctions%n", extended, imageIds.size()));
+        report.append(String.format("  Writer      %s%n", bidWriter.getBatchStats()));
+        report.append(String.format("  Violations  %d%n", violations.size()));
+        violations.stream().limit(MAX_REPORTED_VIOLATIONS).forEach(v -> report.append("    ").append(v).append('\n'));
+        bidders.stream().map(b -> b.firstFailure).filter(Objects::nonNull).findFirst()
+                .ifPresent(failure -> report.append("  First failure: ").append(failure).append('\n'));
+        System.out.println(report);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1000;
+    }
+
+    /**
+     * One simulated bidder, owned by a single thread while it runs
+     */
+    private class Bidder {
+
+        private final UUID bidderId;
+        private long[] latencies = new long[1024];
+        private int latencyCount;
+        private long accepted;
+        private long countered;
+        private long rejected;
+        private long failed;
+        private long snipes;
+        private String firstFailure;
+
+        Bidder(UUID bidderId) {
+            this.bidderId = bidderId;
+        }
+
+        void run(List<UUID> imageIds, long start, long durationNanos, long snipingNanos) throws InterruptedException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long snipingStart = start + durationNanos - snipingNanos;
+            long end = start + durationNanos;
+
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                boolean sniping = now >= snipingStart;
+                UUID imageId = imageIds.get(random.nextInt(imageIds.size()));
+
+                // Bid on what the bidder last saw, racing everyone else who saw the same price
+                BigDecimal seen = auctionEngine.getState(imageId).getCurrentPrice();
+                BigDecimal amount = seen.add(AuctionEngine.MIN_BID_INCREMENT.multiply(
+                        BigDecimal.valueOf(1 + random.nextInt(sniping ? 10 : 3))));
+                BigDecimal maximum = random.nextDouble() < proxyShare
+                        ? amount.add(BigDecimal.valueOf(random.nextInt(1, 100)))
+                        : null;
+
+                BidRequest request = new BidRequest();
+                request.setImageId(imageId);
+                request.setBidAmount(amount);
+                request.setMaxBidAmount(maximum);
+
+                long begin = System.nanoTime();
+                try {
+                    AuctionBidResponse response = auctionService.placeBid(bidderId, request);
+                    accepted++;
+                    if (!Boolean.TRUE.equals(response.getIsWinningBid())) countered++;
+                } catch (BadRequestException e) {
+                    // Someone else got there first
+                    rejected++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    if (firstFailure == null) firstFailure = e.toString();
+                }
+                record(System.nanoTime() - begin);
+
+                if (sniping) {
+                    snipes++;
+                } else if (thinkMillis > 0) {
+                    Thread.sleep(random.nextInt(thinkMillis + 1));
+                }
+            }
+        }
+
+        private void record(long latency) {
+            if (latencyCount == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            }
+            latencies[latencyCount++] = latency;
+        }
+    }
+}
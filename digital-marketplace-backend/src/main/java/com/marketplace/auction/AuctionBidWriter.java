@@ -0,0 +1,231 @@
+package com.marketplace.auction;
+
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.util.BatchStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes accepted bids to {@code auction_bids} behind the {@link AuctionEngine}.
+ *
+ * A single background thread tails the {@link BidJournal} from the last
+ * checkpoint, so the image row always ends up with the price and end time of the
+ * latest bid.
+ * Every write is idempotent: bids keep their engine-assigned id, the first batch
+ * after a restart or a failure skips ids that are already in the table, and the
+ * image row only moves forward, so records written again after a crash between a
+ * commit and its checkpoint do no harm. Plain SQL keeps the writer portable to the
+ * embedded database of the load-test profile.
+ *
+ * Bids are written as JDBC batches of up to the configured size. Once a bid is
+ * waiting the writer lingers for the batch window so bursts share one round trip,
+ * and each image row is updated once per batch with the last bid on it.
+ */
+@Component
+public class AuctionBidWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionBidWriter.class);
+
+    private static final long IDLE_WAIT_MS = 1000;
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private static final String INSERT_BID =
+            "INSERT INTO auction_bids (id, created_at, updated_at, version, image_id, bidder_id, bid_amount, " +
+            "max_bid_amount, bid_time, is_active, is_winning_bid) VALUES (?, ?, ?, 0, ?, ?, ?, ?, ?, true, ?)";
+
+    private static final String CLEAR_WINNING_BID =
+            "UPDATE auction_bids SET is_winning_bid = false WHERE id = ?";
+
+    private static final String UPDATE_IMAGE =
+            "UPDATE images SET current_bid = ?, bid_count = ?, auction_end_time = ? " +
+            "WHERE id = ? AND (bid_count IS NULL OR bid_count <= ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BidJournal journal;
+
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+
+    private final BatchStats batchStats = new BatchStats("auction-bids");
+    private int batchSize;
+    private long batchWindowMs;
+
+    private final Object persistedMonitor = new Object();
+    private volatile long persistedSequence;
+    private volatile boolean running;
+    private boolean recovering = true; // Owned by whichever thread is writing
+    private Thread thread;
+
+    /**
+     * Catch up with the journal before the engine accepts new bids, so auctions the
+     * engine loads from the database see every bid
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        batchSize = Math.max(1, applicationPropertiesProvider.getAuction().getWriterBatchSize());
+        batchWindowMs = applicationPropertiesProvider.getAuction().getWriterBatchWindowMs();
+
+        persistedSequence = journal.getPersistedSequence();
+        long behind = journal.getLastSequence() - persistedSequence;
+        while (persistedSequence < journal.getLastSequence()) {
+            write(journal.read(persistedSequence + 1, batchSize));
+        }
+        if (behind > 0) {
+            logger.info("Replayed {} journaled bids into auction_bids", behind);
+        }
+
+        running = true;
+        thread = new Thread(this::run, "auction-bid-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Give the writer a moment to catch up before the datasource goes away.
+     * Whatever is left stays in the journal for the next start.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        awaitPersisted(journal.getLastSequence(), SHUTDOWN_TIMEOUT_MS);
+        running = false;
+        thread.interrupt();
+        thread.join(SHUTDOWN_TIMEOUT_MS);
+    }
+
+    /**
+     * Wait until every bid up to the sequence is in the database
+     */
+    public boolean awaitPersisted(long sequence, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (persistedMonitor) {
+            while (persistedSequence < sequence) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                persistedMonitor.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    public BatchStats getBatchStats() {
+        return batchStats;
+    }
+
+    /**
+     * Journaled bids not yet in the database
+     */
+    public long getBacklog() {
+        return Math.max(0, journal.getLastSequence() - persistedSequence);
+    }
+
+    // Private helper methods
+
+    private void run() {
+        while (running) {
+            try {
+                if (journal.awaitRecordsAfter(persistedSequence, IDLE_WAIT_MS)) {
+                    if (batchWindowMs > 0) {
+                        // Returns as soon as the batch is full
+                        journal.awaitRecordsAfter(persistedSequence + batchSize - 1, batchWindowMs);
+                    }
+                    write(journal.read(persistedSequence + 1, batchSize));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                recovering = true;
+                // Retry from the same position, the bids are safe in the journal meanwhile
+                logger.error("Failed to persist bids after sequence {}, retrying: {}", persistedSequence, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void write(List<BidRecord> records) throws IOException {
+        if (records.isEmpty()) return;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Set<UUID> existing = recovering ? findExistingBids(records) : Set.of();
+        List<Object[]> inserts = new ArrayList<>(records.size());
+        List<Object[]> clears = new ArrayList<>();
+        Map<UUID, BidRecord> latestPerImage = new LinkedHashMap<>();
+
+        for (BidRecord record : records) {
+            if (!existing.contains(record.getBidId())) {
+                inserts.add(new Object[]{record.getBidId(), now, now, record.getImageId(),
+                        record.getBidderId(), record.getBidAmount(), record.getMaxBidAmount(),
+                        Timestamp.valueOf(record.getBidTime()), record.isWinning()});
+            }
+
+            if (record.getReplacedWinningBidId() != null) {
+                clears.add(new Object[]{record.getReplacedWinningBidId()});
+            }
+            // Later records carry the newer price, earlier image updates would be overwritten anyway
+            latestPerImage.put(record.getImageId(), record);
+        }
+
+        List<Object[]> imageUpdates = new ArrayList<>(latestPerImage.size());
+        for (BidRecord record : latestPerImage.values()) {
+            imageUpdates.add(new Object[]{record.getAuctionPrice(), record.getAuctionBidCount(),
+                    Timestamp.valueOf(record.getAuctionEndTime()), record.getImageId(), record.getAuctionBidCount()});
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_BID, inserts);
+            }
+            if (!clears.isEmpty()) {
+                jdbcTemplate.batchUpdate(CLEAR_WINNING_BID, clears);
+            }
+            jdbcTemplate.batchUpdate(UPDATE_IMAGE, imageUpdates);
+        });
+        recovering = false;
+        batchStats.record(records.size());
+
+        long sequence = records.get(records.size() - 1).getSequence();
+        journal.markPersisted(sequence);
+        synchronized (persistedMonitor) {
+            persistedSequence = Math.max(persistedSequence, sequence);
+            persistedMonitor.notifyAll();
+        }
+    }
+
+    private Set<UUID> findExistingBids(List<BidRecord> records) {
+        String placeholders = String.join(", ", Collections.nCopies(records.size(), "?"));
+        Object[] ids = records.stream().map(BidRecord::getBidId).toArray();
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM auction_bids WHERE id IN (" + placeholders + ")", UUID.class, ids));
+    }
+}
@@ -0,0 +1,556 @@
+package com.marketplace.auction;
+
+import com.marketplace.auction.cluster.AuctionMovedException;
+import com.marketplace.auction.cluster.AuctionPartitioner;
+import com.marketplace.auction.cluster.ClusterClient;
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.exception.BadRequestException;
+import com.marketplace.exception.ResourceNotFoundException;
+import com.marketplace.model.entity.AuctionBid;
+import com.marketplace.model.entity.Image;
+import com.marketplace.model.enums.SaleType;
+import com.marketplace.repository.AuctionBidRepository;
+import com.marketplace.repository.ImageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Accepts bids against in-memory auction state.
+ *
+ * Proxy bidding is settled at acceptance: a bid is compared against the highest
+ * standing maximum of any other bidder, and the resulting price (runner-up maximum
+ * plus one increment, capped at the winner's maximum) is written as at most one
+ * counter-bid instead of an increment-by-increment exchange.
+ *
+ * Anti-sniping is part of acceptance too: a bid inside the soft-close window moves
+ * the end time in the same critical section and carries it into the journal, so
+ * late bids racing each other always see each other's extension. Extensions are
+ * capped per auction and passed on to watchers and registered listeners. Buy-now
+ * ends an auction the same way, as a journaled bid that closes it.
+ *
+ * Each live auction is loaded once and then owned by its {@link AuctionState} lock,
+ * which sequences all bids on that auction without touching the database. Accepted
+ * bids are appended to the {@link BidJournal} before they are acknowledged and
+ * written to {@code auction_bids} asynchronously by the {@link AuctionBidWriter}.
+ * Live state is snapshotted every minute and restored from the latest snapshot
+ * plus the journal tail on startup.
+ *
+ * In partitioned mode the engine only holds the auctions the {@link AuctionPartitioner}
+ * assigns to this node and refuses the rest with an {@link AuctionMovedException}.
+ * An auction changing owner is released by the old owner first, which stops
+ * bidding on it and waits until its bids are saved; the new owner then loads it
+ * from the database like any other auction.
+ */
+@Component
+public class AuctionEngine {
+
+    public static final BigDecimal MIN_BID_INCREMENT = new BigDecimal("1.00");
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private AuctionBidRepository bidRepository;
+
+    @Autowired
+    private BidJournal journal;
+
+    @Autowired
+    private AuctionBidWriter bidWriter; // Must have caught up with the journal before any auction is loaded
+
+    @Autowired
+    private AuctionEventBroadcaster broadcaster;
+
+    @Autowired
+    private AuctionPartitioner partitioner;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    @Autowired
+    private AuctionMetrics metrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionEngine.class);
+
+    private static final int REPLAY_BATCH = 10000;
+    private static final long RELEASE_TIMEOUT_MS = 10000;
+
+    private final Map<UUID, AuctionState> auctions = new ConcurrentHashMap<>();
+    private final List<BiConsumer<UUID, LocalDateTime>> endTimeListeners = new CopyOnWriteArrayList<>();
+    private volatile long lastSnapshotSequence = -1;
+    // Hands out contiguous journal sequences across auctions
+    private final Object sequencer = new Object();
+    private long sequence;
+
+    /**
+     * Restore live auctions from the latest snapshot and replay the journal on top of it.
+     * Auctions without a snapshot are loaded from the database on first access, which
+     * is up to date because the bid writer has caught up with the journal by now.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        partitioner.onRingChange(this::releaseUnowned);
+        sequence = journal.getLastSequence();
+
+        BidJournal.Snapshot snapshot = journal.readLatestSnapshot();
+        if (snapshot == null) return;
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot.getPayload()))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                AuctionState state = AuctionState.readFrom(in);
+                auctions.put(state.getImageId(), state);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Written by an older version; the database is complete, so start from there instead
+            logger.warn("Ignoring unreadable auction snapshot at sequence {}: {}", snapshot.getSequence(), e.getMessage());
+            auctions.clear();
+            return;
+        }
+
+        int replayed = 0;
+        for (long from = snapshot.getSequence() + 1; from <= sequence; from += REPLAY_BATCH) {
+            for (BidRecord record : journal.read(from, REPLAY_BATCH)) {
+                AuctionState state = auctions.get(record.getImageId());
+                if (state != null) {
+                    state.apply(record);
+                    replayed++;
+                }
+            }
+        }
+
+        // Owned by another node by now; the database has their bids, which the writer caught up on
+        auctions.keySet().removeIf(imageId -> !partitioner.isLocal(imageId));
+        logger.info("Restored {} auctions from snapshot at sequence {} and replayed {} bids",
+                auctions.size(), snapshot.getSequence(), replayed);
+    }
+
+    /**
+     * Snapshot live auctions so a restart replays only the journal tail
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+    @PreDestroy
+    public void snapshot() {
+        // Every bid up to this sequence is applied to its state before that state's lock is released
+        long snapshotSequence = journal.getLastSequence();
+        if (snapshotSequence == lastSnapshotSequence) return;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int count = 0;
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);
+            for (AuctionState state : auctions.values()) {
+                state.lock.lock();
+                try {
+                    if (state.isClosed()) continue;
+                    state.writeTo(out);
+                    count++;
+                } finally {
+                    state.lock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] payload = bytes.toByteArray();
+        ByteBuffer.wrap(payload).putInt(count);
+        try {
+            journal.writeSnapshot(snapshotSequence, payload);
+            lastSnapshotSequence = snapshotSequence;
+        } catch (IOException e) {
+            logger.error("Failed to write auction snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Live state of an auction, loaded from the database on first access.
+     * Throws {@link AuctionMovedException} if another node owns the auction.
+     */
+    public AuctionState getState(UUID imageId) {
+        AuctionState state = auctions.get(imageId);
+        if (state != null) return state;
+
+        if (!partitioner.isLocal(imageId)) {
+            throw new AuctionMovedException(imageId);
+        }
+
+        // Taken over from another node, which has to stop bidding and save its bids before we read them
+        String previousOwner = partitioner.previousOwnerUrl(imageId);
+        if (previousOwner != null) {
+            clusterClient.releaseAuction(previousOwner, imageId);
+        }
+
+        // Load outside the map so a slow query does not block other auctions
+        AuctionState loaded = load(imageId);
+        state = auctions.putIfAbsent(imageId, loaded);
+        return state != null ? state : loaded;
+    }
+
+    /**
+     * Be told whenever an auction's end time moves, by an anti-sniping extension or
+     * a buy-now ending it early; called outside the auction's lock
+     */
+    public void onEndTimeChange(BiConsumer<UUID, LocalDateTime> listener) {
+        endTimeListeners.add(listener);
+    }
+
+    /**
+     * Validate and accept a bid. The bid is journaled when this returns.
+     */
+    public BidOutcome placeBid(UUID bidderId, UUID imageId, BigDecimal bidAmount, BigDecimal maxBidAmount) {
+        AuctionState state = getState(imageId);
+        BigDecimal amount = bidAmount.setScale(2, RoundingMode.HALF_UP);
+        BigDecimal maximum = maxBidAmount != null ? maxBidAmount.setScale(2, RoundingMode.HALF_UP) : null;
+
+        BidOutcome outcome = accept(state, bidderId, amount, maximum);
+        metrics.bidAccepted(outcome.getCounterBid() != null);
+        if (outcome.getExtendedEndTime() != null) {
+            metrics.extended();
+            for (BiConsumer<UUID, LocalDateTime> listener : endTimeListeners) {
+                listener.accept(imageId, outcome.getExtendedEndTime());
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * Buy the item at its buy-now price. The auction ends on the spot: bids still
+     * waiting for its lock find it closed. The purchase is journaled when this returns.
+     */
+    public BidOutcome buyNow(UUID buyerId, UUID imageId) {
+        AuctionState state = getState(imageId);
+        BidOutcome outcome;
+
+        lockForBid(state);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            validateBidder(state, buyerId, now);
+            if (!state.isBuyNowAvailable()) {
+                throw new BadRequestException("Buy now is not available for this auction");
+            }
+
+            UUID previousLeaderId = state.getLeaderId();
+            BidRecord record = append(state, buyerId, state.getBuyNowPrice(), null, true, now, true);
+            broadcaster.publish(AuctionEvent.of(AuctionEvent.Type.CLOSED, state));
+            metrics.boughtNow();
+            outcome = new BidOutcome(record, null, previousLeaderId, state, null);
+        } finally {
+            state.lock.unlock();
+        }
+
+        for (BiConsumer<UUID, LocalDateTime> listener : endTimeListeners) {
+            listener.accept(imageId, outcome.getRecord().getAuctionEndTime());
+        }
+        return outcome;
+    }
+
+    /**
+     * Watch an auction, starting with a snapshot of its current state. Subscribed under
+     * the auction's lock, which every event is published under, so no event is lost or
+     * delivered ahead of the snapshot.
+     */
+    public SseEmitter watch(UUID imageId) {
+        AuctionState state = getState(imageId);
+
+        state.lock.lock();
+        try {
+            checkNotReleased(state);
+            boolean over = state.isClosed() || (state.getEndTime() != null && !LocalDateTime.now().isBefore(state.getEndTime()));
+            return broadcaster.subscribe(imageId,
+                    AuctionEvent.of(over ? AuctionEvent.Type.CLOSED : AuctionEvent.Type.SNAPSHOT, state));
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Stop accepting bids once the auction has run out of time. The end time is checked
+     * under the auction's lock, so a late bid that got its extension in first keeps the
+     * auction open and this throws instead. Returns the journal sequence every accepted
+     * bid is covered by.
+     */
+    public long close(UUID imageId) {
+        AuctionState state = getState(imageId);
+        state.lock.lock();
+        try {
+            checkNotReleased(state);
+            // Closed already by a buy-now or an earlier attempt
+            if (!state.isClosed()) {
+                if (state.getEndTime() == null || LocalDateTime.now().isBefore(state.getEndTime())) {
+                    throw new BadRequestException("Auction has not ended yet");
+                }
+                state.setClosed(true);
+                broadcaster.publish(AuctionEvent.of(AuctionEvent.Type.CLOSED, state));
+            }
+        } finally {
+            state.lock.unlock();
+        }
+        return journal.getLastSequence();
+    }
+
+    /**
+     * Bids currently waiting for each auction's lock, deepest queues first
+     */
+    public Map<UUID, Integer> getLockQueueDepths(int limit) {
+        List<Map.Entry<UUID, Integer>> queued = new ArrayList<>();
+        for (AuctionState state : auctions.values()) {
+            int length = state.lock.getQueueLength();
+            if (length > 0) queued.add(Map.entry(state.getImageId(), length));
+        }
+        queued.sort(Map.Entry.<UUID, Integer>comparingByValue().reversed());
+
+        Map<UUID, Integer> depths = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Integer> entry : queued.subList(0, Math.min(limit, queued.size()))) {
+            depths.put(entry.getKey(), entry.getValue());
+        }
+        return depths;
+    }
+
+    /**
+     * Forget an auction, it is reloaded from the database if it is accessed again
+     */
+    public void evict(UUID imageId) {
+        auctions.remove(imageId);
+    }
+
+    /**
+     * Hand an auction over to another node: stop bidding on it here and wait until
+     * its bids are saved, so the new owner loads it complete from the database
+     */
+    public void release(UUID imageId) {
+        AuctionState state = auctions.get(imageId);
+        if (state == null) return;
+
+        long lastSequence;
+        state.lock.lock();
+        try {
+            // Bids already waiting for the lock find it released and go to the new owner
+            state.setReleased(true);
+            auctions.remove(imageId, state);
+            lastSequence = state.getLastSequence();
+        } finally {
+            state.lock.unlock();
+        }
+        broadcaster.disconnect(imageId);
+
+        try {
+            if (!bidWriter.awaitPersisted(lastSequence, RELEASE_TIMEOUT_MS)) {
+                throw new BadRequestException("Bids for this auction are still being saved, please try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BadRequestException("Interrupted while waiting for bids to be saved");
+        }
+    }
+
+    // Private helper methods
+
+    /**
+     * Validation, proxy resolution and soft close in one critical section
+     */
+    private BidOutcome accept(AuctionState state, UUID bidderId, BigDecimal amount, BigDecimal maximum) {
+        lockForBid(state);
+        long acquired = System.nanoTime();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            validateBidder(state, bidderId, now);
+            if (amount.compareTo(state.getStartingBid()) < 0) {
+                metrics.bidRejected(true);
+                throw new BadRequestException(String.format("Bid must be at least %s", state.getStartingBid()));
+            }
+            if (amount.compareTo(state.getCurrentPrice().add(MIN_BID_INCREMENT)) < 0) {
+                metrics.bidRejected(true);
+                throw new BadRequestException(String.format("Bid must be at least %s higher than current bid of %s",
+                        MIN_BID_INCREMENT, state.getCurrentPrice()));
+            }
+
+            UUID previousLeaderId = state.getLeaderId();
+            LocalDateTime endTime = softCloseEndTime(state, now);
+            LocalDateTime extendedEndTime = endTime.isAfter(state.getEndTime()) ? endTime : null;
+            BigDecimal bidderMaximum = maximum != null ? maximum.max(amount) : amount;
+
+            // Strongest standing maximum of anyone else; on a tie the earlier maximum keeps the lead
+            UUID rivalId = null;
+            BigDecimal rivalMaximum = null;
+            for (Map.Entry<UUID, BigDecimal> entry : state.getProxyMaxima().entrySet()) {
+                if (entry.getKey().equals(bidderId)) continue;
+                if (rivalMaximum == null || entry.getValue().compareTo(rivalMaximum) > 0) {
+                    rivalId = entry.getKey();
+                    rivalMaximum = entry.getValue();
+                }
+            }
+
+            if (rivalMaximum == null || rivalMaximum.compareTo(bidderMaximum) < 0) {
+                // The bid wins, at just enough to beat the runner-up but never below what was offered
+                BigDecimal price = amount;
+                if (rivalMaximum != null) {
+                    price = price.max(rivalMaximum.add(MIN_BID_INCREMENT).min(bidderMaximum));
+                }
+                BidRecord record = append(state, bidderId, price, maximum, true, endTime, false);
+                return new BidOutcome(record, null, previousLeaderId, state, extendedEndTime);
+            }
+
+            // An earlier maximum covers the bid: record it and settle the war with one counter-bid
+            BidRecord record = append(state, bidderId, amount, maximum, false, endTime, false);
+            BigDecimal counterPrice = rivalMaximum.min(bidderMaximum.add(MIN_BID_INCREMENT));
+            BidRecord counterBid = append(state, rivalId, counterPrice, rivalMaximum, true, endTime, false);
+            return new BidOutcome(record, counterBid, previousLeaderId, state, extendedEndTime);
+        } finally {
+            state.lock.unlock();
+            metrics.recordAccept(System.nanoTime() - acquired);
+        }
+    }
+
+    private void validateBidder(AuctionState state, UUID bidderId, LocalDateTime now) {
+        checkNotReleased(state);
+        if (!state.isActive(now)) {
+            metrics.bidRejected(false);
+            throw new BadRequestException("Auction is not active");
+        }
+        if (state.getOwnerId().equals(bidderId)) {
+            metrics.bidRejected(false);
+            throw new BadRequestException("You cannot bid on your own auction");
+        }
+    }
+
+    /**
+     * Take an auction's lock for a bid, recording the wait and how many bids were queued ahead
+     */
+    private void lockForBid(AuctionState state) {
+        if (state.lock.tryLock()) {
+            metrics.recordLockWait(0);
+            return;
+        }
+
+        metrics.lockContended(state.lock.getQueueLength());
+        long start = System.nanoTime();
+        state.lock.lock();
+        metrics.recordLockWait(System.nanoTime() - start);
+    }
+
+    private void checkNotReleased(AuctionState state) {
+        if (state.isReleased()) {
+            throw new AuctionMovedException(state.getImageId());
+        }
+    }
+
+    /**
+     * Release every auction another node owns since the ring changed
+     */
+    private void releaseUnowned() {
+        for (UUID imageId : auctions.keySet()) {
+            if (partitioner.isLocal(imageId)) continue;
+            try {
+                release(imageId);
+            } catch (RuntimeException e) {
+                // The new owner asks again before it loads the auction
+                logger.warn("Failed to release auction {}: {}", imageId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * End time after a bid at the given time: pushed out if the bid falls into the
+     * soft-close window and the auction has extensions left
+     */
+    private LocalDateTime softCloseEndTime(AuctionState state, LocalDateTime now) {
+        ApplicationPropertiesProvider.Auction rules = applicationPropertiesProvider.getAuction();
+        LocalDateTime endTime = state.getEndTime();
+
+        if (state.getExtensionCount() >= rules.getMaxExtensions()) return endTime;
+        if (now.isBefore(endTime.minusSeconds(rules.getExtendWindowSeconds()))) return endTime;
+
+        LocalDateTime extended = now.plusSeconds(rules.getExtendBySeconds());
+        return extended.isAfter(endTime) ? extended : endTime;
+    }
+
+    private BidRecord append(AuctionState state, UUID bidderId, BigDecimal amount, BigDecimal maximum,
+                             boolean winning, LocalDateTime endTime, boolean buyNow) {
+        UUID bidId = UUID.randomUUID();
+        int bidCount = state.getBidCount() + 1;
+
+        BidRecord record;
+        synchronized (sequencer) {
+            record = new BidRecord(++sequence, bidId, state.getImageId(), bidderId, amount, maximum,
+                    LocalDateTime.now(), winning, winning ? state.getLeadingBidId() : null,
+                    winning ? amount : state.getCurrentPrice(), bidCount, endTime, buyNow);
+            journal.append(record);
+        }
+
+        // The same transition the journal replay makes, including any extension
+        boolean extended = !buyNow && endTime.isAfter(state.getEndTime());
+        state.apply(record);
+
+        // Non-blocking, and publishing under the lock keeps watchers' events in bid order
+        broadcaster.publish(AuctionEvent.bid(record, state));
+        if (extended) {
+            broadcaster.publish(AuctionEvent.of(AuctionEvent.Type.EXTENDED, state));
+        }
+        return record;
+    }
+
+    private AuctionState load(UUID imageId) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        return template.execute(status -> {
+            Image image = imageRepository.findById(imageId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Image", "id", imageId));
+
+            if (image.getSaleType() != SaleType.AUCTION) {
+                throw new BadRequestException("Image is not an auction item");
+            }
+
+            AuctionState state = new AuctionState(image.getId(), image.getCurrentOwner().getId(), image.getTitle(),
+                    image.getThumbnailUrl(), image.getStartingBid(), image.getReservePrice(), image.getBuyNowPrice(),
+                    image.getAuctionStartTime(), image.getAuctionEndTime());
+
+            AuctionBid highest = bidRepository.findHighestBidForImage(imageId).orElse(null);
+            if (highest != null) {
+                state.setCurrentPrice(highest.getBidAmount());
+                state.setLeader(highest.getBidder().getId(), highest.getId());
+            }
+            state.setBidCount(image.getBidCount() != null ? image.getBidCount() : 0);
+
+            List<Object[]> maxima = bidRepository.findProxyMaximaForImage(imageId);
+            for (Object[] row : maxima) {
+                state.raiseProxyMaximum((UUID) row[0], (BigDecimal) row[1]);
+            }
+            return state;
+        });
+    }
+}
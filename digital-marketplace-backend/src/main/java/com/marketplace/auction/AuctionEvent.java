@@ -0,0 +1,75 @@
+package com.marketplace.auction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Change of a live auction pushed to watchers. Every event carries the full
+ * current price, bid count, end time, reserve and buy-now state, so a watcher
+ * that missed events is back in sync with the next one.
+ */
+public final class AuctionEvent {
+
+    public enum Type { SNAPSHOT, BID, EXTENDED, CLOSED }
+
+    private final Type type;
+    private final UUID imageId;
+    private final UUID bidId;
+    private final UUID bidderId;
+    private final BigDecimal bidAmount;
+    private final BigDecimal currentPrice;
+    private final UUID leaderId;
+    private final int bidCount;
+    private final LocalDateTime endTime;
+    private final boolean reserveMet;
+    private final boolean buyNowAvailable;
+    private final LocalDateTime timestamp;
+
+    private AuctionEvent(Type type, UUID imageId, UUID bidId, UUID bidderId, BigDecimal bidAmount,
+                         BigDecimal currentPrice, UUID leaderId, int bidCount, LocalDateTime endTime,
+                         AuctionState state) {
+        this.type = type;
+        this.imageId = imageId;
+        this.bidId = bidId;
+        this.bidderId = bidderId;
+        this.bidAmount = bidAmount;
+        this.currentPrice = currentPrice;
+        this.leaderId = leaderId;
+        this.bidCount = bidCount;
+        this.endTime = endTime;
+        this.reserveMet = state.isReserveMet();
+        this.buyNowAvailable = !state.isClosed() && state.isBuyNowAvailable();
+        this.timestamp = LocalDateTime.now();
+    }
+
+    /**
+     * State of the auction, caller must hold its lock
+     */
+    static AuctionEvent of(Type type, AuctionState state) {
+        return new AuctionEvent(type, state.getImageId(), null, null, null, state.getCurrentPrice(),
+                state.getLeaderId(), state.getBidCount(), state.getEndTime(), state);
+    }
+
+    /**
+     * An accepted bid, caller must hold the auction's lock
+     */
+    static AuctionEvent bid(BidRecord record, AuctionState state) {
+        return new AuctionEvent(Type.BID, record.getImageId(), record.getBidId(), record.getBidderId(),
+                record.getBidAmount(), record.getAuctionPrice(), state.getLeaderId(), record.getAuctionBidCount(),
+                state.getEndTime(), state);
+    }
+
+    public Type getType() { return type; }
+    public UUID getImageId() { return imageId; }
+    public UUID getBidId() { return bidId; }
+    public UUID getBidderId() { return bidderId; }
+    public BigDecimal getBidAmount() { return bidAmount; }
+    public BigDecimal getCurrentPrice() { return currentPrice; }
+    public UUID getLeaderId() { return leaderId; }
+    public int getBidCount() { return bidCount; }
+    public LocalDateTime getEndTime() { return endTime; }
+    public boolean isReserveMet() { return reserveMet; }
+    public boolean isBuyNowAvailable() { return buyNowAvailable; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+}
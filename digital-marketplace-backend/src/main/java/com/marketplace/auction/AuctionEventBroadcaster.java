@@ -0,0 +1,218 @@
+package com.marketplace.auction;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes {@link AuctionEvent}s to Server-Sent Event watchers of an auction.
+ *
+ * Publishing never blocks: an event is added to each watcher's small buffer, which
+ * drops its oldest event when full, and a virtual sender thread per busy connection
+ * writes it out. A slow client therefore only ever loses intermediate events and
+ * cannot hold up the bid path, and a client whose socket stopped draining only parks
+ * its own sender. A write blocked for longer than {@code SEND_TIMEOUT_MS} drops the
+ * watcher at the next heartbeat. Connections are async requests, so idle watchers
+ * cost no threads.
+ */
+@Component
+public class AuctionEventBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionEventBroadcaster.class);
+
+    private static final int BUFFER_SIZE = 32;
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final long SEND_TIMEOUT_MS = 10000;
+
+    private final Map<UUID, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+    private final AtomicInteger watcherCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("auction-events-", 0).factory());
+
+    /**
+     * Start watching an auction, the first event is the given snapshot of its current state.
+     * Events published concurrently are only ordered after the snapshot if the caller holds
+     * the auction's lock, as {@link AuctionEngine#watch} does.
+     */
+    public SseEmitter subscribe(UUID imageId, AuctionEvent snapshot) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Watcher watcher = new Watcher(imageId, emitter);
+
+        // Clients reconnect by themselves once the emitter times out
+        emitter.onCompletion(() -> unsubscribe(watcher));
+        emitter.onTimeout(() -> unsubscribe(watcher));
+        emitter.onError(e -> unsubscribe(watcher));
+
+        // Buffered before the watcher is visible to publishers, so nothing is queued ahead of it
+        watcher.offer(snapshot);
+        watchers.computeIfAbsent(imageId, id -> ConcurrentHashMap.newKeySet()).add(watcher);
+        watcherCount.incrementAndGet();
+        return emitter;
+    }
+
+    public void publish(AuctionEvent event) {
+        Set<Watcher> subscribed = watchers.get(event.getImageId());
+        if (subscribed == null) return;
+
+        for (Watcher watcher : subscribed) {
+            watcher.offer(event);
+        }
+    }
+
+    /**
+     * Close every connection watching an auction, its watchers reconnect to wherever it is served now
+     */
+    public void disconnect(UUID imageId) {
+        Set<Watcher> subscribed = watchers.get(imageId);
+        if (subscribed == null) return;
+
+        for (Watcher watcher : subscribed) {
+            watcher.emitter.complete();
+        }
+    }
+
+    public int getWatcherCount() {
+        return watcherCount.get();
+    }
+
+    /**
+     * Keep idle connections open through proxies and drop clients that went away or stopped reading
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void sendHeartbeats() {
+        long now = System.nanoTime();
+        for (Set<Watcher> subscribed : watchers.values()) {
+            for (Watcher watcher : subscribed) {
+                if (watcher.isStalled(now)) {
+                    logger.debug("Dropping auction watcher for image {}: send blocked", watcher.imageId);
+                    unsubscribe(watcher);
+                    watcher.emitter.completeWithError(new IOException("Send blocked for more than " + SEND_TIMEOUT_MS + " ms"));
+                } else {
+                    watcher.offer(null);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        watchers.values().forEach(subscribed -> subscribed.forEach(watcher -> watcher.emitter.complete()));
+    }
+
+    // Private helper methods
+
+    private void unsubscribe(Watcher watcher) {
+        Set<Watcher> subscribed = watchers.get(watcher.imageId);
+        if (subscribed != null && subscribed.remove(watcher)) {
+            watcherCount.decrementAndGet();
+            if (subscribed.isEmpty()) {
+                watchers.remove(watcher.imageId, subscribed);
+            }
+        }
+    }
+
+    /**
+     * One connection. A null event in the buffer stands for a heartbeat.
+     */
+    private final class Watcher {
+        private final UUID imageId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<AuctionEvent> buffer = new ArrayDeque<>(BUFFER_SIZE);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private boolean heartbeatPending;
+        private volatile long sendingSince; // System.nanoTime() when the write in progress began, 0 if idle
+
+        Watcher(UUID imageId, SseEmitter emitter) {
+            this.imageId = imageId;
+            this.emitter = emitter;
+        }
+
+        void offer(AuctionEvent event) {
+            synchronized (buffer) {
+                if (event == null) {
+                    // A heartbeat is only needed when nothing else is about to be sent
+                    if (!buffer.isEmpty() || heartbeatPending) return;
+                    heartbeatPending = true;
+                } else {
+                    if (buffer.size() == BUFFER_SIZE) {
+                        buffer.pollFirst();
+                    }
+                    buffer.addLast(event);
+                }
+            }
+
+            // Only one sender per connection at a time, which keeps events in order
+            if (scheduled.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        boolean isStalled(long now) {
+            long since = sendingSince;
+            return since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MS);
+        }
+
+        private void send(AuctionEvent event) throws IOException {
+            sendingSince = System.nanoTime() | 1;
+            try {
+                if (event == null) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event()
+                            .name(event.getType().name().toLowerCase())
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            } finally {
+                sendingSince = 0;
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    AuctionEvent event;
+                    boolean heartbeat;
+                    synchronized (buffer) {
+                        event = buffer.pollFirst();
+                        heartbeat = event == null && heartbeatPending;
+                        heartbeatPending = false;
+                        if (event == null && !heartbeat) {
+                            scheduled.set(false);
+                            break;
+                        }
+                    }
+
+                    send(event);
+                    if (event != null && event.getType() == AuctionEvent.Type.CLOSED) {
+                        // Leaves the flag set, nothing more is sent on this connection
+                        emitter.complete();
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed
+                logger.debug("Dropping auction watcher for image {}: {}", imageId, e.getMessage());
+                scheduled.set(false);
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
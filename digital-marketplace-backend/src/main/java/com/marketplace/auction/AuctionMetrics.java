@@ -0,0 +1,111 @@
+package com.marketplace.auction;
+
+import com.marketplace.util.LatencyHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and counters of the bid path, recorded by the engine and
+ * {@code AuctionService}. Everything is lock-free, so recording does not add
+ * contention to the auction locks it measures.
+ */
+@Component
+public class AuctionMetrics {
+
+    private final LatencyHistogram placeBid = new LatencyHistogram("placeBid");
+    private final LatencyHistogram accept = new LatencyHistogram("accept");
+    private final LatencyHistogram lockWait = new LatencyHistogram("lockWait");
+    private final LatencyHistogram endAuction = new LatencyHistogram("endAuction");
+
+    private final LongAdder bidsAccepted = new LongAdder();
+    private final LongAdder bidsRejected = new LongAdder();
+    private final LongAdder bidsRejectedLow = new LongAdder();
+    private final LongAdder proxyCounterBids = new LongAdder();
+    private final LongAdder lockContended = new LongAdder();
+    private final LongAdder extensions = new LongAdder();
+    private final LongAdder buyNows = new LongAdder();
+    private final LongAdder bidsForwarded = new LongAdder();
+    private final AtomicLong maxLockQueue = new AtomicLong();
+
+    /**
+     * Whole bid request including notifications, or forwarding to the owning node
+     */
+    public void recordPlaceBid(long nanos) { placeBid.recordNanos(nanos); }
+
+    /**
+     * Critical section of a bid: validation, proxy resolution, soft close and journal append
+     */
+    public void recordAccept(long nanos) { accept.recordNanos(nanos); }
+
+    public void recordEndAuction(long nanos) { endAuction.recordNanos(nanos); }
+
+    public void recordLockWait(long nanos) { lockWait.recordNanos(nanos); }
+
+    /**
+     * The auction's lock was taken, with the given number of threads already waiting for it
+     */
+    public void lockContended(int queued) {
+        lockContended.increment();
+        maxLockQueue.accumulateAndGet(queued, Math::max);
+    }
+
+    public void bidAccepted(boolean counterBid) {
+        bidsAccepted.increment();
+        if (counterBid) proxyCounterBids.increment();
+    }
+
+    public void bidRejected(boolean tooLow) {
+        bidsRejected.increment();
+        if (tooLow) bidsRejectedLow.increment();
+    }
+
+    public void extended() { extensions.increment(); }
+    public void boughtNow() { buyNows.increment(); }
+    public void bidForwarded() { bidsForwarded.increment(); }
+
+    /**
+     * Start a new measuring interval, e.g. right before a hot drop
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms()) {
+            histogram.reset();
+        }
+        for (LongAdder counter : List.of(bidsAccepted, bidsRejected, bidsRejectedLow, proxyCounterBids,
+                lockContended, extensions, buyNows, bidsForwarded)) {
+            counter.reset();
+        }
+        maxLockQueue.set(0);
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (LatencyHistogram histogram : histograms()) {
+            latency.put(histogram.getName(), histogram.toMap());
+        }
+
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("bidsAccepted", bidsAccepted.sum());
+        counters.put("bidsRejected", bidsRejected.sum());
+        counters.put("bidsRejectedLow", bidsRejectedLow.sum());
+        counters.put("proxyCounterBids", proxyCounterBids.sum());
+        counters.put("lockContended", lockContended.sum());
+        counters.put("maxLockQueue", maxLockQueue.get());
+        counters.put("extensions", extensions.sum());
+        counters.put("buyNows", buyNows.sum());
+        counters.put("bidsForwarded", bidsForwarded.sum());
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("latency", latency);
+        map.put("counters", counters);
+        return map;
+    }
+
+    public List<LatencyHistogram> histograms() {
+        return List.of(placeBid, accept, lockWait, endAuction);
+    }
+}
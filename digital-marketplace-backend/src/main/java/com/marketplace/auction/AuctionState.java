@@ -0,0 +1,232 @@
+package com.marketplace.auction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live state of one auction held by the {@link AuctionEngine}.
+ *
+ * Every field is guarded by {@link #lock}; holding it makes the caller the single
+ * writer of this auction, so bids on one auction are strictly sequenced while
+ * bids on different auctions never contend.
+ */
+public class AuctionState {
+
+    final ReentrantLock lock = new ReentrantLock();
+
+    private final UUID imageId;
+    private final UUID ownerId;
+    private final String title;
+    private final String thumbnailUrl;
+    private final BigDecimal startingBid;
+    private final BigDecimal reservePrice;
+    private final BigDecimal buyNowPrice;
+    private final LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+    private BigDecimal currentPrice;
+    private UUID leaderId;
+    private UUID leadingBidId;
+    private int bidCount;
+    private int extensionCount; // Anti-sniping extensions so far
+    private boolean closed;
+    private long lastSequence; // Last journaled bid applied to this state
+    private boolean released; // Handed over to another node, never set on a state still in the engine
+
+    // Highest maximum each bidder has authorised so far
+    private final Map<UUID, BigDecimal> proxyMaxima = new HashMap<>();
+
+    AuctionState(UUID imageId, UUID ownerId, String title, String thumbnailUrl, BigDecimal startingBid,
+                 BigDecimal reservePrice, BigDecimal buyNowPrice, LocalDateTime startTime, LocalDateTime endTime) {
+        this.imageId = imageId;
+        this.ownerId = ownerId;
+        this.title = title;
+        this.thumbnailUrl = thumbnailUrl;
+        this.startingBid = startingBid;
+        this.reservePrice = reservePrice;
+        this.buyNowPrice = buyNowPrice;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.currentPrice = startingBid;
+    }
+
+    public boolean isActive(LocalDateTime now) {
+        return !closed && startTime != null && endTime != null
+                && now.isAfter(startTime) && now.isBefore(endTime);
+    }
+
+    public UUID getImageId() { return imageId; }
+    public UUID getOwnerId() { return ownerId; }
+    public String getTitle() { return title; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public BigDecimal getStartingBid() { return startingBid; }
+    public BigDecimal getReservePrice() { return reservePrice; }
+    public BigDecimal getBuyNowPrice() { return buyNowPrice; }
+    public LocalDateTime getStartTime() { return startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+    void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+
+    public BigDecimal getCurrentPrice() { return currentPrice; }
+    void setCurrentPrice(BigDecimal currentPrice) { this.currentPrice = currentPrice; }
+
+    public UUID getLeaderId() { return leaderId; }
+    public UUID getLeadingBidId() { return leadingBidId; }
+    void setLeader(UUID leaderId, UUID leadingBidId) {
+        this.leaderId = leaderId;
+        this.leadingBidId = leadingBidId;
+    }
+
+    public int getBidCount() { return bidCount; }
+    void setBidCount(int bidCount) { this.bidCount = bidCount; }
+
+    public int getExtensionCount() { return extensionCount; }
+
+    /**
+     * True once the leading bid has reached the reserve, or if there is none
+     */
+    public boolean isReserveMet() {
+        return leaderId != null && (reservePrice == null || currentPrice.compareTo(reservePrice) >= 0);
+    }
+
+    /**
+     * Buy-now is offered until bidding reaches the buy-now price
+     */
+    public boolean isBuyNowAvailable() {
+        return buyNowPrice != null && (leaderId == null || currentPrice.compareTo(buyNowPrice) < 0);
+    }
+
+    public boolean isClosed() { return closed; }
+    void setClosed(boolean closed) { this.closed = closed; }
+
+    public long getLastSequence() { return lastSequence; }
+
+    boolean isReleased() { return released; }
+    void setReleased(boolean released) { this.released = released; }
+
+    Map<UUID, BigDecimal> getProxyMaxima() { return proxyMaxima; }
+
+    void raiseProxyMaximum(UUID bidderId, BigDecimal maximum) {
+        if (maximum != null) {
+            proxyMaxima.merge(bidderId, maximum, BigDecimal::max);
+        }
+    }
+
+    /**
+     * Apply an accepted bid. Used both live and when replaying the journal, which is
+     * what makes replay reproduce the live state. Bids already applied are skipped.
+     */
+    void apply(BidRecord record) {
+        if (record.getSequence() <= lastSequence) return;
+
+        if (record.isWinning()) {
+            currentPrice = record.getAuctionPrice();
+            leaderId = record.getBidderId();
+            leadingBidId = record.getBidId();
+        }
+        bidCount = record.getAuctionBidCount();
+        raiseProxyMaximum(record.getBidderId(), record.getMaxBidAmount());
+        if (record.isBuyNow()) {
+            // Ends the auction where it stands, the only way the end time moves back
+            endTime = record.getAuctionEndTime();
+            closed = true;
+        } else if (record.getAuctionEndTime() != null && (endTime == null || record.getAuctionEndTime().isAfter(endTime))) {
+            if (endTime != null) extensionCount++;
+            endTime = record.getAuctionEndTime();
+        }
+        lastSequence = record.getSequence();
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        writeUuid(out, imageId);
+        writeUuid(out, ownerId);
+        writeString(out, title);
+        writeString(out, thumbnailUrl);
+        writeDecimal(out, startingBid);
+        writeDecimal(out, reservePrice);
+        writeDecimal(out, buyNowPrice);
+        writeTime(out, startTime);
+        writeTime(out, endTime);
+        writeDecimal(out, currentPrice);
+        writeUuid(out, leaderId);
+        writeUuid(out, leadingBidId);
+        out.writeInt(bidCount);
+        out.writeInt(extensionCount);
+        out.writeBoolean(closed);
+        out.writeLong(lastSequence);
+
+        out.writeInt(proxyMaxima.size());
+        for (Map.Entry<UUID, BigDecimal> entry : proxyMaxima.entrySet()) {
+            writeUuid(out, entry.getKey());
+            writeDecimal(out, entry.getValue());
+        }
+    }
+
+    static AuctionState readFrom(DataInput in) throws IOException {
+        AuctionState state = new AuctionState(readUuid(in), readUuid(in), readString(in), readString(in),
+                readDecimal(in), readDecimal(in), readDecimal(in), readTime(in), readTime(in));
+        state.currentPrice = readDecimal(in);
+        state.leaderId = readUuid(in);
+        state.leadingBidId = readUuid(in);
+        state.bidCount = in.readInt();
+        state.extensionCount = in.readInt();
+        state.closed = in.readBoolean();
+        state.lastSequence = in.readLong();
+
+        int proxies = in.readInt();
+        for (int i = 0; i < proxies; i++) {
+            state.proxyMaxima.put(readUuid(in), readDecimal(in));
+        }
+        return state;
+    }
+
+    // Private helper methods
+
+    private static void writeUuid(DataOutput out, UUID id) throws IOException {
+        out.writeBoolean(id != null);
+        if (id != null) {
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value.toPlainString());
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        return in.readBoolean() ? new BigDecimal(in.readUTF()) : null;
+    }
+
+    private static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) out.writeLong(time.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneOffset.UTC) : null;
+    }
+}
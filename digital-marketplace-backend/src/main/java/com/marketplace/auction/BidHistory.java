@@ -0,0 +1,205 @@
+package com.marketplace.auction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Complete bid history of an ended auction, packed for cold storage.
+ *
+ * Bids are stored in bid-time order. Bidders go into a dictionary and are
+ * referenced by index; amounts are cents as the zigzag varint difference to the
+ * previous bid, maxima the difference to their bid, and times milliseconds since
+ * the previous bid. The result is deflated. Bid ids are kept so archived bids keep
+ * the ids they were shown with.
+ */
+public final class BidHistory {
+
+    private static final int VERSION = 1;
+    private static final int FLAG_WINNING = 1;
+    private static final int FLAG_ACTIVE = 2;
+
+    private final UUID[] bidIds;
+    private final UUID[] bidderIds;
+    private final long[] amounts; // Cents
+    private final long[] maxima; // Cents, Long.MIN_VALUE for none
+    private final long[] times; // Epoch millis, UTC
+    private final byte[] flags;
+
+    private BidHistory(int size) {
+        bidIds = new UUID[size];
+        bidderIds = new UUID[size];
+        amounts = new long[size];
+        maxima = new long[size];
+        times = new long[size];
+        flags = new byte[size];
+    }
+
+    /**
+     * Pack scalar bid rows (id, bidder id, amount, maximum, time, winning, active) in bid-time order
+     */
+    public static BidHistory fromRows(List<Object[]> rows) {
+        BidHistory history = new BidHistory(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            history.bidIds[i] = (UUID) row[0];
+            history.bidderIds[i] = (UUID) row[1];
+            history.amounts[i] = cents((BigDecimal) row[2]);
+            history.maxima[i] = row[3] != null ? cents((BigDecimal) row[3]) : Long.MIN_VALUE;
+            history.times[i] = ((LocalDateTime) row[4]).toInstant(ZoneOffset.UTC).toEpochMilli();
+            history.flags[i] = (byte) ((Boolean.TRUE.equals(row[5]) ? FLAG_WINNING : 0)
+                    | (Boolean.TRUE.equals(row[6]) ? FLAG_ACTIVE : 0));
+        }
+        return history;
+    }
+
+    public int size() {
+        return bidIds.length;
+    }
+
+    public UUID getBidId(int index) { return bidIds[index]; }
+    public UUID getBidderId(int index) { return bidderIds[index]; }
+    public BigDecimal getBidAmount(int index) { return BigDecimal.valueOf(amounts[index], 2); }
+    public BigDecimal getMaxBidAmount(int index) {
+        return maxima[index] == Long.MIN_VALUE ? null : BigDecimal.valueOf(maxima[index], 2);
+    }
+    public LocalDateTime getBidTime(int index) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(times[index]), ZoneOffset.UTC);
+    }
+    public boolean isWinning(int index) { return (flags[index] & FLAG_WINNING) != 0; }
+    public boolean isActive(int index) { return (flags[index] & FLAG_ACTIVE) != 0; }
+
+    /**
+     * Bid indexes ordered like the live table is queried: highest amount first
+     */
+    public int[] byAmountDescending() {
+        Integer[] order = new Integer[size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> amounts[i]).reversed());
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(
+                new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION)))) {
+            out.writeByte(VERSION);
+            writeVarint(out, size());
+
+            Map<UUID, Integer> dictionary = new HashMap<>();
+            List<UUID> bidders = new ArrayList<>();
+            for (UUID bidderId : bidderIds) {
+                if (dictionary.putIfAbsent(bidderId, bidders.size()) == null) bidders.add(bidderId);
+            }
+            writeVarint(out, bidders.size());
+            for (UUID bidderId : bidders) writeUuid(out, bidderId);
+
+            long previousAmount = 0;
+            long previousTime = 0;
+            for (int i = 0; i < size(); i++) {
+                writeUuid(out, bidIds[i]);
+                writeVarint(out, dictionary.get(bidderIds[i]));
+                writeVarint(out, zigzag(amounts[i] - previousAmount));
+                writeVarint(out, maxima[i] == Long.MIN_VALUE ? 0 : zigzag(maxima[i] - amounts[i]) + 1);
+                writeVarint(out, zigzag(times[i] - previousTime));
+                out.writeByte(flags[i]);
+                previousAmount = amounts[i];
+                previousTime = times[i];
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static BidHistory fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unknown bid history version " + version);
+            }
+
+            BidHistory history = new BidHistory((int) readVarint(in));
+            UUID[] bidders = new UUID[(int) readVarint(in)];
+            for (int i = 0; i < bidders.length; i++) bidders[i] = readUuid(in);
+
+            long amount = 0;
+            long time = 0;
+            for (int i = 0; i < history.size(); i++) {
+                history.bidIds[i] = readUuid(in);
+                history.bidderIds[i] = bidders[(int) readVarint(in)];
+                amount += unzigzag(readVarint(in));
+                long maximum = readVarint(in);
+                time += unzigzag(readVarint(in));
+                history.amounts[i] = amount;
+                history.maxima[i] = maximum == 0 ? Long.MIN_VALUE : amount + unzigzag(maximum - 1);
+                history.times[i] = time;
+                history.flags[i] = in.readByte();
+            }
+            return history;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Private helper methods
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarint(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeUuid(DataOutput out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,421 @@
+package com.marketplace.auction;
+
+import com.marketplace.config.ApplicationPropertiesProvider;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of accepted bids; the source of truth for
+ * bids until they are in {@code auction_bids}.
+ *
+ * Records are fixed-size and checksummed, and live in 64 MiB segment files named
+ * after their first sequence number. An append is a copy into the mapping, so it
+ * survives a JVM crash as soon as it returns; segments are forced to disk every
+ * second against OS crashes. On open the journal ends at the first record whose
+ * sequence or checksum does not match, which drops a torn last write.
+ *
+ * The engine periodically stores a snapshot of all live auctions here. Segments
+ * are deleted once both the latest snapshot and the bid writer have moved past them.
+ */
+@Component
+public class BidJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidJournal.class);
+
+    private static final int RECORD_SIZE = 128;
+    private static final int CRC_OFFSET = 117;
+    private static final byte FLAG_WINNING = 1;
+    private static final byte FLAG_BUY_NOW = 2;
+    private static final int SEGMENT_RECORDS = 1 << 19;
+    private static final long SEGMENT_BYTES = (long) RECORD_SIZE * SEGMENT_RECORDS;
+    private static final int SNAPSHOT_MAGIC = 0x534E4150; // "SNAP"
+    private static final int SNAPSHOTS_KEPT = 2;
+    private static final UUID NONE = new UUID(0L, 0L);
+
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+
+    private Path dir;
+    private Path checkpointFile;
+
+    // First sequence of each segment to its mapping
+    private final NavigableMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private volatile long lastSequence;
+
+    // Guards the two positions below and segment release, kept apart from appends so file I/O never blocks bids
+    private final Object releaseLock = new Object();
+    private long persistedSequence;
+    private long snapshotSequence;
+
+    @PostConstruct
+    public void open() throws IOException {
+        dir = Paths.get(applicationPropertiesProvider.getAuction().getJournalDir());
+        Files.createDirectories(dir);
+        checkpointFile = dir.resolve("bids.checkpoint");
+
+        persistedSequence = readCheckpoint();
+        Snapshot snapshot = readLatestSnapshot();
+        snapshotSequence = snapshot != null ? snapshot.getSequence() : 0;
+
+        // Sequences are never reused, even when every segment was already released
+        long last = Math.max(persistedSequence, snapshotSequence);
+        boolean ended = false;
+        for (Path file : listFiles("bids-", ".seg")) {
+            long base = parseSequence(file, "bids-", ".seg");
+            if (ended || base > last + 1) {
+                // Nothing after a torn or missing record can be trusted
+                logger.warn("Discarding bid journal segment {} after the end of the journal", file.getFileName());
+                Files.delete(file);
+                continue;
+            }
+
+            MappedByteBuffer segment = map(file);
+            segments.put(base, segment);
+            int valid = scanValidRecords(segment, base);
+            if (valid > 0) {
+                last = Math.max(last, base + valid - 1);
+            }
+            ended = valid < SEGMENT_RECORDS;
+        }
+        lastSequence = last;
+
+        logger.info("Opened bid journal with {} segments, last sequence {}, persisted up to {}",
+                segments.size(), lastSequence, persistedSequence);
+    }
+
+    @PreDestroy
+    public void close() {
+        segments.values().forEach(MappedByteBuffer::force);
+    }
+
+    /**
+     * Push written records out of the page cache
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void force() {
+        Map.Entry<Long, MappedByteBuffer> active = segments.lastEntry();
+        if (active != null) {
+            active.getValue().force();
+        }
+    }
+
+    /**
+     * Append an accepted bid. Sequences must be contiguous.
+     */
+    public synchronized void append(BidRecord record) {
+        long sequence = record.getSequence();
+        if (sequence != lastSequence + 1) {
+            throw new IllegalStateException("Bid journal expected sequence " + (lastSequence + 1) + " but got " + sequence);
+        }
+
+        Map.Entry<Long, MappedByteBuffer> active = segments.lastEntry();
+        if (active == null || sequence >= active.getKey() + SEGMENT_RECORDS) {
+            active = Map.entry(sequence, createSegment(sequence));
+        }
+
+        ByteBuffer slot = active.getValue().duplicate();
+        slot.position((int) ((sequence - active.getKey()) * RECORD_SIZE));
+        encode(record, slot);
+
+        lastSequence = sequence;
+        notifyAll();
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Wait until there are records after the given sequence, returns false on timeout
+     */
+    public synchronized boolean awaitRecordsAfter(long sequence, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (lastSequence <= sequence) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) return false;
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Up to max records starting at the given sequence, in order
+     */
+    public List<BidRecord> read(long fromSequence, int max) {
+        long to = Math.min(lastSequence, fromSequence + max - 1);
+        List<BidRecord> records = new ArrayList<>((int) Math.max(0, to - fromSequence + 1));
+
+        long sequence = fromSequence;
+        while (sequence <= to) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(sequence);
+            if (segment == null || sequence >= segment.getKey() + SEGMENT_RECORDS) {
+                throw new IllegalStateException("Bid journal no longer holds sequence " + sequence);
+            }
+
+            ByteBuffer view = segment.getValue().duplicate();
+            long segmentEnd = Math.min(to, segment.getKey() + SEGMENT_RECORDS - 1);
+            for (; sequence <= segmentEnd; sequence++) {
+                view.position((int) ((sequence - segment.getKey()) * RECORD_SIZE));
+                records.add(decode(view));
+            }
+        }
+        return records;
+    }
+
+    public long getPersistedSequence() {
+        synchronized (releaseLock) {
+            return persistedSequence;
+        }
+    }
+
+    /**
+     * Record that every bid up to the sequence is in the database
+     */
+    public void markPersisted(long sequence) throws IOException {
+        synchronized (releaseLock) {
+            Files.write(checkpointFile, ByteBuffer.allocate(Long.BYTES).putLong(sequence).array());
+            persistedSequence = sequence;
+            releaseSegments();
+        }
+    }
+
+    /**
+     * Store the engine state as of the given sequence, replacing older snapshots
+     */
+    public void writeSnapshot(long sequence, byte[] payload) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 4 + payload.length + 8);
+        buffer.putInt(SNAPSHOT_MAGIC).putLong(sequence).putInt(payload.length).put(payload).putLong(crc.getValue());
+
+        Path tmp = dir.resolve("snapshot.tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, dir.resolve(String.format("snapshot-%020d.bin", sequence)),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        synchronized (releaseLock) {
+            snapshotSequence = Math.max(snapshotSequence, sequence);
+            List<Path> snapshots = listFiles("snapshot-", ".bin");
+            for (int i = 0; i < snapshots.size() - SNAPSHOTS_KEPT; i++) {
+                Files.deleteIfExists(snapshots.get(i));
+            }
+            releaseSegments();
+        }
+    }
+
+    /**
+     * Newest snapshot that is intact, or null if there is none
+     */
+    public Snapshot readLatestSnapshot() throws IOException {
+        List<Path> snapshots = listFiles("snapshot-", ".bin");
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshots.get(i)));
+            if (buffer.remaining() < 16 || buffer.getInt() != SNAPSHOT_MAGIC) continue;
+
+            long sequence = buffer.getLong();
+            int length = buffer.getInt();
+            if (length < 0 || buffer.remaining() != length + 8) continue;
+
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if (crc.getValue() == buffer.getLong()) {
+                return new Snapshot(sequence, payload);
+            }
+            logger.warn("Ignoring corrupt auction snapshot {}", snapshots.get(i).getFileName());
+        }
+        return null;
+    }
+
+    public static final class Snapshot {
+        private final long sequence;
+        private final byte[] payload;
+
+        Snapshot(long sequence, byte[] payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long getSequence() { return sequence; }
+        public byte[] getPayload() { return payload; }
+    }
+
+    // Private helper methods
+
+    /**
+     * Drop segments that neither the engine replay nor the bid writer will read again.
+     * Caller holds the release lock.
+     */
+    private void releaseSegments() throws IOException {
+        long releasable = Math.min(persistedSequence, snapshotSequence);
+        Map.Entry<Long, MappedByteBuffer> first = segments.firstEntry();
+        while (first != null && segments.size() > 1) {
+            long next = segments.higherKey(first.getKey());
+            if (next - 1 > releasable) break;
+
+            segments.remove(first.getKey());
+            Files.deleteIfExists(dir.resolve(String.format("bids-%020d.seg", first.getKey())));
+            first = segments.firstEntry();
+        }
+    }
+
+    private MappedByteBuffer createSegment(long base) {
+        try {
+            MappedByteBuffer segment = map(dir.resolve(String.format("bids-%020d.seg", base)));
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create bid journal segment at " + base, e);
+        }
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+        }
+    }
+
+    private static int scanValidRecords(MappedByteBuffer segment, long base) {
+        byte[] bytes = new byte[CRC_OFFSET];
+        CRC32C crc = new CRC32C();
+        for (int i = 0; i < SEGMENT_RECORDS; i++) {
+            int offset = i * RECORD_SIZE;
+            if (segment.getLong(offset) != base + i) return i;
+
+            segment.get(offset, bytes);
+            crc.reset();
+            crc.update(bytes);
+            if ((int) crc.getValue() != segment.getInt(offset + CRC_OFFSET)) return i;
+        }
+        return SEGMENT_RECORDS;
+    }
+
+    private List<Path> listFiles(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted() // Zero-padded sequence numbers sort numerically
+                    .toList();
+        }
+    }
+
+    private static long parseSequence(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) return 0;
+        byte[] bytes = Files.readAllBytes(checkpointFile);
+        return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+
+    private static void encode(BidRecord record, ByteBuffer slot) {
+        int start = slot.position();
+        slot.putLong(record.getSequence());
+        putUuid(slot, record.getBidId());
+        putUuid(slot, record.getImageId());
+        putUuid(slot, record.getBidderId());
+        slot.putLong(toCents(record.getBidAmount()));
+        slot.putLong(record.getMaxBidAmount() != null ? toCents(record.getMaxBidAmount()) : Long.MIN_VALUE);
+        slot.putLong(toMillis(record.getBidTime()));
+        slot.put((byte) ((record.isWinning() ? FLAG_WINNING : 0) | (record.isBuyNow() ? FLAG_BUY_NOW : 0)));
+        putUuid(slot, record.getReplacedWinningBidId());
+        slot.putLong(toCents(record.getAuctionPrice()));
+        slot.putInt(record.getAuctionBidCount());
+        slot.putLong(record.getAuctionEndTime() != null ? toMillis(record.getAuctionEndTime()) : Long.MIN_VALUE);
+
+        // Checksum last, a record is only valid once all of it was written
+        byte[] bytes = new byte[CRC_OFFSET];
+        slot.get(start, bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        slot.putInt(start + CRC_OFFSET, (int) crc.getValue());
+    }
+
+    private static BidRecord decode(ByteBuffer slot) {
+        long sequence = slot.getLong();
+        UUID bidId = getUuid(slot);
+        UUID imageId = getUuid(slot);
+        UUID bidderId = getUuid(slot);
+        BigDecimal amount = fromCents(slot.getLong());
+        long max = slot.getLong();
+        LocalDateTime time = fromMillis(slot.getLong());
+        byte flags = slot.get();
+        UUID replaced = getUuid(slot);
+        BigDecimal price = fromCents(slot.getLong());
+        int bidCount = slot.getInt();
+        long endTime = slot.getLong();
+
+        return new BidRecord(sequence, bidId, imageId, bidderId, amount,
+                max == Long.MIN_VALUE ? null : fromCents(max), time, (flags & FLAG_WINNING) != 0,
+                NONE.equals(replaced) ? null : replaced, price, bidCount,
+                endTime == Long.MIN_VALUE ? null : fromMillis(endTime), (flags & FLAG_BUY_NOW) != 0);
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        UUID value = id != null ? id : NONE;
+        buffer.putLong(value.getMostSignificantBits());
+        buffer.putLong(value.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
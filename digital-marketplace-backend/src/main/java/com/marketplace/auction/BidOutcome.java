@@ -0,0 +1,51 @@
+package com.marketplace.auction;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Result of a bid accepted by the {@link AuctionEngine}
+ */
+public final class BidOutcome {
+
+    private final BidRecord record;
+    private final BidRecord counterBid;
+    private final UUID previousLeaderId;
+    private final AuctionState auction;
+    private final LocalDateTime extendedEndTime;
+
+    BidOutcome(BidRecord record, BidRecord counterBid, UUID previousLeaderId, AuctionState auction,
+               LocalDateTime extendedEndTime) {
+        this.record = record;
+        this.counterBid = counterBid;
+        this.previousLeaderId = previousLeaderId;
+        this.auction = auction;
+        this.extendedEndTime = extendedEndTime;
+    }
+
+    public BidRecord getRecord() { return record; }
+
+    /**
+     * Bid placed for a proxy bidder whose maximum covered the bid, null if the bid took the lead
+     */
+    public BidRecord getCounterBid() { return counterBid; }
+    public UUID getPreviousLeaderId() { return previousLeaderId; }
+    public UUID getOwnerId() { return auction.getOwnerId(); }
+
+    /**
+     * The auction the bid was placed on; only its fixed listing fields are safe to read without its lock
+     */
+    public AuctionState getAuction() { return auction; }
+
+    /**
+     * New end time if the bid extended the auction, null otherwise
+     */
+    public LocalDateTime getExtendedEndTime() { return extendedEndTime; }
+
+    /**
+     * True if the bid took the lead from another bidder
+     */
+    public boolean isOutbid() {
+        return counterBid == null && previousLeaderId != null && !previousLeaderId.equals(record.getBidderId());
+    }
+}
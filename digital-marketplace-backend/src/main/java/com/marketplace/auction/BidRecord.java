@@ -0,0 +1,66 @@
+package com.marketplace.auction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A bid accepted by the {@link AuctionEngine}, as it is journaled and later
+ * written to {@code auction_bids}. Carries the auction price, bid count and end
+ * time after the bid, so the image row can be brought up to date in the same
+ * write and replaying the journal reproduces the auction state exactly.
+ * A buy-now record also ends the auction at its bid time.
+ */
+public final class BidRecord {
+
+    private final long sequence;
+    private final UUID bidId;
+    private final UUID imageId;
+    private final UUID bidderId;
+    private final BigDecimal bidAmount;
+    private final BigDecimal maxBidAmount;
+    private final LocalDateTime bidTime;
+    private final boolean winning;
+    private final UUID replacedWinningBidId;
+    private final BigDecimal auctionPrice;
+    private final int auctionBidCount;
+    private final LocalDateTime auctionEndTime;
+    private final boolean buyNow;
+
+    public BidRecord(long sequence, UUID bidId, UUID imageId, UUID bidderId, BigDecimal bidAmount,
+                     BigDecimal maxBidAmount, LocalDateTime bidTime, boolean winning,
+                     UUID replacedWinningBidId, BigDecimal auctionPrice, int auctionBidCount,
+                     LocalDateTime auctionEndTime, boolean buyNow) {
+        this.sequence = sequence;
+        this.bidId = bidId;
+        this.imageId = imageId;
+        this.bidderId = bidderId;
+        this.bidAmount = bidAmount;
+        this.maxBidAmount = maxBidAmount;
+        this.bidTime = bidTime;
+        this.winning = winning;
+        this.replacedWinningBidId = replacedWinningBidId;
+        this.auctionPrice = auctionPrice;
+        this.auctionBidCount = auctionBidCount;
+        this.auctionEndTime = auctionEndTime;
+        this.buyNow = buyNow;
+    }
+
+    public long getSequence() { return sequence; }
+    public UUID getBidId() { return bidId; }
+    public UUID getImageId() { return imageId; }
+    public UUID getBidderId() { return bidderId; }
+    public BigDecimal getBidAmount() { return bidAmount; }
+    public BigDecimal getMaxBidAmount() { return maxBidAmount; }
+    public LocalDateTime getBidTime() { return bidTime; }
+    public boolean isWinning() { return winning; }
+    public UUID getReplacedWinningBidId() { return replacedWinningBidId; }
+    public BigDecimal getAuctionPrice() { return auctionPrice; }
+    public int getAuctionBidCount() { return auctionBidCount; }
+    public LocalDateTime getAuctionEndTime() { return auctionEndTime; }
+    public boolean isBuyNow() { return buyNow; }
+
+    public boolean isAutoBid() {
+        return maxBidAmount != null && maxBidAmount.compareTo(bidAmount) > 0;
+    }
+}
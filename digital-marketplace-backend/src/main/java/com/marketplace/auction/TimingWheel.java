@@ -0,0 +1,106 @@
+package com.marketplace.auction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel for deadlines at tick granularity.
+ *
+ * Deadlines are dropped into the bucket of their tick modulo the wheel size, so
+ * scheduling is O(1) and advancing one tick only looks at a single bucket. Entries
+ * further out than one revolution stay in their bucket until the wheel comes round
+ * in the right revolution. Scheduling a key again replaces its deadline; the old
+ * entry is discarded when its bucket comes up.
+ *
+ * Thread-safe, all methods synchronize on the wheel.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Entry<K>>> buckets;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * @param wheelSize number of buckets, rounded up to a power of two
+     */
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedule or reschedule a key. Deadlines in the past fire on the next tick.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        Long previous = deadlines.put(key, tick);
+        if (previous != null && previous == tick) return;
+
+        buckets.get((int) (tick & mask)).add(new Entry<>(key, tick));
+    }
+
+    public synchronized void cancel(K key) {
+        deadlines.remove(key);
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Move the wheel up to the given time and return the keys that came due
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+
+        // After a long pause every bucket is visited once rather than once per missed tick
+        long ticks = Math.min(targetTick - currentTick, mask + 1L);
+        for (long i = 1; i <= ticks; i++) {
+            collect(currentTick + i, targetTick, expired);
+        }
+
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    // Private helper methods
+
+    private void collect(long tick, long targetTick, List<K> expired) {
+        Iterator<Entry<K>> it = buckets.get((int) (tick & mask)).iterator();
+        while (it.hasNext()) {
+            Entry<K> entry = it.next();
+            Long deadline = deadlines.get(entry.key);
+
+            // Rescheduled or cancelled since this entry was added
+            if (deadline == null || deadline != entry.tick) {
+                it.remove();
+            } else if (entry.tick <= targetTick) {
+                it.remove();
+                deadlines.remove(entry.key);
+                expired.add(entry.key);
+            }
+        }
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long tick;
+
+        Entry(K key, long tick) {
+            this.key = key;
+            this.tick = tick;
+        }
+    }
+}
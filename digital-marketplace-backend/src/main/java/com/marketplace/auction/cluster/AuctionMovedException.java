@@ -0,0 +1,20 @@
+package com.marketplace.auction.cluster;
+
+import java.util.UUID;
+
+/**
+ * The auction is owned by another node, or was handed over while the caller waited for it
+ */
+public class AuctionMovedException extends RuntimeException {
+
+    private final UUID imageId;
+
+    public AuctionMovedException(UUID imageId) {
+        super("Auction " + imageId + " is owned by another node");
+        this.imageId = imageId;
+    }
+
+    public UUID getImageId() {
+        return imageId;
+    }
+}
@@ -0,0 +1,209 @@
+package com.marketplace.auction.cluster;
+
+import com.marketplace.config.ApplicationPropertiesProvider;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Decides which node owns an auction in partitioned mode.
+ *
+ * The configured nodes ping each other; the nodes seen within the failure timeout
+ * form a {@link ConsistentHashRing} over image ids. When a node joins or leaves
+ * the ring is rebuilt and listeners hand over the auctions this node no longer
+ * owns. The ring before the last change is kept so a new owner can ask the
+ * previous one to release an auction before loading it.
+ *
+ * With the cluster disabled this node owns every auction.
+ */
+@Component
+public class AuctionPartitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionPartitioner.class);
+
+    // Shipped in application.properties, known to anyone who has seen the repository
+    private static final String PLACEHOLDER_SECRET = "changeClusterSecret";
+
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    private boolean enabled;
+    private String localNodeId;
+    private final Map<String, String> nodeUrls = new LinkedHashMap<>();
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    private final List<Runnable> ringListeners = new CopyOnWriteArrayList<>();
+
+    private volatile ConsistentHashRing ring;
+    private volatile ConsistentHashRing previousRing;
+
+    /**
+     * Parse the configured nodes and find the peers that are already up
+     */
+    @PostConstruct
+    public void init() {
+        ApplicationPropertiesProvider.Cluster cluster = applicationPropertiesProvider.getCluster();
+        enabled = cluster.isEnabled();
+        localNodeId = cluster.getNodeId();
+        if (!enabled) return;
+
+        // The secret is all that keeps anyone else from bidding or buying as any user through the cluster endpoints
+        String secret = cluster.getSecret();
+        if (secret == null || secret.isBlank() || secret.equals(PLACEHOLDER_SECRET)) {
+            throw new IllegalStateException("marketplace.cluster.secret must be set to a secret of your own when the cluster is enabled");
+        }
+
+        for (String node : cluster.getNodes()) {
+            int separator = node.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalStateException("Cluster node must be configured as id=url: " + node);
+            }
+            nodeUrls.put(node.substring(0, separator).trim(), stripSlash(node.substring(separator + 1).trim()));
+        }
+        if (!nodeUrls.containsKey(localNodeId)) {
+            throw new IllegalStateException("Local node " + localNodeId + " is not one of the cluster nodes");
+        }
+
+        ring = new ConsistentHashRing(Set.of(localNodeId), cluster.getVirtualNodes());
+        previousRing = ring;
+        heartbeat();
+    }
+
+    /**
+     * Tell the peers we are leaving so they take over our auctions right away
+     */
+    @PreDestroy
+    public void leave() {
+        if (!enabled) return;
+        for (Map.Entry<String, String> node : nodeUrls.entrySet()) {
+            if (!node.getKey().equals(localNodeId)) {
+                clusterClient.leave(node.getValue());
+            }
+        }
+    }
+
+    /**
+     * Ping every peer and rebuild the ring if the set of live nodes changed
+     */
+    @Scheduled(fixedDelayString = "${marketplace.cluster.heartbeat-ms:2000}")
+    public void heartbeat() {
+        if (!enabled) return;
+
+        for (Map.Entry<String, String> node : nodeUrls.entrySet()) {
+            if (!node.getKey().equals(localNodeId) && clusterClient.ping(node.getValue())) {
+                lastSeen.put(node.getKey(), System.currentTimeMillis());
+            }
+        }
+        updateRing();
+    }
+
+    /**
+     * A peer pinged us, so it is up
+     */
+    public void memberSeen(String nodeId) {
+        if (!enabled || !nodeUrls.containsKey(nodeId) || nodeId.equals(localNodeId)) return;
+        if (lastSeen.put(nodeId, System.currentTimeMillis()) == null) {
+            updateRing();
+        }
+    }
+
+    /**
+     * A peer is shutting down
+     */
+    public void memberLeft(String nodeId) {
+        if (!enabled || lastSeen.remove(nodeId) == null) return;
+        updateRing();
+    }
+
+    /**
+     * Be told after the ring changed, called on the thread that noticed the change
+     */
+    public void onRingChange(Runnable listener) {
+        ringListeners.add(listener);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isLocal(UUID imageId) {
+        return !enabled || localNodeId.equals(ring.ownerOf(imageId));
+    }
+
+    /**
+     * Base URL of the node owning the auction
+     */
+    public String ownerUrl(UUID imageId) {
+        return nodeUrls.get(ring.ownerOf(imageId));
+    }
+
+    /**
+     * Base URL of the node that owned the auction before the last ring change,
+     * null if that was this node or it has left since
+     */
+    public String previousOwnerUrl(UUID imageId) {
+        if (!enabled) return null;
+
+        String previous = previousRing.ownerOf(imageId);
+        if (previous.equals(localNodeId) || !ring.getNodes().contains(previous)) return null;
+        return nodeUrls.get(previous);
+    }
+
+    public Set<String> getLiveNodes() {
+        return enabled ? ring.getNodes() : Set.of(localNodeId);
+    }
+
+    /**
+     * Base URLs of the live nodes other than this one
+     */
+    public List<String> getPeerUrls() {
+        if (!enabled) return List.of();
+
+        List<String> urls = new ArrayList<>();
+        for (String nodeId : ring.getNodes()) {
+            if (!nodeId.equals(localNodeId)) urls.add(nodeUrls.get(nodeId));
+        }
+        return urls;
+    }
+
+    // Private helper methods
+
+    private void updateRing() {
+        synchronized (this) {
+            long cutoff = System.currentTimeMillis() - applicationPropertiesProvider.getCluster().getFailureTimeoutMs();
+            lastSeen.values().removeIf(seen -> seen < cutoff);
+
+            Set<String> live = new TreeSet<>(lastSeen.keySet());
+            live.add(localNodeId);
+            if (live.equals(ring.getNodes())) return;
+
+            logger.info("Auction cluster changed from {} to {}", ring.getNodes(), live);
+            previousRing = ring;
+            ring = new ConsistentHashRing(live, applicationPropertiesProvider.getCluster().getVirtualNodes());
+        }
+
+        for (Runnable listener : ringListeners) {
+            listener.run();
+        }
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,173 @@
+package com.marketplace.auction.cluster;
+
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.exception.BadRequestException;
+import com.marketplace.exception.ResourceNotFoundException;
+import com.marketplace.exception.UnauthorizedException;
+import com.marketplace.model.dto.request.BidRequest;
+import com.marketplace.model.dto.response.AuctionBidResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Internal RPC between auction nodes: plain JSON over HTTP to the
+ * {@code /internal/cluster} endpoints of a peer, authenticated by the shared
+ * cluster secret. Errors raised by the owning node are rethrown here as the
+ * same exception types, so a forwarded bid fails exactly like a local one.
+ */
+@Component
+public class ClusterClient {
+
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+    public static final String NODE_HEADER = "X-Cluster-Node";
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(1);
+
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+
+    private RestClient restClient;
+
+    @PostConstruct
+    public void init() {
+        ApplicationPropertiesProvider.Cluster cluster = applicationPropertiesProvider.getCluster();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build());
+        requestFactory.setReadTimeout(Duration.ofMillis(cluster.getRpcTimeoutMs()));
+
+        restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .defaultHeader(SECRET_HEADER, cluster.getSecret())
+                .defaultHeader(NODE_HEADER, cluster.getNodeId())
+                .build();
+    }
+
+    /**
+     * Heartbeat, false if the node could not be reached
+     */
+    public boolean ping(String baseUrl) {
+        try {
+            restClient.get().uri(baseUrl + "/internal/cluster/ping").retrieve().toBodilessEntity();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tell a peer this node is shutting down
+     */
+    public void leave(String baseUrl) {
+        try {
+            restClient.post().uri(baseUrl + "/internal/cluster/leave").retrieve().toBodilessEntity();
+        } catch (RuntimeException e) {
+            // The peer notices through its heartbeat instead
+        }
+    }
+
+    /**
+     * Make a node stop bidding on an auction and wait until its bids are saved
+     */
+    public void releaseAuction(String baseUrl, UUID imageId) {
+        call(() -> restClient.post()
+                .uri(baseUrl + "/internal/cluster/auctions/{imageId}/release", imageId)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, errorHandler(imageId))
+                .toBodilessEntity());
+    }
+
+    /**
+     * Place a bid on the node owning the auction
+     */
+    public AuctionBidResponse placeBid(String baseUrl, UUID bidderId, BidRequest request) {
+        return call(() -> restClient.post()
+                .uri(baseUrl + "/internal/cluster/bids?bidderId={bidderId}", bidderId)
+                .body(request)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, errorHandler(request.getImageId()))
+                .body(AuctionBidResponse.class));
+    }
+
+    /**
+     * Buy an auction item now on the node owning the auction
+     */
+    public AuctionBidResponse buyNow(String baseUrl, UUID buyerId, UUID imageId) {
+        return call(() -> restClient.post()
+                .uri(baseUrl + "/internal/cluster/auctions/{imageId}/buy-now?buyerId={buyerId}", imageId, buyerId)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, errorHandler(imageId))
+                .body(AuctionBidResponse.class));
+    }
+
+    /**
+     * Have a peer close an auction at the given time, false if it could not be reached
+     */
+    public boolean scheduleAuction(String baseUrl, UUID imageId, LocalDateTime endTime) {
+        try {
+            restClient.post()
+                    .uri(baseUrl + "/internal/cluster/auctions/{imageId}/deadline?endTime={endTime}", imageId, endTime)
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Have a peer forget a deleted or settled auction, false if it could not be reached
+     */
+    public boolean forgetAuction(String baseUrl, UUID imageId) {
+        try {
+            restClient.post()
+                    .uri(baseUrl + "/internal/cluster/auctions/{imageId}/forget", imageId)
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    // Private helper methods
+
+    private <T> T call(Supplier<T> rpc) {
+        try {
+            return rpc.get();
+        } catch (ResourceAccessException e) {
+            throw new BadRequestException("The auction is temporarily unavailable, please try again", e);
+        }
+    }
+
+    private static RestClient.ResponseSpec.ErrorHandler errorHandler(UUID imageId) {
+        return (request, response) -> raise(imageId, response.getStatusCode().value(),
+                new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private static void raise(UUID imageId, int status, String message) {
+        if (status == HttpStatus.NOT_FOUND.value()) {
+            throw new ResourceNotFoundException("Image", "id", imageId);
+        }
+        if (status == HttpStatus.FORBIDDEN.value()) {
+            throw new UnauthorizedException(message);
+        }
+        if (status == HttpStatus.BAD_REQUEST.value() || status == HttpStatus.CONFLICT.value()) {
+            throw new BadRequestException(message);
+        }
+        throw new BadRequestException("The auction is temporarily unavailable, please try again");
+    }
+}
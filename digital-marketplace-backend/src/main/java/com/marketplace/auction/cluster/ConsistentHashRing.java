@@ -0,0 +1,86 @@
+package com.marketplace.auction.cluster;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Immutable consistent-hash ring of node ids.
+ *
+ * Every node is placed at a number of virtual points on a 64-bit ring and an
+ * auction belongs to the first point at or after its image id's hash. When a node
+ * joins or leaves, only the auctions between its points and their neighbours move;
+ * everything else keeps its owner. Lookups are a binary search over sorted arrays.
+ */
+public final class ConsistentHashRing {
+
+    private final Set<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        this.nodes = new TreeSet<>(nodeIds);
+
+        int size = nodes.size() * virtualNodes;
+        long[][] placed = new long[size][];
+        List<String> ids = List.copyOf(nodes);
+        int n = 0;
+        for (int node = 0; node < ids.size(); node++) {
+            for (int i = 0; i < virtualNodes; i++) {
+                placed[n++] = new long[]{pointHash(ids.get(node) + "#" + i), node};
+            }
+        }
+        Arrays.sort(placed, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = placed[i][0];
+            owners[i] = ids.get((int) placed[i][1]);
+        }
+    }
+
+    /**
+     * Node owning the auction, null on an empty ring
+     */
+    public String ownerOf(UUID imageId) {
+        if (points.length == 0) return null;
+
+        int index = Arrays.binarySearch(points, keyHash(imageId));
+        if (index < 0) index = -index - 1;
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    // Private helper methods
+
+    private static long keyHash(UUID imageId) {
+        // Random UUIDs are already uniform, the finalizer only mixes the two halves
+        long h = imageId.getMostSignificantBits() ^ imageId.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long pointHash(String point) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(point.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
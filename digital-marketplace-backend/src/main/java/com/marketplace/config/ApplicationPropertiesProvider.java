@@ -3,6 +3,9 @@ package com.marketplace.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "marketplace")
 public class ApplicationPropertiesProvider {
@@ -16,6 +19,28 @@ public class ApplicationPropertiesProvider {
     // Image Configuration
     private long maxImageSize = 52428800L; // 50MB default
     private String allowedImageTypes = "jpg,jpeg,png,webp,tiff";
+    private long catalogExportTimeoutMs = 3600000L; // 1 hour, the export streams the whole catalog
+
+    // Search Configuration
+    private String similarityIndexPath = "data/similarity-index.bin";
+
+    // Auction Configuration
+    private Auction auction = new Auction();
+
+    // Cluster Configuration
+    private Cluster cluster = new Cluster();
+
+    // Notification Configuration
+    private Notification notification = new Notification();
+
+    // Purchase Configuration
+    private Purchase purchase = new Purchase();
+
+    // Payment Gateway Configuration
+    private Payment payment = new Payment();
+
+    // Webhook Configuration
+    private Webhook webhook = new Webhook();
 
     // Transaction Configuration
     private double commissionRate = 0.10; // 10%
@@ -58,8 +83,361 @@ public class ApplicationPropertiesProvider {
         }
     }
 
+    public static class Auction {
+        private String journalDir = "data/auction-journal";
+        private int writerBatchSize = 500;
+        private long writerBatchWindowMs = 5;
+        private long extendWindowSeconds = 300; // Bids this close to the end extend the auction
+        private long extendBySeconds = 300; // New end time counted from the bid
+        private int maxExtensions = 20;
+
+        public String getJournalDir() {
+            return journalDir;
+        }
+
+        public void setJournalDir(String journalDir) {
+            this.journalDir = journalDir;
+        }
+
+        public int getWriterBatchSize() {
+            return writerBatchSize;
+        }
+
+        public void setWriterBatchSize(int writerBatchSize) {
+            this.writerBatchSize = writerBatchSize;
+        }
+
+        public long getWriterBatchWindowMs() {
+            return writerBatchWindowMs;
+        }
+
+        public void setWriterBatchWindowMs(long writerBatchWindowMs) {
+            this.writerBatchWindowMs = writerBatchWindowMs;
+        }
+
+        public long getExtendWindowSeconds() {
+            return extendWindowSeconds;
+        }
+
+        public void setExtendWindowSeconds(long extendWindowSeconds) {
+            this.extendWindowSeconds = extendWindowSeconds;
+        }
+
+        public long getExtendBySeconds() {
+            return extendBySeconds;
+        }
+
+        public void setExtendBySeconds(long extendBySeconds) {
+            this.extendBySeconds = extendBySeconds;
+        }
+
+        public int getMaxExtensions() {
+            return maxExtensions;
+        }
+
+        public void setMaxExtensions(int maxExtensions) {
+            this.maxExtensions = maxExtensions;
+        }
+    }
+
+    public static class Cluster {
+        private boolean enabled = false; // Single node owns every auction unless enabled
+        private String nodeId = "node-1";
+        private List<String> nodes = new ArrayList<>(); // id=base-url of every node, including this one
+        private int virtualNodes = 128;
+        private String secret = "";
+        private long heartbeatMs = 2000;
+        private long failureTimeoutMs = 6000;
+        private long rpcTimeoutMs = 15000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<String> nodes) {
+            this.nodes = nodes;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public long getHeartbeatMs() {
+            return heartbeatMs;
+        }
+
+        public void setHeartbeatMs(long heartbeatMs) {
+            this.heartbeatMs = heartbeatMs;
+        }
+
+        public long getFailureTimeoutMs() {
+            return failureTimeoutMs;
+        }
+
+        public void setFailureTimeoutMs(long failureTimeoutMs) {
+            this.failureTimeoutMs = failureTimeoutMs;
+        }
+
+        public long getRpcTimeoutMs() {
+            return rpcTimeoutMs;
+        }
+
+        public void setRpcTimeoutMs(long rpcTimeoutMs) {
+            this.rpcTimeoutMs = rpcTimeoutMs;
+        }
+    }
+
+    public static class Notification {
+        private int batchSize = 200;
+        private long batchWindowMs = 50;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getBatchWindowMs() {
+            return batchWindowMs;
+        }
+
+        public void setBatchWindowMs(long batchWindowMs) {
+            this.batchWindowMs = batchWindowMs;
+        }
+    }
+
+    public static class Purchase {
+        private long holdMinutes = 15; // How long a buyer has to pay before others may buy the image
+        private long idempotencyKeyHours = 24;
+
+        public long getHoldMinutes() {
+            return holdMinutes;
+        }
+
+        public void setHoldMinutes(long holdMinutes) {
+            this.holdMinutes = holdMinutes;
+        }
+
+        public long getIdempotencyKeyHours() {
+            return idempotencyKeyHours;
+        }
+
+        public void setIdempotencyKeyHours(long idempotencyKeyHours) {
+            this.idempotencyKeyHours = idempotencyKeyHours;
+        }
+    }
+
+    public static class Payment {
+        private String gateway = "simulator"; // simulator or stripe
+        private long connectTimeoutMs = 2000;
+        private long requestTimeoutMs = 10000; // Deadline of every gateway call
+        private int breakerFailureThreshold = 5;
+        private long breakerOpenMs = 30000;
+        private int callbackThreads = 4;
+        private String stripeApiUrl = "https://api.stripe.com";
+        private String stripeSecretKey = "";
+        private long simulatorMinLatencyMs = 20;
+        private long simulatorMaxLatencyMs = 200;
+        private double simulatorFailureRate = 0.01; // Share of calls failing with a provider error
+        private double simulatorDeclineRate = 0.05; // Share of payments declined on confirmation
+        private long simulatorConfirmDelayMs = 2000;
+        private String simulatorWebhookUrl = "http://localhost:8080/api/webhooks/stripe";
+
+        public String getGateway() {
+            return gateway;
+        }
+
+        public void setGateway(String gateway) {
+            this.gateway = gateway;
+        }
+
+        public long getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public long getRequestTimeoutMs() {
+            return requestTimeoutMs;
+        }
+
+        public void setRequestTimeoutMs(long requestTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+        }
+
+        public int getBreakerFailureThreshold() {
+            return breakerFailureThreshold;
+        }
+
+        public void setBreakerFailureThreshold(int breakerFailureThreshold) {
+            this.breakerFailureThreshold = breakerFailureThreshold;
+        }
+
+        public long getBreakerOpenMs() {
+            return breakerOpenMs;
+        }
+
+        public void setBreakerOpenMs(long breakerOpenMs) {
+            this.breakerOpenMs = breakerOpenMs;
+        }
+
+        public int getCallbackThreads() {
+            return callbackThreads;
+        }
+
+        public void setCallbackThreads(int callbackThreads) {
+            this.callbackThreads = callbackThreads;
+        }
+
+        public String getStripeApiUrl() {
+            return stripeApiUrl;
+        }
+
+        public void setStripeApiUrl(String stripeApiUrl) {
+            this.stripeApiUrl = stripeApiUrl;
+        }
+
+        public String getStripeSecretKey() {
+            return stripeSecretKey;
+        }
+
+        public void setStripeSecretKey(String stripeSecretKey) {
+            this.stripeSecretKey = stripeSecretKey;
+        }
+
+        public long getSimulatorMinLatencyMs() {
+            return simulatorMinLatencyMs;
+        }
+
+        public void setSimulatorMinLatencyMs(long simulatorMinLatencyMs) {
+            this.simulatorMinLatencyMs = simulatorMinLatencyMs;
+        }
+
+        public long getSimulatorMaxLatencyMs() {
+            return simulatorMaxLatencyMs;
+        }
+
+        public void setSimulatorMaxLatencyMs(long simulatorMaxLatencyMs) {
+            this.simulatorMaxLatencyMs = simulatorMaxLatencyMs;
+        }
+
+        public double getSimulatorFailureRate() {
+            return simulatorFailureRate;
+        }
+
+        public void setSimulatorFailureRate(double simulatorFailureRate) {
+            this.simulatorFailureRate = simulatorFailureRate;
+        }
+
+        public double getSimulatorDeclineRate() {
+            return simulatorDeclineRate;
+        }
+
+        public void setSimulatorDeclineRate(double simulatorDeclineRate) {
+            this.simulatorDeclineRate = simulatorDeclineRate;
+        }
+
+        public long getSimulatorConfirmDelayMs() {
+            return simulatorConfirmDelayMs;
+        }
+
+        public void setSimulatorConfirmDelayMs(long simulatorConfirmDelayMs) {
+            this.simulatorConfirmDelayMs = simulatorConfirmDelayMs;
+        }
+
+        public String getSimulatorWebhookUrl() {
+            return simulatorWebhookUrl;
+        }
+
+        public void setSimulatorWebhookUrl(String simulatorWebhookUrl) {
+            this.simulatorWebhookUrl = simulatorWebhookUrl;
+        }
+    }
+
+    public static class Webhook {
+        private String secret = ""; // Signing secret of the payment provider's webhook endpoint
+        private long toleranceSeconds = 300;
+        private int workers = 4;
+        private long pollMs = 500;
+        private int maxAttempts = 10;
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public long getToleranceSeconds() {
+            return toleranceSeconds;
+        }
+
+        public void setToleranceSeconds(long toleranceSeconds) {
+            this.toleranceSeconds = toleranceSeconds;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public long getPollMs() {
+            return pollMs;
+        }
+
+        public void setPollMs(long pollMs) {
+            this.pollMs = pollMs;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+    }
+
     public static class Mail {
         private String from = "noreply@marketplace.com";
+        private int batchSize = 50; // Messages sent over one SMTP connection
+        private long batchWindowMs = 200;
 
         public String getFrom() {
             return from;
@@ -68,6 +446,22 @@ public class ApplicationPropertiesProvider {
         public void setFrom(String from) {
             this.from = from;
         }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getBatchWindowMs() {
+            return batchWindowMs;
+        }
+
+        public void setBatchWindowMs(long batchWindowMs) {
+            this.batchWindowMs = batchWindowMs;
+        }
     }
 
     // Getters and Setters
@@ -103,6 +497,70 @@ public class ApplicationPropertiesProvider {
         this.allowedImageTypes = allowedImageTypes;
     }
 
+    public long getCatalogExportTimeoutMs() {
+        return catalogExportTimeoutMs;
+    }
+
+    public void setCatalogExportTimeoutMs(long catalogExportTimeoutMs) {
+        this.catalogExportTimeoutMs = catalogExportTimeoutMs;
+    }
+
+    public String getSimilarityIndexPath() {
+        return similarityIndexPath;
+    }
+
+    public void setSimilarityIndexPath(String similarityIndexPath) {
+        this.similarityIndexPath = similarityIndexPath;
+    }
+
+    public Auction getAuction() {
+        return auction;
+    }
+
+    public void setAuction(Auction auction) {
+        this.auction = auction;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public void setCluster(Cluster cluster) {
+        this.cluster = cluster;
+    }
+
+    public Notification getNotification() {
+        return notification;
+    }
+
+    public void setNotification(Notification notification) {
+        this.notification = notification;
+    }
+
+    public Purchase getPurchase() {
+        return purchase;
+    }
+
+    public void setPurchase(Purchase purchase) {
+        this.purchase = purchase;
+    }
+
+    public Payment getPayment() {
+        return payment;
+    }
+
+    public void setPayment(Payment payment) {
+        this.payment = payment;
+    }
+
+    public Webhook getWebhook() {
+        return webhook;
+    }
+
+    public void setWebhook(Webhook webhook) {
+        this.webhook = webhook;
+    }
+
     public double getCommissionRate() {
         return commissionRate;
     }
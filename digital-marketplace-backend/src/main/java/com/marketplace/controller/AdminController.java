@@ -36,6 +36,21 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
     
+    @Autowired
+    private TagService tagService;
+    
+    @Autowired
+    private AuctionService auctionService;
+    
+    @Autowired
+    private WebhookService webhookService;
+    
+    @Autowired
+    private PaymentService paymentService;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
     /**
      * GET /api/admin/dashboard
      * Get admin dashboard statistics
@@ -185,6 +200,16 @@ public class AdminController {
         return ResponseEntity.ok(new ApiResponse(true, "Image deleted successfully"));
     }
     
+    /**
+     * POST /api/admin/tags/reindex
+     * Rebuild the tag index from the image tag lists
+     */
+    @PostMapping("/tags/reindex")
+    public ResponseEntity<ApiResponse> reindexTags() {
+        int processed = tagService.reindexAllImages();
+        return ResponseEntity.ok(new ApiResponse(true, "Reindexed tags of " + processed + " images"));
+    }
+    
     // =============================================================================
     // TRANSACTION MANAGEMENT
     // =============================================================================
@@ -283,6 +308,52 @@ public class AdminController {
         return ResponseEntity.ok(new ApiResponse(true, "Settings updated successfully"));
     }
     
+    /**
+     * GET /api/admin/batch-stats
+     * Batch sizes achieved by the write-behind bid and notification writers
+     */
+    @GetMapping("/batch-stats")
+    public ResponseEntity<Map<String, Object>> getBatchStats() {
+        return ResponseEntity.ok(adminService.getBatchStats());
+    }
+    
+    /**
+     * GET /api/admin/auction-metrics
+     * Bid latency percentiles, rejections, lock contention and queue depths; reset=true starts a new interval
+     */
+    @GetMapping("/auction-metrics")
+    public ResponseEntity<Map<String, Object>> getAuctionMetrics(
+            @RequestParam(defaultValue = "false") boolean reset) {
+        return ResponseEntity.ok(auctionService.getAuctionMetrics(reset));
+    }
+    
+    /**
+     * GET /api/admin/webhook-queue
+     * Payment webhook events waiting, in progress and given up on
+     */
+    @GetMapping("/webhook-queue")
+    public ResponseEntity<Map<String, Object>> getWebhookQueue() {
+        return ResponseEntity.ok(webhookService.getQueueStats());
+    }
+    
+    /**
+     * GET /api/admin/outbox
+     * Follow-up events of committed changes, e.g. completed purchases, waiting and given up on
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutbox() {
+        return ResponseEntity.ok(outboxService.getQueueStats());
+    }
+    
+    /**
+     * GET /api/admin/payment-gateway
+     * Active payment gateway and the state of its circuit breaker
+     */
+    @GetMapping("/payment-gateway")
+    public ResponseEntity<Map<String, Object>> getPaymentGateway() {
+        return ResponseEntity.ok(paymentService.getGatewayStats());
+    }
+    
     // =============================================================================
     // AUDIT LOGS
     // =============================================================================
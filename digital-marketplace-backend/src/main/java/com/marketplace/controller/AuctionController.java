@@ -1,8 +1,10 @@
 package com.marketplace.controller;
 
 import com.marketplace.annotation.CurrentUser;
+import com.marketplace.auction.cluster.AuctionMovedException;
 import com.marketplace.model.dto.request.BidRequest;
 import com.marketplace.model.dto.response.AuctionBidResponse;
+import com.marketplace.model.dto.response.AuctionListingResponse;
 import com.marketplace.model.dto.response.ApiResponse;
 import com.marketplace.security.UserPrincipal;
 import com.marketplace.service.AuctionService;
@@ -10,9 +12,13 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.UUID;
 
 @RestController
@@ -36,6 +42,19 @@ public class AuctionController {
         return ResponseEntity.ok(bid);
     }
     
+    /**
+     * POST /api/auctions/{imageId}/buy-now
+     * Buy an auction item at its buy-now price, ending the auction
+     */
+    @PostMapping("/{imageId}/buy-now")
+    public ResponseEntity<AuctionBidResponse> buyNow(
+            @CurrentUser UserPrincipal currentUser,
+            @PathVariable UUID imageId) {
+        
+        AuctionBidResponse bid = auctionService.buyNow(currentUser.getId(), imageId);
+        return ResponseEntity.ok(bid);
+    }
+    
     /**
      * GET /api/auctions/{imageId}/bids
      * Get all bids for an auction image
@@ -49,6 +68,25 @@ public class AuctionController {
         return ResponseEntity.ok(bids);
     }
     
+    /**
+     * GET /api/auctions/{imageId}/stream
+     * Live bids, extensions and close of an auction as Server-Sent Events
+     */
+    @GetMapping(value = "/{imageId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAuction(@PathVariable UUID imageId) {
+        return auctionService.watchAuction(imageId);
+    }
+    
+    /**
+     * Live streams are served by the node owning the auction
+     */
+    @ExceptionHandler(AuctionMovedException.class)
+    public ResponseEntity<Void> redirectToOwner(AuctionMovedException e) {
+        URI owner = URI.create(auctionService.getAuctionNodeUrl(e.getImageId())
+                + "/api/auctions/" + e.getImageId() + "/stream");
+        return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT).location(owner).build();
+    }
+    
     /**
      * GET /api/auctions/my-bids
      * Get current user's bids
@@ -67,10 +105,9 @@ public class AuctionController {
      * Get all active auctions
      */
     @GetMapping("/active")
-    public ResponseEntity<Page<Object>> getActiveAuctions(Pageable pageable) {
-        // This would return active auction images
-        // Implementation depends on ImageService
-        return ResponseEntity.ok(Page.empty());
+    public ResponseEntity<Page<AuctionListingResponse>> getActiveAuctions(Pageable pageable) {
+        Page<AuctionListingResponse> auctions = auctionService.getActiveAuctions(pageable);
+        return ResponseEntity.ok(auctions);
     }
     
     /**
@@ -78,9 +115,9 @@ public class AuctionController {
      * Get auctions ending soon (within 24 hours)
      */
     @GetMapping("/ending-soon")
-    public ResponseEntity<Page<Object>> getAuctionsEndingSoon(Pageable pageable) {
-        // Implementation depends on ImageService
-        return ResponseEntity.ok(Page.empty());
+    public ResponseEntity<Page<AuctionListingResponse>> getAuctionsEndingSoon(Pageable pageable) {
+        Page<AuctionListingResponse> auctions = auctionService.getAuctionsEndingSoon(pageable);
+        return ResponseEntity.ok(auctions);
     }
     
     /**
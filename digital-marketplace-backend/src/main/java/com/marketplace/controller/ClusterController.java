@@ -0,0 +1,175 @@
+package com.marketplace.controller;
+
+import com.marketplace.auction.cluster.AuctionPartitioner;
+import com.marketplace.auction.cluster.ClusterClient;
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.exception.BadRequestException;
+import com.marketplace.exception.ResourceNotFoundException;
+import com.marketplace.exception.UnauthorizedException;
+import com.marketplace.model.dto.request.BidRequest;
+import com.marketplace.model.dto.response.AuctionBidResponse;
+import com.marketplace.service.AuctionExpiryService;
+import com.marketplace.service.AuctionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Internal endpoints auction nodes call on each other in partitioned mode.
+ * Only reachable with the shared cluster secret.
+ */
+@RestController
+@RequestMapping("/internal/cluster")
+public class ClusterController {
+
+    @Autowired
+    private AuctionService auctionService;
+
+    @Autowired
+    private AuctionPartitioner auctionPartitioner;
+
+    @Autowired
+    private AuctionExpiryService auctionExpiryService;
+
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+
+    /**
+     * GET /internal/cluster/ping
+     * Heartbeat of a peer
+     */
+    @GetMapping("/ping")
+    public ResponseEntity<Map<String, Object>> ping(
+            @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @RequestHeader(ClusterClient.NODE_HEADER) String nodeId) {
+
+        authorize(secret);
+        auctionPartitioner.memberSeen(nodeId);
+        return ResponseEntity.ok(Map.of(
+                "nodeId", applicationPropertiesProvider.getCluster().getNodeId(),
+                "liveNodes", auctionPartitioner.getLiveNodes()));
+    }
+
+    /**
+     * POST /internal/cluster/leave
+     * A peer is shutting down
+     */
+    @PostMapping("/leave")
+    public ResponseEntity<Void> leave(
+            @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @RequestHeader(ClusterClient.NODE_HEADER) String nodeId) {
+
+        authorize(secret);
+        auctionPartitioner.memberLeft(nodeId);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * POST /internal/cluster/auctions/{imageId}/release
+     * Stop bidding on an auction and save its bids, the caller takes it over
+     */
+    @PostMapping("/auctions/{imageId}/release")
+    public ResponseEntity<Void> releaseAuction(
+            @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @PathVariable UUID imageId) {
+
+        authorize(secret);
+        auctionService.releaseAuction(imageId);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * POST /internal/cluster/auctions/{imageId}/deadline
+     * A new auction was listed on the calling node, close it here if this node owns it
+     */
+    @PostMapping("/auctions/{imageId}/deadline")
+    public ResponseEntity<Void> scheduleAuction(
+            @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @PathVariable UUID imageId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
+
+        authorize(secret);
+        auctionExpiryService.schedule(imageId, endTime);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * POST /internal/cluster/auctions/{imageId}/forget
+     * An auction was deleted or settled on the calling node
+     */
+    @PostMapping("/auctions/{imageId}/forget")
+    public ResponseEntity<Void> forgetAuction(
+            @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @PathVariable UUID imageId) {
+
+        authorize(secret);
+        auctionExpiryService.forget(imageId);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * POST /internal/cluster/bids
+     * Place a bid forwarded by the node that received it
+     */
+    @PostMapping("/bids")
+    public ResponseEntity<AuctionBidResponse> placeBid(
+            @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @RequestParam UUID bidderId,
+            @RequestBody BidRequest request) {
+
+        authorize(secret);
+        return ResponseEntity.ok(auctionService.placeForwardedBid(bidderId, request));
+    }
+
+    /**
+     * POST /internal/cluster/auctions/{imageId}/buy-now
+     * Buy an auction item now for a request forwarded by the node that received it
+     */
+    @PostMapping("/auctions/{imageId}/buy-now")
+    public ResponseEntity<AuctionBidResponse> buyNow(
+            @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @PathVariable UUID imageId,
+            @RequestParam UUID buyerId) {
+
+        authorize(secret);
+        return ResponseEntity.ok(auctionService.buyNowForwarded(buyerId, imageId));
+    }
+
+    // Errors travel back as status and message, the calling node rethrows them
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<String> handleBadRequest(BadRequestException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(ResourceNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<String> handleUnauthorized(UnauthorizedException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+    }
+
+    // Private helper methods
+
+    private void authorize(String secret) {
+        ApplicationPropertiesProvider.Cluster cluster = applicationPropertiesProvider.getCluster();
+        byte[] expected = cluster.getSecret().getBytes(StandardCharsets.UTF_8);
+        byte[] given = secret != null ? secret.getBytes(StandardCharsets.UTF_8) : new byte[0];
+
+        if (!cluster.isEnabled() || expected.length == 0 || !MessageDigest.isEqual(expected, given)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+    }
+}
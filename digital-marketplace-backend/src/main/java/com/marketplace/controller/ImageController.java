@@ -1,21 +1,32 @@
 package com.marketplace.controller;
 
 import com.marketplace.annotation.CurrentUser;
+import com.marketplace.config.ApplicationPropertiesProvider;
 import com.marketplace.model.dto.request.ImageUploadRequest;
 import com.marketplace.model.dto.request.ImageSearchRequest;
 import com.marketplace.model.dto.response.ImageResponse;
 import com.marketplace.model.dto.response.ApiResponse;
+import com.marketplace.model.dto.response.SuggestionResponse;
+import com.marketplace.model.dto.response.TagResponse;
 import com.marketplace.security.UserPrincipal;
 import com.marketplace.service.ImageService;
+import com.marketplace.service.ImageSuggestService;
+import com.marketplace.service.TagService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -26,6 +37,15 @@ public class ImageController {
     @Autowired
     private ImageService imageService;
     
+    @Autowired
+    private ImageSuggestService imageSuggestService;
+    
+    @Autowired
+    private TagService tagService;
+    
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+    
     /**
      * GET /api/images
      * Get public images with pagination
@@ -49,6 +69,48 @@ public class ImageController {
         return ResponseEntity.ok(images);
     }
     
+    /**
+     * GET /api/images/suggest
+     * Autocomplete titles, tags and categories while typing
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        List<SuggestionResponse> suggestions = imageSuggestService.suggest(query, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+    
+    /**
+     * GET /api/images/tags/popular
+     * Get the most used tags
+     */
+    @GetMapping("/tags/popular")
+    public ResponseEntity<List<TagResponse>> getPopularTags(
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        List<TagResponse> tags = tagService.getPopularTags(limit);
+        return ResponseEntity.ok(tags);
+    }
+    
+    /**
+     * GET /api/images/export
+     * Stream the public catalog as NDJSON
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(HttpServletRequest request) {
+        // Only this request streams for minutes, so only it gets the long timeout
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest()
+                .setTimeout(applicationPropertiesProvider.getCatalogExportTimeoutMs());
+        
+        StreamingResponseBody body = out -> imageService.exportCatalog(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalog.ndjson\"")
+                .body(body);
+    }
+    
     /**
      * GET /api/images/{imageId}
      * Get image details by ID
@@ -144,6 +206,32 @@ public class ImageController {
         return ResponseEntity.ok(new DownloadResponse(downloadUrl, 3600)); // 1 hour expiry
     }
     
+    /**
+     * GET /api/images/{imageId}/similar
+     * Get visually similar images
+     */
+    @GetMapping("/{imageId}/similar")
+    public ResponseEntity<List<ImageResponse>> getSimilarImages(
+            @PathVariable UUID imageId,
+            @RequestParam(defaultValue = "12") int limit) {
+        
+        List<ImageResponse> images = imageService.getSimilarImages(imageId, limit);
+        return ResponseEntity.ok(images);
+    }
+    
+    /**
+     * GET /api/images/recommended
+     * Get personalized recommendations for the current user
+     */
+    @GetMapping("/recommended")
+    public ResponseEntity<List<ImageResponse>> getRecommendedImages(
+            @CurrentUser UserPrincipal currentUser,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        List<ImageResponse> images = imageService.getRecommendedImages(currentUser.getId(), limit);
+        return ResponseEntity.ok(images);
+    }
+    
     /**
      * GET /api/images/trending
      * Get trending images
@@ -1,12 +1,15 @@
 package com.marketplace.controller;
 
 import com.marketplace.annotation.CurrentUser;
+import com.marketplace.exception.BadRequestException;
 import com.marketplace.model.dto.request.PurchaseRequest;
 import com.marketplace.model.dto.request.RefundRequest;
 import com.marketplace.model.dto.response.TransactionResponse;
 import com.marketplace.model.dto.response.ApiResponse;
 import com.marketplace.security.UserPrincipal;
+import com.marketplace.service.IdempotencyService;
 import com.marketplace.service.TransactionService;
+import com.marketplace.service.WebhookService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -28,6 +31,9 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
     
+    @Autowired
+    private WebhookService webhookService;
+    
     /**
      * POST /api/transactions/purchase
      * Initiate image purchase
@@ -35,10 +41,11 @@ public class TransactionController {
     @PostMapping("/purchase")
     public ResponseEntity<TransactionResponse> initiatePurchase(
             @CurrentUser UserPrincipal currentUser,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody PurchaseRequest request) {
         
         TransactionResponse transaction = transactionService.initiatePurchase(
-            currentUser.getId(), request);
+            currentUser.getId(), request, idempotencyKey);
         return ResponseEntity.ok(transaction);
     }
     
@@ -129,18 +136,18 @@ public class TransactionController {
     
     /**
      * POST /api/transactions/webhook/stripe
-     * Stripe webhook endpoint for payment confirmations
+     * Stripe webhook endpoint for payment confirmations, same as /api/webhooks/stripe
      */
     @PostMapping("/webhook/stripe")
     public ResponseEntity<String> handleStripeWebhook(
             @RequestBody String payload,
-            @RequestHeader("Stripe-Signature") String sigHeader) {
+            @RequestHeader(value = "Stripe-Signature", required = false) String sigHeader) {
         
         try {
-            // paymentService.handleWebhook(payload, sigHeader);
-            return ResponseEntity.ok("Webhook processed");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Webhook processing failed");
+            webhookService.receiveStripeEvent(payload, sigHeader);
+            return ResponseEntity.ok("Webhook received");
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body("Webhook rejected: " + e.getMessage());
         }
     }
 }
@@ -1,6 +1,7 @@
 package com.marketplace.controller;
 
-import com.marketplace.service.PaymentService;
+import com.marketplace.exception.BadRequestException;
+import com.marketplace.service.WebhookService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,25 +16,25 @@ public class WebhookController {
     private static final Logger logger = LoggerFactory.getLogger(WebhookController.class);
     
     @Autowired
-    private PaymentService paymentService;
+    private WebhookService webhookService;
     
     /**
      * POST /api/webhooks/stripe
-     * Handle Stripe webhook events
+     * Accept a Stripe webhook event, it is processed asynchronously
      */
     @PostMapping("/stripe")
     public ResponseEntity<String> handleStripeWebhook(
             @RequestBody String payload,
-            @RequestHeader("Stripe-Signature") String sigHeader) {
+            @RequestHeader(value = "Stripe-Signature", required = false) String sigHeader) {
         
         try {
-            logger.info("Received Stripe webhook");
-            paymentService.handleStripeWebhook(payload, sigHeader);
-            return ResponseEntity.ok("Webhook processed successfully");
+            webhookService.receiveStripeEvent(payload, sigHeader);
+            return ResponseEntity.ok("Webhook received");
             
-        } catch (Exception e) {
-            logger.error("Failed to process Stripe webhook: {}", e.getMessage(), e);
-            return ResponseEntity.badRequest().body("Webhook processing failed: " + e.getMessage());
+        } catch (BadRequestException e) {
+            // Anything else fails with 500, so the provider redelivers the event
+            logger.warn("Rejected Stripe webhook: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Webhook rejected: " + e.getMessage());
         }
     }
     
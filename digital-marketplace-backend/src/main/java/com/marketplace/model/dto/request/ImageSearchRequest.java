@@ -4,6 +4,7 @@ import com.marketplace.model.enums.LicenseType;
 import com.marketplace.model.enums.SaleType;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 public class ImageSearchRequest {
@@ -14,6 +15,7 @@ public class ImageSearchRequest {
     private SaleType saleType;
     private LicenseType licenseType;
     private Boolean includeMatureContent;
+    private List<String> tags; // Images must carry every listed tag
 
     public String getQuery() { return query; }
     public void setQuery(String query) { this.query = query; }
@@ -29,5 +31,7 @@ public class ImageSearchRequest {
     public void setLicenseType(LicenseType licenseType) { this.licenseType = licenseType; }
     public Boolean getIncludeMatureContent() { return includeMatureContent; }
     public void setIncludeMatureContent(Boolean includeMatureContent) { this.includeMatureContent = includeMatureContent; }
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
 }
 
@@ -0,0 +1,55 @@
+package com.marketplace.model.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One running auction in a listing. Built directly by a JPQL constructor
+ * expression, so listings never load managed entities.
+ */
+public class AuctionListingResponse {
+    private final UUID imageId;
+    private final String title;
+    private final String thumbnailUrl;
+    private final String currency;
+    private final BigDecimal startingBid;
+    private final BigDecimal currentBid;
+    private final BigDecimal buyNowPrice;
+    private final Integer bidCount;
+    private final LocalDateTime auctionStartTime;
+    private final LocalDateTime auctionEndTime;
+    private final UUID sellerId;
+    private final String sellerName;
+
+    public AuctionListingResponse(UUID imageId, String title, String thumbnailUrl, String currency,
+                                  BigDecimal startingBid, BigDecimal currentBid, BigDecimal buyNowPrice,
+                                  Integer bidCount, LocalDateTime auctionStartTime, LocalDateTime auctionEndTime,
+                                  UUID sellerId, String sellerFirstName, String sellerLastName) {
+        this.imageId = imageId;
+        this.title = title;
+        this.thumbnailUrl = thumbnailUrl;
+        this.currency = currency;
+        this.startingBid = startingBid;
+        this.currentBid = currentBid;
+        this.buyNowPrice = buyNowPrice;
+        this.bidCount = bidCount;
+        this.auctionStartTime = auctionStartTime;
+        this.auctionEndTime = auctionEndTime;
+        this.sellerId = sellerId;
+        this.sellerName = sellerFirstName + " " + sellerLastName;
+    }
+
+    public UUID getImageId() { return imageId; }
+    public String getTitle() { return title; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public String getCurrency() { return currency; }
+    public BigDecimal getStartingBid() { return startingBid; }
+    public BigDecimal getCurrentBid() { return currentBid; }
+    public BigDecimal getBuyNowPrice() { return buyNowPrice; }
+    public Integer getBidCount() { return bidCount; }
+    public LocalDateTime getAuctionStartTime() { return auctionStartTime; }
+    public LocalDateTime getAuctionEndTime() { return auctionEndTime; }
+    public UUID getSellerId() { return sellerId; }
+    public String getSellerName() { return sellerName; }
+}
@@ -0,0 +1,89 @@
+package com.marketplace.model.dto.response;
+
+import com.marketplace.model.enums.LicenseType;
+import com.marketplace.model.enums.SaleType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One line of the NDJSON catalog export. Built directly by a JPQL constructor
+ * expression, so exporting never loads managed entities.
+ */
+public class CatalogExportItem {
+    private final UUID id;
+    private final String title;
+    private final String description;
+    private final String thumbnailUrl;
+    private final String previewUrl;
+    private final Map<String, Object> dimensions;
+    private final String fileFormat;
+    private final List<String> tags;
+    private final List<String> colorPalette;
+    private final BigDecimal price;
+    private final String currency;
+    private final SaleType saleType;
+    private final LicenseType licenseType;
+    private final LocalDateTime auctionEndTime;
+    private final BigDecimal currentBid;
+    private final UUID categoryId;
+    private final String categoryName;
+    private final UUID uploaderId;
+    private final String uploaderName;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public CatalogExportItem(UUID id, String title, String description, String thumbnailUrl, String previewUrl,
+                             Map<String, Object> dimensions, String fileFormat, List<String> tags,
+                             List<String> colorPalette, BigDecimal price, String currency, SaleType saleType,
+                             LicenseType licenseType, LocalDateTime auctionEndTime, BigDecimal currentBid,
+                             UUID categoryId, String categoryName, UUID uploaderId, String uploaderFirstName,
+                             String uploaderLastName, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.thumbnailUrl = thumbnailUrl;
+        this.previewUrl = previewUrl;
+        this.dimensions = dimensions;
+        this.fileFormat = fileFormat;
+        this.tags = tags;
+        this.colorPalette = colorPalette;
+        this.price = price;
+        this.currency = currency;
+        this.saleType = saleType;
+        this.licenseType = licenseType;
+        this.auctionEndTime = saleType == SaleType.AUCTION ? auctionEndTime : null;
+        this.currentBid = saleType == SaleType.AUCTION ? currentBid : null;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.uploaderId = uploaderId;
+        this.uploaderName = uploaderFirstName + " " + uploaderLastName;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public UUID getId() { return id; }
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public String getPreviewUrl() { return previewUrl; }
+    public Map<String, Object> getDimensions() { return dimensions; }
+    public String getFileFormat() { return fileFormat; }
+    public List<String> getTags() { return tags; }
+    public List<String> getColorPalette() { return colorPalette; }
+    public BigDecimal getPrice() { return price; }
+    public String getCurrency() { return currency; }
+    public SaleType getSaleType() { return saleType; }
+    public LicenseType getLicenseType() { return licenseType; }
+    public LocalDateTime getAuctionEndTime() { return auctionEndTime; }
+    public BigDecimal getCurrentBid() { return currentBid; }
+    public UUID getCategoryId() { return categoryId; }
+    public String getCategoryName() { return categoryName; }
+    public UUID getUploaderId() { return uploaderId; }
+    public String getUploaderName() { return uploaderName; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,24 @@
+package com.marketplace.model.dto.response;
+
+import com.marketplace.model.enums.SuggestionType;
+
+public class SuggestionResponse {
+    private String text;
+    private SuggestionType type;
+    private int weight;
+
+    public SuggestionResponse() {}
+
+    public SuggestionResponse(String text, SuggestionType type, int weight) {
+        this.text = text;
+        this.type = type;
+        this.weight = weight;
+    }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+    public SuggestionType getType() { return type; }
+    public void setType(SuggestionType type) { this.type = type; }
+    public int getWeight() { return weight; }
+    public void setWeight(int weight) { this.weight = weight; }
+}
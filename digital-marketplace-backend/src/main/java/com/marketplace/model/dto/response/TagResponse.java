@@ -0,0 +1,22 @@
+package com.marketplace.model.dto.response;
+
+public class TagResponse {
+    private String name;
+    private String displayName;
+    private Integer imageCount;
+
+    public TagResponse() {}
+
+    public TagResponse(String name, String displayName, Integer imageCount) {
+        this.name = name;
+        this.displayName = displayName;
+        this.imageCount = imageCount;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getDisplayName() { return displayName; }
+    public void setDisplayName(String displayName) { this.displayName = displayName; }
+    public Integer getImageCount() { return imageCount; }
+    public void setImageCount(Integer imageCount) { this.imageCount = imageCount; }
+}
@@ -0,0 +1,48 @@
+package com.marketplace.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bid history of an ended auction after it was trimmed from auction_bids,
+ * packed and compressed, see BidHistory.
+ */
+@Entity
+@Table(name = "auction_bid_archives")
+public class AuctionBidArchive {
+    @Id
+    @Column(name = "image_id")
+    private UUID imageId;
+
+    @Column(name = "bid_count", nullable = false)
+    private int bidCount;
+
+    @Column(name = "bids", nullable = false)
+    private byte[] bids;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public AuctionBidArchive() {}
+
+    public AuctionBidArchive(UUID imageId, int bidCount, byte[] bids) {
+        this.imageId = imageId;
+        this.bidCount = bidCount;
+        this.bids = bids;
+        this.archivedAt = LocalDateTime.now();
+    }
+
+    public UUID getImageId() { return imageId; }
+    public void setImageId(UUID imageId) { this.imageId = imageId; }
+
+    public int getBidCount() { return bidCount; }
+    public void setBidCount(int bidCount) { this.bidCount = bidCount; }
+
+    public byte[] getBids() { return bids; }
+    public void setBids(byte[] bids) { this.bids = bids; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
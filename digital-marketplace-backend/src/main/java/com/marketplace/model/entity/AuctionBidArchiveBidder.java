@@ -0,0 +1,55 @@
+package com.marketplace.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One bidder's bids inside an archived auction, so a user's bid list finds the
+ * archives that hold their trimmed bids without unpacking any other.
+ */
+@Entity
+@Table(name = "auction_bid_archive_bidders", indexes = {
+    @Index(name = "idx_archive_bidder_time", columnList = "bidder_id, last_bid_time")
+}, uniqueConstraints = {@UniqueConstraint(columnNames = {"bidder_id", "image_id"})})
+public class AuctionBidArchiveBidder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bidder_id", nullable = false)
+    private UUID bidderId;
+
+    @Column(name = "image_id", nullable = false)
+    private UUID imageId;
+
+    @Column(name = "bid_count", nullable = false)
+    private int bidCount; // Trimmed bids only, the winning bid stays in auction_bids
+
+    @Column(name = "last_bid_time", nullable = false)
+    private LocalDateTime lastBidTime;
+
+    public AuctionBidArchiveBidder() {}
+
+    public AuctionBidArchiveBidder(UUID bidderId, UUID imageId, int bidCount, LocalDateTime lastBidTime) {
+        this.bidderId = bidderId;
+        this.imageId = imageId;
+        this.bidCount = bidCount;
+        this.lastBidTime = lastBidTime;
+    }
+
+    public Long getId() { return id; }
+
+    public UUID getBidderId() { return bidderId; }
+    public void setBidderId(UUID bidderId) { this.bidderId = bidderId; }
+
+    public UUID getImageId() { return imageId; }
+    public void setImageId(UUID imageId) { this.imageId = imageId; }
+
+    public int getBidCount() { return bidCount; }
+    public void setBidCount(int bidCount) { this.bidCount = bidCount; }
+
+    public LocalDateTime getLastBidTime() { return lastBidTime; }
+    public void setLastBidTime(LocalDateTime lastBidTime) { this.lastBidTime = lastBidTime; }
+}
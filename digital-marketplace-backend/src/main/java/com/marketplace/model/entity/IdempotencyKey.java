@@ -0,0 +1,42 @@
+package com.marketplace.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A client-supplied idempotency key that was used once, and what the request created.
+ * The key itself is not stored, only a name-based UUID of user, scope and key.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_key_expires", columnList = "expires_at")
+})
+public class IdempotencyKey {
+    @Id
+    private UUID id;
+
+    @Column(name = "request_hash", nullable = false)
+    private int requestHash;
+
+    @Column(name = "resource_id")
+    private UUID resourceId; // Null until the request that claimed the key commits
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyKey() {}
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public int getRequestHash() { return requestHash; }
+    public void setRequestHash(int requestHash) { this.requestHash = requestHash; }
+
+    public UUID getResourceId() { return resourceId; }
+    public void setResourceId(UUID resourceId) { this.resourceId = resourceId; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -8,6 +8,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -16,6 +17,7 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
+@DynamicUpdate // Bid columns are written by the auction engine, saves must not overwrite them
 @Table(name = "images", indexes = {
     @Index(name = "idx_image_uploader", columnList = "uploader_id"),
     @Index(name = "idx_image_owner", columnList = "current_owner_id"),
@@ -24,7 +26,8 @@ import java.util.*;
     @Index(name = "idx_image_sale_type", columnList = "sale_type"),
     @Index(name = "idx_image_price", columnList = "price"),
     @Index(name = "idx_image_created", columnList = "created_at"),
-    @Index(name = "idx_image_featured", columnList = "is_featured")
+    @Index(name = "idx_image_featured", columnList = "is_featured"),
+    @Index(name = "idx_image_auction_end", columnList = "sale_type, is_available, auction_end_time")
 })
 public class Image extends BaseEntity {
     
@@ -82,6 +85,14 @@ public class Image extends BaseEntity {
     @Column(name = "tags", columnDefinition = "jsonb")
     private List<String> tags = new ArrayList<>();
     
+    // Indexed postings of tags and aiTags, maintained by TagService
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "image_tags",
+        joinColumns = @JoinColumn(name = "image_id"),
+        inverseJoinColumns = @JoinColumn(name = "tag_id"),
+        indexes = @Index(name = "idx_image_tag_tag", columnList = "tag_id"))
+    private Set<Tag> normalizedTags = new HashSet<>();
+    
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "metadata", columnDefinition = "jsonb")
     private Map<String, Object> metadata; // EXIF, color palette, AI analysis, etc.
@@ -90,6 +101,9 @@ public class Image extends BaseEntity {
     @Column(name = "color_palette", columnDefinition = "jsonb")
     private List<String> colorPalette; // Dominant colors in hex format
     
+    @Column(name = "visual_embedding")
+    private byte[] visualEmbedding; // Color/edge descriptor for similarity search
+    
     @DecimalMin(value = "0.01", message = "Price must be at least 0.01")
     @Column(name = "price", precision = 10, scale = 2)
     private BigDecimal price;
@@ -109,6 +123,9 @@ public class Image extends BaseEntity {
     @Column(name = "auction_end_time")
     private LocalDateTime auctionEndTime;
     
+    @Column(name = "auction_closed_at")
+    private LocalDateTime auctionClosedAt; // Set once when the auction is settled
+    
     @Column(name = "starting_bid", precision = 10, scale = 2)
     private BigDecimal startingBid;
     
@@ -127,6 +144,12 @@ public class Image extends BaseEntity {
     @Column(name = "is_available", nullable = false)
     private Boolean isAvailable = true;
     
+    @Column(name = "reserved_by")
+    private UUID reservedBy; // Buyer holding the image while paying
+    
+    @Column(name = "reserved_until")
+    private LocalDateTime reservedUntil;
+    
     @Column(name = "is_featured", nullable = false)
     private Boolean isFeatured = false;
     
@@ -304,12 +327,18 @@ public class Image extends BaseEntity {
     public List<String> getTags() { return tags; }
     public void setTags(List<String> tags) { this.tags = tags; }
     
+    public Set<Tag> getNormalizedTags() { return normalizedTags; }
+    public void setNormalizedTags(Set<Tag> normalizedTags) { this.normalizedTags = normalizedTags; }
+    
     public Map<String, Object> getMetadata() { return metadata; }
     public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
     
     public List<String> getColorPalette() { return colorPalette; }
     public void setColorPalette(List<String> colorPalette) { this.colorPalette = colorPalette; }
     
+    public byte[] getVisualEmbedding() { return visualEmbedding; }
+    public void setVisualEmbedding(byte[] visualEmbedding) { this.visualEmbedding = visualEmbedding; }
+    
     public BigDecimal getPrice() { return price; }
     public void setPrice(BigDecimal price) { this.price = price; }
     
@@ -325,6 +354,9 @@ public class Image extends BaseEntity {
     public LocalDateTime getAuctionEndTime() { return auctionEndTime; }
     public void setAuctionEndTime(LocalDateTime auctionEndTime) { this.auctionEndTime = auctionEndTime; }
     
+    public LocalDateTime getAuctionClosedAt() { return auctionClosedAt; }
+    public void setAuctionClosedAt(LocalDateTime auctionClosedAt) { this.auctionClosedAt = auctionClosedAt; }
+    
     public BigDecimal getStartingBid() { return startingBid; }
     public void setStartingBid(BigDecimal startingBid) { this.startingBid = startingBid; }
     
@@ -343,6 +375,12 @@ public class Image extends BaseEntity {
     public Boolean getIsAvailable() { return isAvailable; }
     public void setIsAvailable(Boolean isAvailable) { this.isAvailable = isAvailable; }
     
+    public UUID getReservedBy() { return reservedBy; }
+    public void setReservedBy(UUID reservedBy) { this.reservedBy = reservedBy; }
+    
+    public LocalDateTime getReservedUntil() { return reservedUntil; }
+    public void setReservedUntil(LocalDateTime reservedUntil) { this.reservedUntil = reservedUntil; }
+    
     public Boolean getIsFeatured() { return isFeatured; }
     public void setIsFeatured(Boolean isFeatured) { this.isFeatured = isFeatured; }
     
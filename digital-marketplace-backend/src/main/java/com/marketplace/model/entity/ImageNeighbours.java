@@ -0,0 +1,41 @@
+package com.marketplace.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Precomputed "people who liked this also liked" list of an image,
+ * packed as (image id, score) pairs, see RankedItems.
+ */
+@Entity
+@Table(name = "image_neighbours")
+public class ImageNeighbours {
+    @Id
+    @Column(name = "image_id")
+    private UUID imageId;
+
+    @Column(name = "neighbours", nullable = false)
+    private byte[] neighbours;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ImageNeighbours() {}
+
+    public ImageNeighbours(UUID imageId, byte[] neighbours) {
+        this.imageId = imageId;
+        this.neighbours = neighbours;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public UUID getImageId() { return imageId; }
+    public void setImageId(UUID imageId) { this.imageId = imageId; }
+
+    public byte[] getNeighbours() { return neighbours; }
+    public void setNeighbours(byte[] neighbours) { this.neighbours = neighbours; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,48 @@
+package com.marketplace.model.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Append-only log of image detail views by signed-in users, read by the
+ * recommendation batch job. Holds plain ids so inserts stay cheap.
+ */
+@Entity
+@Table(name = "image_views", indexes = {
+    @Index(name = "idx_image_view_date", columnList = "viewed_at")
+})
+public class ImageView {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "image_id", nullable = false)
+    private UUID imageId;
+
+    @Column(name = "viewed_at", nullable = false)
+    private LocalDateTime viewedAt;
+
+    public ImageView() {}
+
+    public ImageView(UUID userId, UUID imageId) {
+        this.userId = userId;
+        this.imageId = imageId;
+        this.viewedAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+
+    public UUID getImageId() { return imageId; }
+    public void setImageId(UUID imageId) { this.imageId = imageId; }
+
+    public LocalDateTime getViewedAt() { return viewedAt; }
+    public void setViewedAt(LocalDateTime viewedAt) { this.viewedAt = viewedAt; }
+}
@@ -0,0 +1,42 @@
+package com.marketplace.model.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A seller's running totals over the earnings ledger, only changed by atomic increments
+ * in SellerBalanceRepository, never loaded and saved.
+ */
+@Entity
+@Table(name = "seller_balances")
+public class SellerBalance {
+    @Id
+    @Column(name = "seller_id")
+    private UUID sellerId;
+
+    @Column(name = "total_sales", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalSales;
+
+    @Column(name = "total_earnings", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalEarnings;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public SellerBalance() {}
+
+    public UUID getSellerId() { return sellerId; }
+    public void setSellerId(UUID sellerId) { this.sellerId = sellerId; }
+
+    public BigDecimal getTotalSales() { return totalSales; }
+    public void setTotalSales(BigDecimal totalSales) { this.totalSales = totalSales; }
+
+    public BigDecimal getTotalEarnings() { return totalEarnings; }
+    public void setTotalEarnings(BigDecimal totalEarnings) { this.totalEarnings = totalEarnings; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -98,6 +98,7 @@ public class User extends BaseEntity {
     @Column(name = "seller_rating", precision = 3, scale = 2)
     private BigDecimal sellerRating;
     
+    // Totals from before the earnings ledger, current ones are in seller_balances
     @Column(name = "total_sales", precision = 15, scale = 2)
     private BigDecimal totalSales = BigDecimal.ZERO;
     
@@ -152,15 +153,6 @@ public class User extends BaseEntity {
         return firstName + " " + lastName;
     }
 
-    public void addSale(BigDecimal grossAmount, BigDecimal commission) {
-        if (grossAmount != null) {
-            this.totalSales = this.totalSales.add(grossAmount);
-        }
-        if (commission != null) {
-            this.totalEarnings = this.totalEarnings.add(grossAmount.subtract(commission));
-        }
-    }
-
     public void setEmailVerificationToken(String token) {
         this.emailVerificationToken = token;
     }
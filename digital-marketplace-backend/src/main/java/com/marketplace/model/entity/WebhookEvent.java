@@ -0,0 +1,87 @@
+package com.marketplace.model.entity;
+
+import com.marketplace.model.enums.WebhookEventStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment provider webhook event, stored as received and processed from this table.
+ * The provider's event id is the key, so redelivered events are dropped on insert.
+ */
+@Entity
+@Table(name = "webhook_events", indexes = {
+    @Index(name = "idx_webhook_event_due", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_webhook_event_intent", columnList = "payment_intent_id, status")
+})
+public class WebhookEvent {
+    @Id
+    @Column(name = "id", length = 255)
+    private String id;
+
+    @Column(name = "type", nullable = false, length = 100)
+    private String type;
+
+    @Column(name = "payment_intent_id", length = 255)
+    private String paymentIntentId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private WebhookEventStatus status = WebhookEventStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt; // Also leases the event to the node processing it
+
+    @Column(name = "event_created_at", nullable = false)
+    private LocalDateTime eventCreatedAt; // Provider's timestamp, orders events of one payment intent
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public WebhookEvent() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getPaymentIntentId() { return paymentIntentId; }
+    public void setPaymentIntentId(String paymentIntentId) { this.paymentIntentId = paymentIntentId; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public WebhookEventStatus getStatus() { return status; }
+    public void setStatus(WebhookEventStatus status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getEventCreatedAt() { return eventCreatedAt; }
+    public void setEventCreatedAt(LocalDateTime eventCreatedAt) { this.eventCreatedAt = eventCreatedAt; }
+
+    public LocalDateTime getReceivedAt() { return receivedAt; }
+    public void setReceivedAt(LocalDateTime receivedAt) { this.receivedAt = receivedAt; }
+
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
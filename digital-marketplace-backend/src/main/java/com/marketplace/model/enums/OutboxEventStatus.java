@@ -0,0 +1,7 @@
+package com.marketplace.model.enums;
+
+public enum OutboxEventStatus {
+    PENDING,    // Committed, its steps still have to run
+    DONE,       // Every step ran
+    FAILED      // Gave up after the last attempt
+}
@@ -0,0 +1,7 @@
+package com.marketplace.model.enums;
+
+public enum SuggestionType {
+    TITLE,          // Image title
+    TAG,            // Image tag
+    CATEGORY        // Category name
+}
@@ -0,0 +1,7 @@
+package com.marketplace.model.enums;
+
+public enum WebhookEventStatus {
+    PENDING,    // Received, waiting to be processed or retried
+    PROCESSED,  // Handled, kept for deduplication
+    FAILED      // Gave up after the last attempt
+}
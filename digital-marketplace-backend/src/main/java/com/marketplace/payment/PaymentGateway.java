@@ -0,0 +1,30 @@
+package com.marketplace.payment;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A payment provider. Implementations must not block the calling thread: calls return
+ * at once and complete when the provider answered. Provider outages and timeouts
+ * complete exceptionally with a {@link PaymentGatewayException}; PaymentService adds
+ * the deadline and circuit breaker, so implementations only map the provider's API.
+ *
+ * Payment outcomes are not returned here. The provider confirms them asynchronously
+ * through signed webhooks, see WebhookService.
+ */
+public interface PaymentGateway {
+
+    String getName();
+
+    /**
+     * Create a payment intent, repeated requests for the same transaction return the same intent
+     */
+    CompletableFuture<PaymentIntent> createPaymentIntent(PaymentIntentRequest request);
+
+    CompletableFuture<PaymentIntent> retrievePaymentIntent(String paymentIntentId);
+
+    /**
+     * Refund part or all of a succeeded payment, returns the provider's refund id
+     */
+    CompletableFuture<String> refund(String paymentIntentId, BigDecimal amount, String reason);
+}
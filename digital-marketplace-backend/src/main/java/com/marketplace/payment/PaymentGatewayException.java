@@ -0,0 +1,26 @@
+package com.marketplace.payment;
+
+import com.marketplace.exception.PaymentException;
+
+/**
+ * A failed gateway call. Provider faults (outages, 5xx, rate limits, timeouts) count
+ * towards the circuit breaker; rejected requests such as an unknown intent do not.
+ */
+public class PaymentGatewayException extends PaymentException {
+
+    private final boolean providerFault;
+
+    public PaymentGatewayException(String message, boolean providerFault) {
+        super(message);
+        this.providerFault = providerFault;
+    }
+
+    public PaymentGatewayException(String message, boolean providerFault, Throwable cause) {
+        super(message, cause);
+        this.providerFault = providerFault;
+    }
+
+    public boolean isProviderFault() {
+        return providerFault;
+    }
+}
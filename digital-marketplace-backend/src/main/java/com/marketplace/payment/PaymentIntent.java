@@ -0,0 +1,30 @@
+package com.marketplace.payment;
+
+/**
+ * A payment intent as the provider reports it, statuses follow Stripe's names
+ */
+public class PaymentIntent {
+
+    public static final String REQUIRES_PAYMENT_METHOD = "requires_payment_method";
+    public static final String PROCESSING = "processing";
+    public static final String SUCCEEDED = "succeeded";
+    public static final String CANCELED = "canceled";
+
+    private final String id;
+    private final String status;
+    private final String clientSecret;
+
+    public PaymentIntent(String id, String status, String clientSecret) {
+        this.id = id;
+        this.status = status;
+        this.clientSecret = clientSecret;
+    }
+
+    public String getId() { return id; }
+    public String getStatus() { return status; }
+    public String getClientSecret() { return clientSecret; }
+
+    public boolean isSucceeded() {
+        return SUCCEEDED.equals(status);
+    }
+}
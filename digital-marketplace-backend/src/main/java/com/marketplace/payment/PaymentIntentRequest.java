@@ -0,0 +1,28 @@
+package com.marketplace.payment;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * What to charge for a transaction. The transaction id doubles as the provider-side
+ * idempotency key, so a repeated request cannot create a second intent.
+ */
+public class PaymentIntentRequest {
+
+    private final UUID transactionId;
+    private final BigDecimal amount;
+    private final String currency;
+    private final String description;
+
+    public PaymentIntentRequest(UUID transactionId, BigDecimal amount, String currency, String description) {
+        this.transactionId = transactionId;
+        this.amount = amount;
+        this.currency = currency;
+        this.description = description;
+    }
+
+    public UUID getTransactionId() { return transactionId; }
+    public BigDecimal getAmount() { return amount; }
+    public String getCurrency() { return currency; }
+    public String getDescription() { return description; }
+}
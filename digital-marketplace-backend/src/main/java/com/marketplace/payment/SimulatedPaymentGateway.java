@@ -0,0 +1,193 @@
+package com.marketplace.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.marketplace.config.ApplicationPropertiesProvider;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for the payment provider, for development and load tests.
+ *
+ * Every call answers after a random latency and fails with a provider error at the
+ * configured rate. Created intents are confirmed after a delay, succeeding or being
+ * declined at the configured rate, and the outcome is posted as a signed Stripe-style
+ * webhook to the configured URL, so confirmations take the same path as real ones.
+ * Undelivered webhooks are retried with backoff like the provider does.
+ */
+@Component
+@ConditionalOnProperty(name = "marketplace.payment.gateway", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedPaymentGateway.class);
+
+    private static final int WEBHOOK_ATTEMPTS = 5;
+    private static final Duration WEBHOOK_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private ApplicationPropertiesProvider appProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, PaymentIntent> intents = new ConcurrentHashMap<>();
+    private final Map<UUID, String> intentIdsByTransaction = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private HttpClient httpClient;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "payment-simulator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(appProperties.getPayment().getConnectTimeoutMs()))
+                .build();
+        logger.info("Using the simulated payment gateway, confirmations go to {}",
+                appProperties.getPayment().getSimulatorWebhookUrl());
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public String getName() {
+        return "simulator";
+    }
+
+    @Override
+    public CompletableFuture<PaymentIntent> createPaymentIntent(PaymentIntentRequest request) {
+        return afterLatency(() -> {
+            String id = intentIdsByTransaction.computeIfAbsent(request.getTransactionId(),
+                    transactionId -> "pi_sim_" + randomToken());
+            return intents.computeIfAbsent(id, intentId -> {
+                scheduler.schedule(() -> confirm(intentId),
+                        appProperties.getPayment().getSimulatorConfirmDelayMs(), TimeUnit.MILLISECONDS);
+                return new PaymentIntent(intentId, PaymentIntent.PROCESSING, intentId + "_secret_" + randomToken());
+            });
+        });
+    }
+
+    @Override
+    public CompletableFuture<PaymentIntent> retrievePaymentIntent(String paymentIntentId) {
+        return afterLatency(() -> {
+            PaymentIntent intent = intents.get(paymentIntentId);
+            if (intent == null) {
+                throw new PaymentGatewayException("No such payment intent: " + paymentIntentId, false);
+            }
+            return intent;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> refund(String paymentIntentId, BigDecimal amount, String reason) {
+        return afterLatency(() -> {
+            PaymentIntent intent = intents.get(paymentIntentId);
+            if (intent == null || !intent.isSucceeded()) {
+                throw new PaymentGatewayException("Payment intent " + paymentIntentId + " has no succeeded charge", false);
+            }
+            return "re_sim_" + randomToken();
+        });
+    }
+
+    // Private helper methods
+
+    private <T> CompletableFuture<T> afterLatency(Supplier<T> call) {
+        ApplicationPropertiesProvider.Payment config = appProperties.getPayment();
+        long latency = ThreadLocalRandom.current().nextLong(config.getSimulatorMinLatencyMs(),
+                Math.max(config.getSimulatorMinLatencyMs(), config.getSimulatorMaxLatencyMs()) + 1);
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            if (ThreadLocalRandom.current().nextDouble() < config.getSimulatorFailureRate()) {
+                future.completeExceptionally(new PaymentGatewayException("Simulated provider error", true));
+                return;
+            }
+            try {
+                future.complete(call.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, latency, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private void confirm(String intentId) {
+        boolean declined = ThreadLocalRandom.current().nextDouble() < appProperties.getPayment().getSimulatorDeclineRate();
+        PaymentIntent intent = intents.computeIfPresent(intentId, (id, pending) -> new PaymentIntent(id,
+                declined ? PaymentIntent.REQUIRES_PAYMENT_METHOD : PaymentIntent.SUCCEEDED, pending.getClientSecret()));
+        if (intent == null) return;
+
+        ObjectNode object = objectMapper.createObjectNode();
+        object.put("id", intent.getId());
+        object.put("object", "payment_intent");
+        object.put("status", intent.getStatus());
+        if (declined) {
+            object.putObject("last_payment_error").put("message", "Your card was declined.");
+        }
+
+        ObjectNode event = objectMapper.createObjectNode();
+        event.put("id", "evt_sim_" + randomToken());
+        event.put("object", "event");
+        event.put("type", declined ? "payment_intent.payment_failed" : "payment_intent.succeeded");
+        event.put("created", Instant.now().getEpochSecond());
+        event.putObject("data").set("object", object);
+
+        deliver(event.toString(), 1);
+    }
+
+    private void deliver(String payload, int attempt) {
+        String signature = WebhookSignature.sign(appProperties.getWebhook().getSecret(),
+                Instant.now().getEpochSecond(), payload);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(appProperties.getPayment().getSimulatorWebhookUrl()))
+                .timeout(WEBHOOK_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Stripe-Signature", signature)
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build();
+
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error == null && response.statusCode() / 100 == 2) return;
+
+            String problem = error != null ? error.getMessage() : "HTTP " + response.statusCode();
+            if (attempt >= WEBHOOK_ATTEMPTS) {
+                logger.error("Giving up delivering simulated webhook after {} attempts: {}", attempt, problem);
+                return;
+            }
+            logger.warn("Simulated webhook delivery failed (attempt {}): {}", attempt, problem);
+            scheduler.schedule(() -> deliver(payload, attempt + 1), 1L << attempt, TimeUnit.SECONDS);
+        });
+    }
+
+    private static String randomToken() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
@@ -0,0 +1,147 @@
+package com.marketplace.payment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.config.ApplicationPropertiesProvider;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Stripe's REST API over the JDK HTTP client, which keeps pooled keep-alive (or HTTP/2)
+ * connections to the API and sends asynchronously.
+ */
+@Component
+@ConditionalOnProperty(name = "marketplace.payment.gateway", havingValue = "stripe")
+public class StripePaymentGateway implements PaymentGateway {
+
+    @Autowired
+    private ApplicationPropertiesProvider appProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    public void init() {
+        if (appProperties.getPayment().getStripeSecretKey().isBlank()) {
+            throw new IllegalStateException("marketplace.payment.stripe-secret-key is required for the stripe gateway");
+        }
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(appProperties.getPayment().getConnectTimeoutMs()))
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return "stripe";
+    }
+
+    @Override
+    public CompletableFuture<PaymentIntent> createPaymentIntent(PaymentIntentRequest request) {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("amount", String.valueOf(minorUnits(request.getAmount())));
+        form.put("currency", request.getCurrency().toLowerCase());
+        form.put("description", request.getDescription());
+        form.put("automatic_payment_methods[enabled]", "true");
+        form.put("metadata[transaction_id]", request.getTransactionId().toString());
+
+        return send(post("/v1/payment_intents", form, request.getTransactionId().toString()))
+                .thenApply(this::toPaymentIntent);
+    }
+
+    @Override
+    public CompletableFuture<PaymentIntent> retrievePaymentIntent(String paymentIntentId) {
+        HttpRequest request = requestBuilder("/v1/payment_intents/" + encode(paymentIntentId)).GET().build();
+        return send(request).thenApply(this::toPaymentIntent);
+    }
+
+    @Override
+    public CompletableFuture<String> refund(String paymentIntentId, BigDecimal amount, String reason) {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("payment_intent", paymentIntentId);
+        form.put("amount", String.valueOf(minorUnits(amount)));
+        if (reason != null) {
+            form.put("metadata[reason]", reason);
+        }
+
+        return send(post("/v1/refunds", form, null)).thenApply(refund -> refund.path("id").asText());
+    }
+
+    // Private helper methods
+
+    private HttpRequest post(String path, Map<String, String> form, String idempotencyKey) {
+        String body = form.entrySet().stream()
+                .map(entry -> encode(entry.getKey()) + "=" + encode(entry.getValue()))
+                .collect(Collectors.joining("&"));
+
+        HttpRequest.Builder builder = requestBuilder(path)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest.Builder requestBuilder(String path) {
+        ApplicationPropertiesProvider.Payment config = appProperties.getPayment();
+        return HttpRequest.newBuilder(URI.create(config.getStripeApiUrl() + path))
+                .timeout(Duration.ofMillis(config.getRequestTimeoutMs()))
+                .header("Authorization", "Bearer " + config.getStripeSecretKey());
+    }
+
+    private CompletableFuture<JsonNode> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, error) -> {
+            if (error != null) {
+                throw new PaymentGatewayException("Payment provider unreachable: " + error.getMessage(), true, error);
+            }
+
+            JsonNode body = parse(response.body());
+            int status = response.statusCode();
+            if (status / 100 == 2) return body;
+
+            String message = body.path("error").path("message").asText("HTTP " + status);
+            throw new PaymentGatewayException(message, status == 429 || status >= 500);
+        });
+    }
+
+    private PaymentIntent toPaymentIntent(JsonNode intent) {
+        return new PaymentIntent(intent.path("id").asText(), intent.path("status").asText(),
+                intent.path("client_secret").asText(null));
+    }
+
+    private JsonNode parse(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw new PaymentGatewayException("Unreadable response from payment provider", true, e);
+        }
+    }
+
+    // Amounts in cents; zero-decimal currencies are not offered
+    private static long minorUnits(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
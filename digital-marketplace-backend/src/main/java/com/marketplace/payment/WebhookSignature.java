@@ -0,0 +1,65 @@
+package com.marketplace.payment;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Stripe-style webhook signatures: a header {@code t=<unix seconds>,v1=<hex>} where the
+ * signature is the HMAC-SHA256 of {@code <t>.<payload>} under the endpoint secret.
+ * Used to check incoming webhooks and by local stand-ins for the provider to sign theirs.
+ */
+public final class WebhookSignature {
+
+    private WebhookSignature() {}
+
+    public static String sign(String secret, long timestamp, String payload) {
+        return "t=" + timestamp + ",v1=" + hmac(secret, timestamp + "." + payload);
+    }
+
+    /**
+     * True if one of the header's v1 signatures matches and its timestamp is within the tolerance
+     */
+    public static boolean verify(String secret, String header, String payload, long toleranceSeconds) {
+        if (secret == null || secret.isEmpty() || header == null) return false;
+
+        long timestamp = -1;
+        String[] parts = header.split(",");
+        for (String part : parts) {
+            if (part.startsWith("t=")) {
+                try {
+                    timestamp = Long.parseLong(part.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        if (timestamp < 0 || Math.abs(System.currentTimeMillis() / 1000 - timestamp) > toleranceSeconds) {
+            return false;
+        }
+
+        byte[] expected = hmac(secret, timestamp + "." + payload).getBytes(StandardCharsets.US_ASCII);
+        for (String part : parts) {
+            if (part.startsWith("v1=")
+                    && MessageDigest.isEqual(expected, part.substring(3).trim().getBytes(StandardCharsets.US_ASCII))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Private helper methods
+
+    private static String hmac(String secret, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
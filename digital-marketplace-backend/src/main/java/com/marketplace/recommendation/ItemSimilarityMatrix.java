@@ -0,0 +1,154 @@
+package com.marketplace.recommendation;
+
+import java.util.*;
+
+/**
+ * Incrementally maintained item-item cosine similarity over implicit feedback.
+ *
+ * Users and images are mapped to dense int ids. Each user row holds the strongest
+ * interaction weight per image, and the item-item dot products and squared norms are
+ * updated from the weight delta whenever a row entry grows, so a new event costs one
+ * pass over that user's row instead of a recomputation. Weights only ever go up;
+ * withdrawn signals (unlikes, refunds) are dropped by building a fresh matrix.
+ *
+ * Items touched since the last drain are tracked so callers only re-rank those.
+ * Not thread-safe, meant to be owned by a single batch thread.
+ */
+public class ItemSimilarityMatrix {
+
+    private final int maxItemsPerUser;
+
+    private final Map<UUID, Integer> itemIndex = new HashMap<>();
+    private final List<UUID> items = new ArrayList<>();
+    private final List<SparseVector> itemDots = new ArrayList<>();
+    private float[] itemNorms = new float[1024]; // Squared
+
+    private final Map<UUID, Integer> userIndex = new HashMap<>();
+    private final List<UUID> users = new ArrayList<>();
+    private final List<SparseVector> userRows = new ArrayList<>();
+
+    private final BitSet dirtyItems = new BitSet();
+    private final BitSet dirtyUsers = new BitSet();
+
+    public ItemSimilarityMatrix(int maxItemsPerUser) {
+        this.maxItemsPerUser = maxItemsPerUser;
+    }
+
+    /**
+     * Record that a user interacted with an image with the given strength.
+     * Weaker or repeated signals than the one already recorded are no-ops.
+     */
+    public void record(UUID userId, UUID itemId, float weight) {
+        int user = userIndex.computeIfAbsent(userId, id -> {
+            users.add(id);
+            userRows.add(new SparseVector());
+            return users.size() - 1;
+        });
+        SparseVector row = userRows.get(user);
+
+        int item = itemIndex(itemId);
+        float old = row.get(item);
+        if (weight <= old) return;
+
+        // Very active accounts would add quadratic work for little signal
+        if (old == 0 && row.size() >= maxItemsPerUser) return;
+
+        float delta = weight - old;
+        SparseVector dots = itemDots.get(item);
+        row.forEach((other, otherWeight) -> {
+            if (other == item) return;
+            dots.add(other, delta * otherWeight);
+            itemDots.get(other).add(item, delta * otherWeight);
+            dirtyItems.set(other);
+        });
+
+        itemNorms[item] += weight * weight - old * old;
+        row.put(item, weight);
+        dirtyItems.set(item);
+        dirtyUsers.set(user);
+    }
+
+    /**
+     * Dense ids of the items changed since the last call
+     */
+    public int[] drainDirtyItems() {
+        int[] dirty = dirtyItems.stream().toArray();
+        dirtyItems.clear();
+        return dirty;
+    }
+
+    /**
+     * Dense ids of the users whose rows changed since the last call
+     */
+    public int[] drainDirtyUsers() {
+        int[] dirty = dirtyUsers.stream().toArray();
+        dirtyUsers.clear();
+        return dirty;
+    }
+
+    public UUID itemId(int item) {
+        return items.get(item);
+    }
+
+    public UUID userId(int user) {
+        return users.get(user);
+    }
+
+    public int itemCount() {
+        return items.size();
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    /**
+     * The n items most similar to an item by cosine similarity
+     */
+    public RankedItems neighbours(int item, int n) {
+        float norm = itemNorms[item];
+        if (norm <= 0) return RankedItems.EMPTY;
+
+        RankedItems.TopN top = new RankedItems.TopN(n);
+        itemDots.get(item).forEach((other, dot) -> {
+            float otherNorm = itemNorms[other];
+            if (dot > 0 && otherNorm > 0) {
+                top.offer(other, (float) (dot / Math.sqrt((double) norm * otherNorm)));
+            }
+        });
+        return toRanked(top);
+    }
+
+    /**
+     * The n items a user interacted with most strongly
+     */
+    public RankedItems userProfile(int user, int n) {
+        RankedItems.TopN top = new RankedItems.TopN(n);
+        userRows.get(user).forEach(top::offer);
+        return toRanked(top);
+    }
+
+    // Private helper methods
+
+    private int itemIndex(UUID itemId) {
+        Integer existing = itemIndex.get(itemId);
+        if (existing != null) return existing;
+
+        int item = items.size();
+        items.add(itemId);
+        itemDots.add(new SparseVector());
+        if (item == itemNorms.length) {
+            itemNorms = Arrays.copyOf(itemNorms, itemNorms.length * 2);
+        }
+        itemIndex.put(itemId, item);
+        return item;
+    }
+
+    private RankedItems toRanked(RankedItems.TopN top) {
+        UUID[] ids = new UUID[top.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = items.get(top.key(i));
+        }
+        return new RankedItems(ids, top.scores());
+    }
+}
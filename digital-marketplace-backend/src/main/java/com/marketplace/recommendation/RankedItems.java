@@ -0,0 +1,99 @@
+package com.marketplace.recommendation;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Immutable list of item ids with scores, best first. Packs into 20 bytes per
+ * entry for storage.
+ */
+public final class RankedItems {
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES + Float.BYTES;
+
+    public static final RankedItems EMPTY = new RankedItems(new UUID[0], new float[0]);
+
+    private final UUID[] ids;
+    private final float[] scores;
+
+    RankedItems(UUID[] ids, float[] scores) {
+        this.ids = ids;
+        this.scores = scores;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public UUID getId(int index) {
+        return ids[index];
+    }
+
+    public float getScore(int index) {
+        return scores[index];
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(ids.length * ENTRY_BYTES);
+        for (int i = 0; i < ids.length; i++) {
+            buffer.putLong(ids[i].getMostSignificantBits());
+            buffer.putLong(ids[i].getLeastSignificantBits());
+            buffer.putFloat(scores[i]);
+        }
+        return buffer.array();
+    }
+
+    public static RankedItems fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length % ENTRY_BYTES != 0) return EMPTY;
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int size = bytes.length / ENTRY_BYTES;
+        UUID[] ids = new UUID[size];
+        float[] scores = new float[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = new UUID(buffer.getLong(), buffer.getLong());
+            scores[i] = buffer.getFloat();
+        }
+        return new RankedItems(ids, scores);
+    }
+
+    /**
+     * Collects the best n of a stream of scored dense ids
+     */
+    static final class TopN {
+        private final int[] keys;
+        private final float[] scores;
+        private int size;
+
+        TopN(int n) {
+            keys = new int[n];
+            scores = new float[n];
+        }
+
+        void offer(int key, float score) {
+            if (size == keys.length && score <= scores[size - 1]) return;
+
+            int at = size < keys.length ? size++ : size - 1;
+            while (at > 0 && scores[at - 1] < score) {
+                keys[at] = keys[at - 1];
+                scores[at] = scores[at - 1];
+                at--;
+            }
+            keys[at] = key;
+            scores[at] = score;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int key(int index) {
+            return keys[index];
+        }
+
+        float[] scores() {
+            return Arrays.copyOf(scores, size);
+        }
+    }
+}
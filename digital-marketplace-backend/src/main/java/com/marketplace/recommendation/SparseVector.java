@@ -0,0 +1,103 @@
+package com.marketplace.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Sparse int-keyed float vector backed by open addressing, so matrix rows hold
+ * no boxed keys or entry objects. Keys must be non-negative.
+ */
+public class SparseVector {
+
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 4;
+
+    private int[] keys;
+    private float[] values;
+    private int size;
+
+    public SparseVector() {
+        keys = new int[MIN_CAPACITY];
+        values = new float[MIN_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public float get(int key) {
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : 0f;
+    }
+
+    public void put(int key, float value) {
+        int slot = find(key);
+        if (keys[slot] != key) {
+            if (grow()) slot = find(key);
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    public void add(int key, float delta) {
+        int slot = find(key);
+        if (keys[slot] != key) {
+            if (grow()) slot = find(key);
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] += delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, float value);
+    }
+
+    // Private helper methods
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Double the table once it is over two thirds full, returns true if it moved
+     */
+    private boolean grow() {
+        if ((size + 1) * 3 < keys.length * 2) return false;
+
+        int[] oldKeys = keys;
+        float[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new float[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,17 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.AuctionBidArchiveBidder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface AuctionBidArchiveBidderRepository extends JpaRepository<AuctionBidArchiveBidder, Long> {
+
+    List<AuctionBidArchiveBidder> findByBidderIdOrderByLastBidTimeDesc(UUID bidderId);
+
+    @Query("SELECT COALESCE(SUM(b.bidCount), 0) FROM AuctionBidArchiveBidder b WHERE b.bidderId = :bidderId")
+    long countArchivedBids(@Param("bidderId") UUID bidderId);
+}
@@ -0,0 +1,9 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.AuctionBidArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface AuctionBidArchiveRepository extends JpaRepository<AuctionBidArchive, UUID> {
+}
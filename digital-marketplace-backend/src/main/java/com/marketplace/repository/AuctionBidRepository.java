@@ -1,6 +1,7 @@
 package com.marketplace.repository;
 
 import com.marketplace.model.entity.AuctionBid;
+import com.marketplace.model.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,7 +9,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -29,9 +30,24 @@ public interface AuctionBidRepository extends JpaRepository<AuctionBid, UUID> {
 
     Page<AuctionBid> findByBidderIdOrderByBidTimeDesc(UUID bidderId, Pageable pageable);
 
-    @Query("SELECT ab FROM AuctionBid ab WHERE ab.image.id = :imageId AND ab.isAutoBid = true AND ab.maxBidAmount > :currentBid ORDER BY ab.maxBidAmount DESC")
-    List<AuctionBid> findAutoBidsForImage(@Param("imageId") UUID imageId, @Param("currentBid") BigDecimal currentBid);
+    @Query("SELECT ab.bidder.id, MAX(ab.maxBidAmount) FROM AuctionBid ab WHERE ab.image.id = :imageId AND ab.maxBidAmount IS NOT NULL GROUP BY ab.bidder.id")
+    List<Object[]> findProxyMaximaForImage(@Param("imageId") UUID imageId);
 
-    @Query("SELECT ab FROM AuctionBid ab WHERE ab.image.id = :imageId AND ab.bidder.id != :bidderId")
-    List<AuctionBid> findByImageIdAndBidderIdNot(@Param("imageId") UUID imageId, @Param("bidderId") UUID bidderId);
+    // Ended auctions settled before the cutoff whose losing bids are still in the hot table
+    @Query("SELECT DISTINCT ab.image.id FROM AuctionBid ab WHERE ab.image.auctionClosedAt < :before AND ab.isWinningBid = false")
+    List<UUID> findAuctionsToArchive(@Param("before") LocalDateTime before, Pageable pageable);
+
+    // Scalar rows (id, bidderId, bidAmount, maxBidAmount, bidTime, isWinningBid, isActive) in bid order
+    @Query("SELECT ab.id, ab.bidder.id, ab.bidAmount, ab.maxBidAmount, ab.bidTime, ab.isWinningBid, ab.isActive " +
+           "FROM AuctionBid ab WHERE ab.image.id = :imageId ORDER BY ab.bidTime, ab.id")
+    List<Object[]> findBidRowsForImage(@Param("imageId") UUID imageId);
+
+    // The winning bid stays, settlement and the winner's bid list refer to it
+    @Modifying
+    @Query("DELETE FROM AuctionBid ab WHERE ab.image.id = :imageId AND ab.isWinningBid = false")
+    int deleteLosingBidsForImage(@Param("imageId") UUID imageId);
+
+    // One row per bidder, however many bids they placed
+    @Query("SELECT DISTINCT ab.bidder FROM AuctionBid ab WHERE ab.image.id = :imageId AND ab.bidder.id != :bidderId")
+    List<User> findDistinctBiddersForImageExcept(@Param("imageId") UUID imageId, @Param("bidderId") UUID bidderId);
 }
@@ -0,0 +1,32 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID> {
+
+    // 1 if the key is new or had expired. A concurrent claim of the same key waits on the
+    // unique index until the first transaction ends, then sees its row or takes the key
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (id, request_hash, resource_id, expires_at) " +
+                   "VALUES (:id, :requestHash, NULL, :expiresAt) " +
+                   "ON CONFLICT (id) DO UPDATE SET request_hash = EXCLUDED.request_hash, resource_id = NULL, " +
+                   "expires_at = EXCLUDED.expires_at WHERE idempotency_keys.expires_at < :now",
+           nativeQuery = true)
+    int claim(@Param("id") UUID id, @Param("requestHash") int requestHash,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("update IdempotencyKey k set k.resourceId = :resourceId where k.id = :id")
+    int complete(@Param("id") UUID id, @Param("resourceId") UUID resourceId);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,26 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.ImageNeighbours;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface ImageNeighboursRepository extends JpaRepository<ImageNeighbours, UUID> {
+
+    // Scalar rows (imageId, neighbours) for loading the lists into memory
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select n.imageId, n.neighbours from ImageNeighbours n")
+    Stream<Object[]> streamAll();
+
+    @Modifying
+    @Query("delete from ImageNeighbours n where n.updatedAt < :before")
+    int deleteUpdatedBefore(@Param("before") LocalDateTime before);
+}
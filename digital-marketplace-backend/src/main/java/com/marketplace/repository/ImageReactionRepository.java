@@ -4,13 +4,24 @@ import com.marketplace.model.entity.Image;
 import com.marketplace.model.entity.ImageReaction;
 import com.marketplace.model.entity.User;
 import com.marketplace.model.enums.ReactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ImageReactionRepository extends JpaRepository<ImageReaction, UUID> {
     Optional<ImageReaction> findByUserAndImage(User user, Image image);
 
     long countByImageAndReactionType(Image image, ReactionType reactionType);
+
+    // Scalar rows (id, userId, imageId) of likes for the recommendation job
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.id, r.user.id, r.image.id from ImageReaction r where r.reactionType = com.marketplace.model.enums.ReactionType.LIKE and r.id > :afterId order by r.id")
+    Stream<Object[]> streamLikesAfter(@Param("afterId") Long afterId);
 }
@@ -1,15 +1,25 @@
 package com.marketplace.repository;
 
+import com.marketplace.model.dto.response.AuctionListingResponse;
+import com.marketplace.model.dto.response.CatalogExportItem;
 import com.marketplace.model.entity.Image;
+import com.marketplace.model.entity.User;
 import com.marketplace.model.enums.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ImageRepository extends JpaRepository<Image, UUID>, JpaSpecificationExecutor<Image> {
     boolean existsByFileHash(String fileHash);
@@ -43,4 +53,75 @@ public interface ImageRepository extends JpaRepository<Image, UUID>, JpaSpecific
     Page<Image> findByIsFeaturedTrueAndIsAvailableTrue(Pageable pageable);
 
     Page<Image> findByUploaderIdAndIsAvailableTrueAndIsMatureContentFalse(UUID userId, Pageable pageable);
-}
+
+    // Scalar rows (id, title, tags, categoryId) for building the suggestion index
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i.id, i.title, i.tags, c.id from Image i left join i.category c where i.isAvailable = true and i.isMatureContent = false")
+    Stream<Object[]> streamSuggestionSources();
+
+    // Scalar rows (id, embedding) for building the similarity index
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i.id, i.visualEmbedding from Image i where i.isAvailable = true and i.isMatureContent = false and i.visualEmbedding is not null")
+    Stream<Object[]> streamVisualEmbeddings();
+
+    // Forward-only cursor over the public catalog, rows are DTOs so nothing piles up in the persistence context
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.marketplace.model.dto.response.CatalogExportItem(" +
+           "i.id, i.title, i.description, i.thumbnailUrl, i.previewUrl, i.dimensions, i.fileFormat, i.tags, " +
+           "i.colorPalette, i.price, i.currency, i.saleType, i.licenseType, i.auctionEndTime, i.currentBid, " +
+           "c.id, c.name, u.id, u.firstName, u.lastName, i.createdAt, i.updatedAt) " +
+           "from Image i join i.uploader u left join i.category c " +
+           "where i.isAvailable = true and i.isMatureContent = false order by i.id")
+    Stream<CatalogExportItem> streamCatalogExport();
+
+    List<Image> findTop500ByIdGreaterThanOrderByIdAsc(UUID id);
+
+    // Row lock until commit, so concurrent closers wait and then see the auction as claimed
+    @Modifying
+    @Query("update Image i set i.auctionClosedAt = :closedAt where i.id = :imageId and i.auctionClosedAt is null")
+    int claimAuctionClose(@Param("imageId") UUID imageId, @Param("closedAt") LocalDateTime closedAt);
+
+    // Purchase hold, taken when free, expired or already the buyer's; concurrent buyers wait on the row lock
+    @Modifying
+    @Query("update Image i set i.reservedBy = :buyerId, i.reservedUntil = :until " +
+           "where i.id = :imageId and i.isAvailable = true " +
+           "and (i.reservedUntil is null or i.reservedUntil < :now or i.reservedBy = :buyerId)")
+    int reserveForPurchase(@Param("imageId") UUID imageId, @Param("buyerId") UUID buyerId,
+                           @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update Image i set i.reservedBy = null, i.reservedUntil = null " +
+           "where i.id = :imageId and i.reservedBy = :buyerId")
+    int releaseReservation(@Param("imageId") UUID imageId, @Param("buyerId") UUID buyerId);
+
+    // Conditional, so a purchase completing after the image changed hands transfers nothing
+    @Modifying
+    @Query("update Image i set i.currentOwner = :buyer where i.id = :imageId and i.currentOwner = :seller")
+    int transferOwnership(@Param("imageId") UUID imageId, @Param("seller") User seller, @Param("buyer") User buyer);
+
+    // Running auctions ending in (now, until], a range scan on idx_image_auction_end
+    @Query(value = "select new com.marketplace.model.dto.response.AuctionListingResponse(" +
+                   "i.id, i.title, i.thumbnailUrl, i.currency, i.startingBid, i.currentBid, i.buyNowPrice, i.bidCount, " +
+                   "i.auctionStartTime, i.auctionEndTime, u.id, u.firstName, u.lastName) " +
+                   "from Image i join i.currentOwner u " +
+                   "where i.saleType = com.marketplace.model.enums.SaleType.AUCTION and i.isAvailable = true " +
+                   "and i.auctionEndTime > :now and i.auctionEndTime <= :until " +
+                   "and i.auctionStartTime <= :now and i.isMatureContent = false " +
+                   "order by i.auctionEndTime asc",
+           countQuery = "select count(i) from Image i " +
+                        "where i.saleType = com.marketplace.model.enums.SaleType.AUCTION and i.isAvailable = true " +
+                        "and i.auctionEndTime > :now and i.auctionEndTime <= :until " +
+                        "and i.auctionStartTime <= :now and i.isMatureContent = false")
+    Page<AuctionListingResponse> findAuctionListings(@Param("now") LocalDateTime now,
+                                                     @Param("until") LocalDateTime until,
+                                                     Pageable pageable);
+
+    // Scalar rows (id, endTime) of auctions still waiting to be settled
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i.id, i.auctionEndTime from Image i where i.saleType = com.marketplace.model.enums.SaleType.AUCTION " +
+           "and i.isAvailable = true and i.auctionClosedAt is null and i.auctionEndTime is not null")
+    Stream<Object[]> streamOpenAuctionEndTimes();
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.ImageView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.stream.Stream;
+
+public interface ImageViewRepository extends JpaRepository<ImageView, Long> {
+
+    // Scalar rows (id, userId, imageId) for the recommendation job
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select v.id, v.userId, v.imageId from ImageView v where v.id > :afterId order by v.id")
+    Stream<Object[]> streamViewsAfter(@Param("afterId") Long afterId);
+}
@@ -0,0 +1,52 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.OutboxEvent;
+import com.marketplace.model.enums.OutboxEventStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    @Query("select e.id from OutboxEvent e where e.status = com.marketplace.model.enums.OutboxEventStatus.PENDING " +
+           "and e.nextAttemptAt <= :now order by e.createdAt")
+    List<UUID> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Takes the event for processing until the lease runs out; 0 if another worker or node took it first
+    @Modifying
+    @Query("update OutboxEvent e set e.nextAttemptAt = :leaseUntil " +
+           "where e.id = :id and e.status = com.marketplace.model.enums.OutboxEventStatus.PENDING " +
+           "and e.nextAttemptAt <= :now")
+    int lease(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // 0 if another attempt already did the step; the row lock makes a concurrent attempt wait for the outcome
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET completed_steps = completed_steps | :step " +
+                   "WHERE id = :id AND (completed_steps & :step) = 0",
+           nativeQuery = true)
+    int claimStep(@Param("id") UUID id, @Param("step") int step);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = com.marketplace.model.enums.OutboxEventStatus.DONE, " +
+           "e.processedAt = :now, e.attempts = e.attempts + 1, e.lastError = null where e.id = :id")
+    int markDone(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.attempts = e.attempts + 1, " +
+           "e.nextAttemptAt = :nextAttemptAt, e.lastError = :error where e.id = :id")
+    int markAttemptFailed(@Param("id") UUID id, @Param("status") OutboxEventStatus status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    long countByStatus(OutboxEventStatus status);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = com.marketplace.model.enums.OutboxEventStatus.DONE " +
+           "and e.processedAt < :before")
+    int deleteDoneBefore(@Param("before") LocalDateTime before);
+}
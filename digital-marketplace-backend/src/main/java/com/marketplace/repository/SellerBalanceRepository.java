@@ -0,0 +1,26 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.SellerBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface SellerBalanceRepository extends JpaRepository<SellerBalance, UUID> {
+
+    // Atomic increment, never touching the users row. A seller's first balance starts from
+    // the totals kept on users before the ledger existed
+    @Modifying
+    @Query(value = "INSERT INTO seller_balances (seller_id, total_sales, total_earnings, updated_at) " +
+                   "SELECT u.id, COALESCE(u.total_sales, 0) + :sales, COALESCE(u.total_earnings, 0) + :earnings, :now " +
+                   "FROM users u WHERE u.id = :sellerId " +
+                   "ON CONFLICT (seller_id) DO UPDATE SET total_sales = seller_balances.total_sales + :sales, " +
+                   "total_earnings = seller_balances.total_earnings + :earnings, updated_at = :now",
+           nativeQuery = true)
+    int add(@Param("sellerId") UUID sellerId, @Param("sales") BigDecimal sales,
+            @Param("earnings") BigDecimal earnings, @Param("now") LocalDateTime now);
+}
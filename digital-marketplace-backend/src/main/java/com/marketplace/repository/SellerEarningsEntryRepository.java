@@ -0,0 +1,24 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.SellerEarningsEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface SellerEarningsEntryRepository extends JpaRepository<SellerEarningsEntry, UUID> {
+
+    // 0 if the transaction's sale is already in the ledger
+    @Modifying
+    @Query(value = "INSERT INTO seller_earnings_entries (id, seller_id, transaction_id, gross_amount, commission, net_amount, created_at) " +
+                   "VALUES (:id, :sellerId, :transactionId, :grossAmount, :commission, :netAmount, :createdAt) " +
+                   "ON CONFLICT (transaction_id) DO NOTHING",
+           nativeQuery = true)
+    int append(@Param("id") UUID id, @Param("sellerId") UUID sellerId, @Param("transactionId") UUID transactionId,
+               @Param("grossAmount") BigDecimal grossAmount, @Param("commission") BigDecimal commission,
+               @Param("netAmount") BigDecimal netAmount, @Param("createdAt") LocalDateTime createdAt);
+}
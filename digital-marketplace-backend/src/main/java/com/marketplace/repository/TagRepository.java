@@ -0,0 +1,30 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.Tag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TagRepository extends JpaRepository<Tag, Long> {
+    Optional<Tag> findByName(String name);
+
+    List<Tag> findByNameIn(Collection<String> names);
+
+    List<Tag> findByImageCountGreaterThanOrderByImageCountDesc(int minCount, Pageable pageable);
+
+    // Concurrent uploads may introduce the same tag, so creation must not fail on the unique name
+    @Modifying
+    @Query(value = "INSERT INTO tags (name, display_name, image_count, created_at) VALUES (:name, :displayName, 0, now()) ON CONFLICT (name) DO NOTHING",
+           nativeQuery = true)
+    void insertIfAbsent(@Param("name") String name, @Param("displayName") String displayName);
+
+    @Modifying
+    @Query("UPDATE Tag t SET t.imageCount = t.imageCount + :delta WHERE t.id IN :ids")
+    void adjustImageCount(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
+}
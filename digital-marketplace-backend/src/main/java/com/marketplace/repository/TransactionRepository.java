@@ -6,11 +6,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
     Optional<Transaction> findByPaymentIntentId(String paymentIntentId);
@@ -64,4 +69,9 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
 
     @Query("SELECT t FROM Transaction t WHERE t.createdAt BETWEEN :fromDate AND :toDate")
     Page<Transaction> findByDateRange(LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable);
+
+    // Scalar rows (buyerId, imageId, completedAt) for the recommendation job
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select t.buyer.id, t.image.id, t.completedAt from Transaction t where t.paymentStatus = com.marketplace.model.enums.PaymentStatus.COMPLETED and t.completedAt >= :since order by t.completedAt")
+    Stream<Object[]> streamCompletedPurchasesSince(@Param("since") LocalDateTime since);
 }
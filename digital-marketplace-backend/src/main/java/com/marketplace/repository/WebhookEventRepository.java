@@ -0,0 +1,59 @@
+package com.marketplace.repository;
+
+import com.marketplace.model.entity.WebhookEvent;
+import com.marketplace.model.enums.WebhookEventStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, String> {
+
+    // Redeliveries of an event we already have are dropped, returns 0 for them
+    @Modifying
+    @Query(value = "INSERT INTO webhook_events (id, type, payment_intent_id, payload, status, attempts, " +
+                   "next_attempt_at, event_created_at, received_at) " +
+                   "VALUES (:id, :type, :paymentIntentId, :payload, 'PENDING', 0, :now, :createdAt, :now) " +
+                   "ON CONFLICT (id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("type") String type,
+                       @Param("paymentIntentId") String paymentIntentId, @Param("payload") String payload,
+                       @Param("createdAt") LocalDateTime createdAt, @Param("now") LocalDateTime now);
+
+    // Due events that are the oldest pending one of their payment intent, so each intent is processed in order
+    @Query(value = "SELECT e.id FROM webhook_events e WHERE e.status = 'PENDING' AND e.next_attempt_at <= :now " +
+                   "AND NOT EXISTS (SELECT 1 FROM webhook_events p WHERE p.payment_intent_id = e.payment_intent_id " +
+                   "AND p.status = 'PENDING' AND (p.event_created_at < e.event_created_at " +
+                   "OR (p.event_created_at = e.event_created_at AND p.received_at < e.received_at))) " +
+                   "ORDER BY e.event_created_at LIMIT :limit",
+           nativeQuery = true)
+    List<String> findDueHeads(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Takes the event for processing until the lease runs out; 0 if another worker or node took it first
+    @Modifying
+    @Query("update WebhookEvent e set e.nextAttemptAt = :leaseUntil " +
+           "where e.id = :id and e.status = com.marketplace.model.enums.WebhookEventStatus.PENDING " +
+           "and e.nextAttemptAt <= :now")
+    int lease(@Param("id") String id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("update WebhookEvent e set e.status = com.marketplace.model.enums.WebhookEventStatus.PROCESSED, " +
+           "e.processedAt = :now, e.attempts = e.attempts + 1, e.lastError = null where e.id = :id")
+    int markProcessed(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update WebhookEvent e set e.status = :status, e.attempts = e.attempts + 1, " +
+           "e.nextAttemptAt = :nextAttemptAt, e.lastError = :error where e.id = :id")
+    int markAttemptFailed(@Param("id") String id, @Param("status") WebhookEventStatus status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    long countByStatus(WebhookEventStatus status);
+
+    @Modifying
+    @Query("delete from WebhookEvent e where e.status = com.marketplace.model.enums.WebhookEventStatus.PROCESSED " +
+           "and e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,619 @@
+package com.marketplace.search;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Approximate nearest-neighbour index (HNSW) over unit vectors, ranked by cosine similarity.
+ *
+ * Vectors and the dense bottom layer of the graph live off-heap in a memory-mapped
+ * file made of fixed-size slots, so a catalog of millions of images costs the heap only
+ * its id map and the sparse upper layers. The upper layers are written to a side file
+ * on {@link #close()}; if that file is missing on open (crash, first start) the index
+ * comes up empty and {@link #isRestored()} tells the caller to rebuild it.
+ *
+ * Removed entries are tombstoned and keep routing searches until the next rebuild.
+ * Not thread-safe for writers, callers have to guard it.
+ */
+public class HnswIndex implements Closeable {
+
+    private static final int MAGIC = 0x484E5357;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int SEGMENT_SHIFT = 16;
+    private static final int SEGMENT_SLOTS = 1 << SEGMENT_SHIFT;
+    private static final int MAX_LEVEL = 16;
+
+    // Header fields
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_DIMENSIONS = 8;
+    private static final int H_MAX_CONNECTIONS = 12;
+    private static final int H_COUNT = 16;
+    private static final int H_DELETED = 20;
+    private static final int H_ENTRY_POINT = 24;
+    private static final int H_MAX_LEVEL = 28;
+
+    // Slot layout: id (16) | flags (4) | neighbour count (4) | neighbours | vector
+    private static final int S_ID = 0;
+    private static final int S_FLAGS = 16;
+    private static final int S_NEIGHBOUR_COUNT = 20;
+    private static final int S_NEIGHBOURS = 24;
+    private static final int FLAG_DELETED = 1;
+
+    private static final Comparator<Candidate> NEAREST_FIRST = Comparator.comparingDouble(c -> c.distance);
+    private static final Comparator<Candidate> FARTHEST_FIRST = NEAREST_FIRST.reversed();
+
+    private final Path graphFile;
+    private final int dimensions;
+    private final int maxConnections;
+    private final int maxConnectionsLevel0;
+    private final int efConstruction;
+    private final int slotSize;
+    private final int vectorOffset;
+    private final double levelMultiplier;
+    private final Random random = new Random();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    private final Map<UUID, Integer> nodes = new HashMap<>();
+    private final Map<Integer, int[][]> upperLayers = new HashMap<>();
+
+    private int count;
+    private int deleted;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private boolean restored;
+
+    public HnswIndex(Path file, int dimensions, int maxConnections, int efConstruction) throws IOException {
+        if (dimensions <= 0 || maxConnections <= 1 || efConstruction <= 0) {
+            throw new IllegalArgumentException("Invalid index parameters");
+        }
+        this.graphFile = file.resolveSibling(file.getFileName() + ".graph");
+        this.dimensions = dimensions;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsLevel0 = maxConnections * 2;
+        this.efConstruction = efConstruction;
+        this.vectorOffset = S_NEIGHBOURS + maxConnectionsLevel0 * Integer.BYTES;
+        this.slotSize = vectorOffset + dimensions * Float.BYTES;
+        this.levelMultiplier = 1.0 / Math.log(maxConnections);
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        this.header.order(ByteOrder.LITTLE_ENDIAN);
+
+        this.restored = restore();
+        if (!restored) {
+            clear();
+        }
+        // The side file only describes the graph as it was at close time
+        Files.deleteIfExists(graphFile);
+    }
+
+    /**
+     * Insert a vector, replacing any previous vector stored under the same id
+     */
+    public void add(UUID id, float[] vector) throws IOException {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + vector.length);
+        }
+        float[] query = VisualEmbedding.normalize(vector.clone());
+
+        Integer previous = nodes.remove(id);
+        if (previous != null) {
+            markDeleted(previous);
+        }
+
+        int node = count;
+        int level = randomLevel();
+        MappedByteBuffer segment = segment(node, true);
+        int base = offset(node);
+        segment.putLong(base + S_ID, id.getMostSignificantBits());
+        segment.putLong(base + S_ID + 8, id.getLeastSignificantBits());
+        segment.putInt(base + S_FLAGS, level << 1);
+        segment.putInt(base + S_NEIGHBOUR_COUNT, 0);
+        for (int i = 0; i < dimensions; i++) {
+            segment.putFloat(base + vectorOffset + i * Float.BYTES, query[i]);
+        }
+        if (level > 0) {
+            int[][] layers = new int[level][];
+            Arrays.fill(layers, new int[0]);
+            upperLayers.put(node, layers);
+        }
+
+        count++;
+        nodes.put(id, node);
+        connect(node, query, level);
+        writeHeader();
+    }
+
+    /**
+     * Tombstone a vector, returns false if the id was not indexed
+     */
+    public boolean remove(UUID id) {
+        Integer node = nodes.remove(id);
+        if (node == null) return false;
+
+        markDeleted(node);
+        writeHeader();
+        return true;
+    }
+
+    public boolean contains(UUID id) {
+        return nodes.containsKey(id);
+    }
+
+    /**
+     * Stored vector of an id, null if not indexed
+     */
+    public float[] vector(UUID id) {
+        Integer node = nodes.get(id);
+        return node != null ? readVector(node) : null;
+    }
+
+    /**
+     * Up to k live entries most similar to the query, most similar first
+     */
+    public List<Neighbour> search(float[] vector, int k, int ef) {
+        if (entryPoint < 0 || k <= 0) return Collections.emptyList();
+
+        float[] query = VisualEmbedding.normalize(vector.clone());
+        int ep = entryPoint;
+        for (int level = maxLevel; level > 0; level--) {
+            ep = greedySearch(ep, query, level);
+        }
+
+        // Widen the beam by the tombstones we expect to skip
+        int beam = Math.max(ef, k) + (count > 0 ? (int) ((long) Math.max(ef, k) * deleted / count) : 0);
+        List<Candidate> found = sorted(searchLayer(ep, query, beam, 0));
+
+        List<Neighbour> result = new ArrayList<>(k);
+        for (Candidate candidate : found) {
+            if (isDeleted(candidate.node)) continue;
+            result.add(new Neighbour(readId(candidate.node), 1 - candidate.distance));
+            if (result.size() == k) break;
+        }
+        return result;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public int deletedCount() {
+        return deleted;
+    }
+
+    /**
+     * Whether the graph was loaded from disk instead of starting empty
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    public void clear() {
+        count = 0;
+        deleted = 0;
+        entryPoint = -1;
+        maxLevel = -1;
+        nodes.clear();
+        upperLayers.clear();
+
+        header.putInt(H_MAGIC, MAGIC);
+        header.putInt(H_VERSION, VERSION);
+        header.putInt(H_DIMENSIONS, dimensions);
+        header.putInt(H_MAX_CONNECTIONS, maxConnections);
+        writeHeader();
+    }
+
+    @Override
+    public void close() throws IOException {
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        writeGraph();
+        channel.close();
+    }
+
+    // Graph construction
+
+    private void connect(int node, float[] query, int level) {
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedySearch(ep, query, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> found = sorted(searchLayer(ep, query, efConstruction, l));
+            int max = l == 0 ? maxConnectionsLevel0 : maxConnections;
+
+            int[] selected = selectNeighbours(found, max);
+            setNeighbours(node, l, selected);
+            for (int neighbour : selected) {
+                link(neighbour, node, l, max);
+            }
+            ep = found.get(0).node;
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    private void link(int node, int neighbour, int level, int max) {
+        int[] current = neighbours(node, level);
+        if (current.length < max) {
+            int[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = neighbour;
+            setNeighbours(node, level, grown);
+            return;
+        }
+
+        // Full, keep the best spread of the old neighbours plus the new one
+        float[] vector = readVector(node);
+        List<Candidate> candidates = new ArrayList<>(current.length + 1);
+        for (int n : current) {
+            candidates.add(new Candidate(n, distance(n, vector)));
+        }
+        candidates.add(new Candidate(neighbour, distance(neighbour, vector)));
+        candidates.sort(NEAREST_FIRST);
+        setNeighbours(node, level, selectNeighbours(candidates, max));
+    }
+
+    /**
+     * Neighbour selection heuristic: prefer candidates that are closer to the base
+     * than to any already selected neighbour, then fill up with the nearest rest
+     */
+    private int[] selectNeighbours(List<Candidate> candidates, int max) {
+        if (candidates.size() <= max) {
+            return candidates.stream().mapToInt(c -> c.node).toArray();
+        }
+
+        List<Candidate> selected = new ArrayList<>(max);
+        List<float[]> selectedVectors = new ArrayList<>(max);
+        List<Candidate> pruned = new ArrayList<>();
+
+        for (Candidate candidate : candidates) {
+            if (selected.size() == max) break;
+            float[] vector = readVector(candidate.node);
+
+            boolean diverse = true;
+            for (float[] other : selectedVectors) {
+                if (1 - dot(vector, other) < candidate.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+                selectedVectors.add(vector);
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected.stream().mapToInt(c -> c.node).toArray();
+    }
+
+    // Graph search
+
+    private int greedySearch(int ep, float[] query, int level) {
+        int current = ep;
+        float best = distance(current, query);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int neighbour : neighbours(current, level)) {
+                float d = distance(neighbour, query);
+                if (d < best) {
+                    best = d;
+                    current = neighbour;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private PriorityQueue<Candidate> searchLayer(int ep, float[] query, int ef, int level) {
+        IntSet visited = new IntSet();
+        visited.add(ep);
+
+        Candidate start = new Candidate(ep, distance(ep, query));
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(FARTHEST_FIRST);
+        candidates.add(start);
+        results.add(start);
+
+        while (!candidates.isEmpty()) {
+            Candidate current = candidates.poll();
+            if (results.size() >= ef && current.distance > results.peek().distance) break;
+
+            for (int neighbour : neighbours(current.node, level)) {
+                if (!visited.add(neighbour)) continue;
+
+                float d = distance(neighbour, query);
+                if (results.size() < ef || d < results.peek().distance) {
+                    Candidate next = new Candidate(neighbour, d);
+                    candidates.add(next);
+                    results.add(next);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    // Slot access
+
+    private MappedByteBuffer segment(int node, boolean grow) throws IOException {
+        int index = node >>> SEGMENT_SHIFT;
+        while (grow && segments.size() <= index) {
+            long position = HEADER_SIZE + (long) segments.size() * SEGMENT_SLOTS * slotSize;
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) SEGMENT_SLOTS * slotSize);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            segments.add(segment);
+        }
+        return segments.get(index);
+    }
+
+    private MappedByteBuffer segment(int node) {
+        return segments.get(node >>> SEGMENT_SHIFT);
+    }
+
+    private int offset(int node) {
+        return (node & (SEGMENT_SLOTS - 1)) * slotSize;
+    }
+
+    private UUID readId(int node) {
+        MappedByteBuffer segment = segment(node);
+        int base = offset(node);
+        return new UUID(segment.getLong(base + S_ID), segment.getLong(base + S_ID + 8));
+    }
+
+    private boolean isDeleted(int node) {
+        return (segment(node).getInt(offset(node) + S_FLAGS) & FLAG_DELETED) != 0;
+    }
+
+    private int levelOf(int node) {
+        return segment(node).getInt(offset(node) + S_FLAGS) >>> 1;
+    }
+
+    private void markDeleted(int node) {
+        MappedByteBuffer segment = segment(node);
+        int at = offset(node) + S_FLAGS;
+        segment.putInt(at, segment.getInt(at) | FLAG_DELETED);
+        deleted++;
+    }
+
+    private float[] readVector(int node) {
+        MappedByteBuffer segment = segment(node);
+        int base = offset(node) + vectorOffset;
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = segment.getFloat(base + i * Float.BYTES);
+        }
+        return vector;
+    }
+
+    private float distance(int node, float[] query) {
+        MappedByteBuffer segment = segment(node);
+        int base = offset(node) + vectorOffset;
+        float dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += segment.getFloat(base + i * Float.BYTES) * query[i];
+        }
+        return 1 - dot;
+    }
+
+    private int[] neighbours(int node, int level) {
+        if (level > 0) {
+            return upperLayers.get(node)[level - 1];
+        }
+        MappedByteBuffer segment = segment(node);
+        int base = offset(node);
+        int[] neighbours = new int[segment.getInt(base + S_NEIGHBOUR_COUNT)];
+        for (int i = 0; i < neighbours.length; i++) {
+            neighbours[i] = segment.getInt(base + S_NEIGHBOURS + i * Integer.BYTES);
+        }
+        return neighbours;
+    }
+
+    private void setNeighbours(int node, int level, int[] neighbours) {
+        if (level > 0) {
+            upperLayers.get(node)[level - 1] = neighbours;
+            return;
+        }
+        MappedByteBuffer segment = segment(node);
+        int base = offset(node);
+        segment.putInt(base + S_NEIGHBOUR_COUNT, neighbours.length);
+        for (int i = 0; i < neighbours.length; i++) {
+            segment.putInt(base + S_NEIGHBOURS + i * Integer.BYTES, neighbours[i]);
+        }
+    }
+
+    private int randomLevel() {
+        double level = -Math.log(1 - random.nextDouble()) * levelMultiplier;
+        return (int) Math.min(level, MAX_LEVEL);
+    }
+
+    // Persistence
+
+    private void writeHeader() {
+        header.putInt(H_COUNT, count);
+        header.putInt(H_DELETED, deleted);
+        header.putInt(H_ENTRY_POINT, entryPoint);
+        header.putInt(H_MAX_LEVEL, maxLevel);
+    }
+
+    private void writeGraph() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(graphFile)))) {
+            out.writeInt(count);
+            out.writeInt(upperLayers.size());
+            for (Map.Entry<Integer, int[][]> entry : upperLayers.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                for (int[] neighbours : entry.getValue()) {
+                    out.writeInt(neighbours.length);
+                    for (int neighbour : neighbours) {
+                        out.writeInt(neighbour);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean restore() throws IOException {
+        if (header.getInt(H_MAGIC) != MAGIC
+                || header.getInt(H_VERSION) != VERSION
+                || header.getInt(H_DIMENSIONS) != dimensions
+                || header.getInt(H_MAX_CONNECTIONS) != maxConnections
+                || !Files.exists(graphFile)) {
+            return false;
+        }
+
+        int storedCount = header.getInt(H_COUNT);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(graphFile)))) {
+            if (in.readInt() != storedCount) return false;
+
+            int layered = in.readInt();
+            for (int i = 0; i < layered; i++) {
+                int node = in.readInt();
+                int[][] layers = new int[in.readInt()][];
+                for (int l = 0; l < layers.length; l++) {
+                    layers[l] = new int[in.readInt()];
+                    for (int n = 0; n < layers[l].length; n++) {
+                        layers[l][n] = in.readInt();
+                    }
+                }
+                upperLayers.put(node, layers);
+            }
+        } catch (EOFException e) {
+            upperLayers.clear();
+            return false;
+        }
+
+        count = storedCount;
+        deleted = header.getInt(H_DELETED);
+        entryPoint = header.getInt(H_ENTRY_POINT);
+        maxLevel = header.getInt(H_MAX_LEVEL);
+
+        if (count > 0) {
+            segment(count - 1, true);
+        }
+        for (int node = 0; node < count; node++) {
+            if (!isDeleted(node)) {
+                nodes.put(readId(node), node);
+            }
+            if (levelOf(node) > 0 && !upperLayers.containsKey(node)) {
+                upperLayers.clear();
+                nodes.clear();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Open-addressing set of node ids for one search
+     */
+    private static final class IntSet {
+        private int[] table = new int[256];
+        private int size;
+
+        IntSet() {
+            Arrays.fill(table, -1);
+        }
+
+        boolean add(int value) {
+            if (size * 2 >= table.length) {
+                rehash();
+            }
+            int mask = table.length - 1;
+            int i = mix(value) & mask;
+            while (table[i] != -1) {
+                if (table[i] == value) return false;
+                i = (i + 1) & mask;
+            }
+            table[i] = value;
+            size++;
+            return true;
+        }
+
+        private void rehash() {
+            int[] old = table;
+            table = new int[old.length * 2];
+            Arrays.fill(table, -1);
+            size = 0;
+            for (int value : old) {
+                if (value != -1) add(value);
+            }
+        }
+
+        private static int mix(int value) {
+            int h = value * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private static final class Candidate {
+        private final int node;
+        private final float distance;
+
+        private Candidate(int node, float distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    private static List<Candidate> sorted(PriorityQueue<Candidate> queue) {
+        List<Candidate> list = new ArrayList<>(queue);
+        list.sort(NEAREST_FIRST);
+        return list;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    public static final class Neighbour {
+        private final UUID id;
+        private final float similarity;
+
+        private Neighbour(UUID id, float similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        public UUID getId() { return id; }
+        public float getSimilarity() { return similarity; }
+    }
+}
@@ -0,0 +1,345 @@
+package com.marketplace.search;
+
+import com.marketplace.model.enums.SuggestionType;
+
+import java.util.*;
+
+/**
+ * Compact prefix trie for search-as-you-type completions.
+ *
+ * Children are stored in sorted char arrays instead of maps, and every node caches
+ * its best completions, so a lookup is a walk over the typed prefix plus a copy of
+ * at most {@code maxSuggestions} entries. Not thread-safe, callers have to guard it.
+ */
+public class SuggestionTrie {
+
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final int MAX_WORD_SUFFIXES = 4;
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Completion[] NO_COMPLETIONS = new Completion[0];
+
+    private static final Comparator<Completion> ORDER = Comparator
+            .comparingInt((Completion c) -> -c.weight)
+            .thenComparingInt(c -> c.text.length())
+            .thenComparing(c -> c.text);
+
+    private final int maxSuggestions;
+    private final Node root = new Node();
+    private final Map<String, Completion> completions = new HashMap<>();
+
+    public SuggestionTrie(int maxSuggestions) {
+        if (maxSuggestions <= 0) {
+            throw new IllegalArgumentException("maxSuggestions must be positive");
+        }
+        this.maxSuggestions = maxSuggestions;
+    }
+
+    /**
+     * Add delta to the weight of a completion, creating it on first use and
+     * dropping it once its weight reaches zero
+     */
+    public void adjust(String id, SuggestionType type, String text, int delta) {
+        Completion completion = completions.get(id);
+
+        if (completion == null) {
+            if (delta <= 0) return;
+            String[] keys = indexKeys(text);
+            if (keys.length == 0) return;
+
+            completion = new Completion(id, type, text.trim(), keys, delta);
+            completions.put(id, completion);
+            for (String key : keys) {
+                insert(key, completion);
+            }
+            return;
+        }
+
+        if (delta == 0) return;
+        completion.weight += delta;
+
+        if (completion.weight <= 0) {
+            remove(id);
+        } else if (delta > 0) {
+            for (String key : completion.keys) promote(key, completion);
+        } else {
+            for (String key : completion.keys) demote(key, completion);
+        }
+    }
+
+    /**
+     * Change the display text of a completion while keeping its weight
+     */
+    public void rename(String id, String text) {
+        Completion completion = completions.get(id);
+        if (completion == null || completion.text.equals(text.trim())) return;
+
+        remove(id);
+        adjust(id, completion.type, text, completion.weight);
+    }
+
+    public void remove(String id) {
+        Completion completion = completions.remove(id);
+        if (completion == null) return;
+
+        for (String key : completion.keys) {
+            delete(key, completion);
+        }
+    }
+
+    /**
+     * Best completions for the given prefix, ordered by weight
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        String key = SearchText.normalize(prefix);
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) return Collections.emptyList();
+
+        Completion[] top = node.top;
+        return List.of(Arrays.copyOf(top, Math.min(limit, top.length)));
+    }
+
+    public int size() {
+        return completions.size();
+    }
+
+    public void clear() {
+        completions.clear();
+        root.labels = NO_LABELS;
+        root.children = NO_CHILDREN;
+        root.terminals = NO_COMPLETIONS;
+        root.top = NO_COMPLETIONS;
+    }
+
+    // Private helper methods
+
+    /**
+     * The full text plus the suffixes starting at the next few words, so that
+     * "Sunset over Berlin" is also found when typing "berl"
+     */
+    private String[] indexKeys(String text) {
+        String normalized = SearchText.normalize(text);
+        if (normalized.isEmpty()) return new String[0];
+
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(truncate(normalized));
+
+        int from = 0;
+        for (int i = 0; i < MAX_WORD_SUFFIXES; i++) {
+            int space = normalized.indexOf(' ', from);
+            if (space < 0 || space == normalized.length() - 1) break;
+            keys.add(truncate(normalized.substring(space + 1)));
+            from = space + 1;
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    private String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private void insert(String key, Completion completion) {
+        Node node = root;
+        promote(node, completion);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.getOrCreateChild(key.charAt(i));
+            promote(node, completion);
+        }
+        node.terminals = append(node.terminals, completion);
+    }
+
+    private void delete(String key, Completion completion) {
+        Node[] path = path(key);
+        if (path == null) return;
+
+        Node last = path[key.length()];
+        last.terminals = without(last.terminals, completion);
+
+        for (int i = key.length(); i >= 0; i--) {
+            Node node = path[i];
+            if (i > 0 && node.isEmpty()) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+                continue;
+            }
+            // A completion missing from a node's top list cannot be in any ancestor's
+            if (indexOf(node.top, completion) < 0) break;
+            refresh(node);
+        }
+    }
+
+    private void promote(String key, Completion completion) {
+        Node[] path = path(key);
+        if (path == null) return;
+        for (Node node : path) {
+            promote(node, completion);
+        }
+    }
+
+    private void demote(String key, Completion completion) {
+        Node[] path = path(key);
+        if (path == null) return;
+        for (int i = path.length - 1; i >= 0; i--) {
+            if (indexOf(path[i].top, completion) < 0) break;
+            refresh(path[i]);
+        }
+    }
+
+    /**
+     * Merge a completion whose weight only went up into a node's top list
+     */
+    private void promote(Node node, Completion completion) {
+        Completion[] top = node.top;
+        if (indexOf(top, completion) >= 0) {
+            top = top.clone();
+        } else if (top.length < maxSuggestions) {
+            top = Arrays.copyOf(top, top.length + 1);
+            top[top.length - 1] = completion;
+        } else if (ORDER.compare(completion, top[top.length - 1]) < 0) {
+            top = top.clone();
+            top[top.length - 1] = completion;
+        } else {
+            return;
+        }
+        Arrays.sort(top, ORDER);
+        node.top = top;
+    }
+
+    /**
+     * Recompute a node's top list from its own terminals and its children's top lists
+     */
+    private void refresh(Node node) {
+        List<Completion> candidates = new ArrayList<>();
+        for (Completion completion : node.terminals) {
+            addDistinct(candidates, completion);
+        }
+        for (Node child : node.children) {
+            for (Completion completion : child.top) {
+                addDistinct(candidates, completion);
+            }
+        }
+        candidates.sort(ORDER);
+        node.top = candidates.subList(0, Math.min(maxSuggestions, candidates.size()))
+                .toArray(NO_COMPLETIONS);
+    }
+
+    private Node[] path(String key) {
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            if (node == null) return null;
+            path[i + 1] = node;
+        }
+        return path;
+    }
+
+    private static void addDistinct(List<Completion> candidates, Completion completion) {
+        for (Completion existing : candidates) {
+            if (existing == completion) return;
+        }
+        candidates.add(completion);
+    }
+
+    private static int indexOf(Completion[] completions, Completion completion) {
+        for (int i = 0; i < completions.length; i++) {
+            if (completions[i] == completion) return i;
+        }
+        return -1;
+    }
+
+    private static Completion[] append(Completion[] completions, Completion completion) {
+        if (indexOf(completions, completion) >= 0) return completions;
+        Completion[] result = Arrays.copyOf(completions, completions.length + 1);
+        result[completions.length] = completion;
+        return result;
+    }
+
+    private static Completion[] without(Completion[] completions, Completion completion) {
+        int index = indexOf(completions, completion);
+        if (index < 0) return completions;
+        Completion[] result = new Completion[completions.length - 1];
+        System.arraycopy(completions, 0, result, 0, index);
+        System.arraycopy(completions, index + 1, result, index, completions.length - index - 1);
+        return result;
+    }
+
+    private static final class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private Completion[] terminals = NO_COMPLETIONS;
+        private Completion[] top = NO_COMPLETIONS;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node getOrCreateChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) return children[index];
+
+            int at = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+
+            Node child = new Node();
+            newLabels[at] = label;
+            newChildren[at] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) return;
+
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return terminals.length == 0 && labels.length == 0;
+        }
+    }
+
+    public static final class Completion {
+        private final String id;
+        private final SuggestionType type;
+        private final String text;
+        private final String[] keys;
+        private int weight;
+
+        private Completion(String id, SuggestionType type, String text, String[] keys, int weight) {
+            this.id = id;
+            this.type = type;
+            this.text = text;
+            this.keys = keys;
+            this.weight = weight;
+        }
+
+        public String getId() { return id; }
+        public SuggestionType getType() { return type; }
+        public String getText() { return text; }
+        public int getWeight() { return weight; }
+    }
+}
@@ -0,0 +1,145 @@
+package com.marketplace.search;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Compact visual descriptor used for "more like this" search.
+ *
+ * The image is scaled down to a small sample and described by a coarse RGB color
+ * histogram, a histogram of edge orientations and the spatial distribution of edge
+ * strength. The vector is L2-normalized, so the dot product of two embeddings is
+ * their cosine similarity. Cheap enough to compute on the upload path without a GPU.
+ */
+public final class VisualEmbedding {
+
+    private static final int SAMPLE_SIZE = 64;
+    private static final int COLOR_LEVELS = 4;
+    private static final int COLOR_BINS = COLOR_LEVELS * COLOR_LEVELS * COLOR_LEVELS;
+    private static final int ORIENTATION_BINS = 8;
+    private static final int GRID = 4;
+
+    private static final float COLOR_WEIGHT = 1.0f;
+    private static final float ORIENTATION_WEIGHT = 0.6f;
+    private static final float LAYOUT_WEIGHT = 0.4f;
+
+    public static final int DIMENSIONS = COLOR_BINS + ORIENTATION_BINS + GRID * GRID;
+
+    private VisualEmbedding() {}
+
+    public static float[] compute(BufferedImage source) {
+        BufferedImage sample = new BufferedImage(SAMPLE_SIZE, SAMPLE_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = sample.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, SAMPLE_SIZE, SAMPLE_SIZE, null);
+        } finally {
+            g.dispose();
+        }
+
+        float[] colors = new float[COLOR_BINS];
+        float[] gray = new float[SAMPLE_SIZE * SAMPLE_SIZE];
+
+        for (int y = 0; y < SAMPLE_SIZE; y++) {
+            for (int x = 0; x < SAMPLE_SIZE; x++) {
+                int rgb = sample.getRGB(x, y);
+                int r = (rgb >> 16) & 0xFF;
+                int gr = (rgb >> 8) & 0xFF;
+                int b = rgb & 0xFF;
+
+                int bin = (r * COLOR_LEVELS / 256) * COLOR_LEVELS * COLOR_LEVELS
+                        + (gr * COLOR_LEVELS / 256) * COLOR_LEVELS
+                        + (b * COLOR_LEVELS / 256);
+                colors[bin]++;
+                gray[y * SAMPLE_SIZE + x] = 0.299f * r + 0.587f * gr + 0.114f * b;
+            }
+        }
+
+        // Sobel gradients over the interior of the sample
+        float[] orientations = new float[ORIENTATION_BINS];
+        float[] layout = new float[GRID * GRID];
+
+        for (int y = 1; y < SAMPLE_SIZE - 1; y++) {
+            for (int x = 1; x < SAMPLE_SIZE - 1; x++) {
+                float gx = gray(gray, x + 1, y - 1) + 2 * gray(gray, x + 1, y) + gray(gray, x + 1, y + 1)
+                        - gray(gray, x - 1, y - 1) - 2 * gray(gray, x - 1, y) - gray(gray, x - 1, y + 1);
+                float gy = gray(gray, x - 1, y + 1) + 2 * gray(gray, x, y + 1) + gray(gray, x + 1, y + 1)
+                        - gray(gray, x - 1, y - 1) - 2 * gray(gray, x, y - 1) - gray(gray, x + 1, y - 1);
+
+                float magnitude = (float) Math.sqrt(gx * gx + gy * gy);
+                if (magnitude == 0) continue;
+
+                // Edge direction without sign, in [0, pi)
+                double angle = Math.atan2(gy, gx);
+                if (angle < 0) angle += Math.PI;
+                int bin = Math.min(ORIENTATION_BINS - 1, (int) (angle / Math.PI * ORIENTATION_BINS));
+
+                orientations[bin] += magnitude;
+                layout[(y * GRID / SAMPLE_SIZE) * GRID + (x * GRID / SAMPLE_SIZE)] += magnitude;
+            }
+        }
+
+        float[] embedding = new float[DIMENSIONS];
+        int offset = 0;
+        offset = appendHistogram(embedding, offset, colors, COLOR_WEIGHT);
+        offset = appendHistogram(embedding, offset, orientations, ORIENTATION_WEIGHT);
+        appendHistogram(embedding, offset, layout, LAYOUT_WEIGHT);
+
+        return normalize(embedding);
+    }
+
+    /**
+     * Scale a vector to unit length, returns the same array
+     */
+    public static float[] normalize(float[] vector) {
+        double sum = 0;
+        for (float v : vector) sum += v * v;
+        if (sum == 0) return vector;
+
+        float scale = (float) (1.0 / Math.sqrt(sum));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    public static byte[] toBytes(float[] embedding) {
+        ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float v : embedding) buffer.putFloat(v);
+        return buffer.array();
+    }
+
+    public static float[] fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != DIMENSIONS * Float.BYTES) return null;
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        float[] embedding = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            embedding[i] = buffer.getFloat();
+        }
+        return embedding;
+    }
+
+    // Private helper methods
+
+    private static float gray(float[] gray, int x, int y) {
+        return gray[y * SAMPLE_SIZE + x];
+    }
+
+    /**
+     * Histograms are compared by their square roots (Hellinger), which keeps a few
+     * dominant bins from swamping the rest
+     */
+    private static int appendHistogram(float[] target, int offset, float[] histogram, float weight) {
+        float total = 0;
+        for (float v : histogram) total += v;
+
+        for (int i = 0; i < histogram.length; i++) {
+            target[offset + i] = total > 0 ? weight * (float) Math.sqrt(histogram[i] / total) : 0;
+        }
+        return offset + histogram.length;
+    }
+}
@@ -72,13 +72,20 @@ public class SecurityConfig {
                     .requestMatchers("/api/auth/**").permitAll()
                     .requestMatchers("/api/webhooks/**").permitAll()
                     .requestMatchers("/api/health/**").permitAll()
+                    .requestMatchers("/internal/cluster/**").permitAll() // Checked against the cluster secret
                     .requestMatchers("/actuator/health").permitAll()
                     .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                     
                     // Public read-only endpoints
                     .requestMatchers(HttpMethod.GET, "/api/images").permitAll()
+                    // Before {imageId}, which would also match these
+                    .requestMatchers("/api/images/recommended").authenticated()
+                    .requestMatchers(HttpMethod.GET, "/api/images/export").authenticated()
                     .requestMatchers(HttpMethod.GET, "/api/images/{imageId}").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/images/{imageId}/similar").permitAll()
                     .requestMatchers(HttpMethod.POST, "/api/images/search").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/images/suggest").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/images/tags/popular").permitAll()
                     .requestMatchers(HttpMethod.GET, "/api/images/trending").permitAll()
                     .requestMatchers(HttpMethod.GET, "/api/images/featured").permitAll()
                     .requestMatchers(HttpMethod.GET, "/api/images/user/{userId}").permitAll()
@@ -88,6 +95,7 @@ public class SecurityConfig {
                     .requestMatchers(HttpMethod.GET, "/api/auctions/active").permitAll()
                     .requestMatchers(HttpMethod.GET, "/api/auctions/ending-soon").permitAll()
                     .requestMatchers(HttpMethod.GET, "/api/auctions/{imageId}/bids").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/auctions/{imageId}/stream").permitAll()
                     
                     // User endpoints - require authentication
                     .requestMatchers("/api/users/me").authenticated()
@@ -1,15 +1,20 @@
 package com.marketplace.service;
 
+import com.marketplace.auction.AuctionBidWriter;
 import com.marketplace.exception.ResourceNotFoundException;
 import com.marketplace.model.dto.request.AdminUserUpdateRequest;
 import com.marketplace.model.entity.User;
 import com.marketplace.repository.UserRepository;
 import com.marketplace.repository.ImageRepository;
 import com.marketplace.repository.TransactionRepository;
+import com.marketplace.util.BatchStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +25,8 @@ import java.util.*;
 @Service
 public class AdminService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminService.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -38,6 +45,17 @@ public class AdminService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private AuctionBidWriter auctionBidWriter;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EmailService emailService;
+
+    private long lastLoggedBatchRows = -1;
+
     public Map<String, Object> getDashboardData() {
         Map<String, Object> dashboardData = new HashMap<>();
 
@@ -193,4 +211,32 @@ public class AdminService {
         // This would typically query an audit log table
         return new PageImpl<>(new ArrayList<>(), pageable, 0);
     }
+
+    public Map<String, Object> getBatchStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (BatchStats batchStats : writerBatchStats()) {
+            stats.put(batchStats.getName(), batchStats.toMap());
+        }
+        return stats;
+    }
+
+    /**
+     * Log the achieved batch sizes once a minute while writers are busy
+     */
+    @Scheduled(fixedDelay = 60000)
+    public synchronized void logBatchStats() {
+        List<BatchStats> writers = writerBatchStats();
+        long rows = writers.stream().mapToLong(BatchStats::getRows).sum();
+        if (rows == lastLoggedBatchRows) return;
+
+        lastLoggedBatchRows = rows;
+        writers.forEach(batchStats -> logger.info("Write-behind {}", batchStats));
+    }
+
+    // Private helper methods
+
+    private List<BatchStats> writerBatchStats() {
+        return List.of(auctionBidWriter.getBatchStats(), notificationService.getBatchStats(),
+                emailService.getBatchStats());
+    }
 }
@@ -0,0 +1,238 @@
+package com.marketplace.service;
+
+import com.marketplace.auction.AuctionEngine;
+import com.marketplace.auction.TimingWheel;
+import com.marketplace.auction.cluster.AuctionPartitioner;
+import com.marketplace.auction.cluster.ClusterClient;
+import com.marketplace.exception.ResourceNotFoundException;
+import com.marketplace.repository.ImageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Ends auctions when their time is up.
+ *
+ * End times are loaded once at startup into a {@link TimingWheel} ticking every
+ * second, and new auctions are added as they are listed, so nothing polls the
+ * database. Auctions coming due are handed to a small pool of closer threads.
+ * Anti-sniping extensions and buy-now purchases are pushed by the engine as they
+ * happen, so a buy-now whose settlement failed is retried from here. Should an
+ * extension still be missed, the engine's later end time puts the auction back on the wheel when
+ * the old deadline fires.
+ *
+ * In partitioned mode every node keeps every deadline but only closes the
+ * auctions it owns, so an auction whose owner left is closed by its new owner.
+ * Listings, deletions and closes are sent to the peers, and each node reloads
+ * the deadlines from the database when the ring changes, which covers whatever
+ * it missed while it was unreachable.
+ */
+@Service
+public class AuctionExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionExpiryService.class);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 4096;
+    private static final int CLOSER_THREADS = 4;
+    private static final long RETRY_DELAY_MILLIS = 30000;
+
+    @Autowired
+    private AuctionService auctionService;
+
+    @Autowired
+    private AuctionEngine auctionEngine;
+
+    @Autowired
+    private AuctionPartitioner auctionPartitioner;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final TimingWheel<UUID> wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(daemonThreads("auction-expiry"));
+    private final ExecutorService closers = Executors.newFixedThreadPool(CLOSER_THREADS, daemonThreads("auction-closer"));
+
+    @PostConstruct
+    public void listenForEndTimeChanges() {
+        auctionEngine.onEndTimeChange(this::schedule);
+        auctionPartitioner.onRingChange(() -> closers.execute(this::loadOpenAuctions));
+    }
+
+    /**
+     * Load every auction that still has to be settled, including ones that ended while we were down
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loadOpenAuctions();
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        closers.shutdown();
+    }
+
+    /**
+     * Close the auction at the given time, replacing any earlier schedule
+     */
+    public void schedule(UUID imageId, LocalDateTime endTime) {
+        wheel.schedule(imageId, toMillis(endTime));
+    }
+
+    /**
+     * Forget a deleted or settled auction on this node only
+     */
+    public void forget(UUID imageId) {
+        wheel.cancel(imageId);
+        auctionEngine.evict(imageId);
+    }
+
+    /**
+     * A new auction was listed: schedule it here and, once the listing is committed,
+     * on the peers, since any of them may own it
+     */
+    public void auctionListed(UUID imageId, LocalDateTime endTime) {
+        schedule(imageId, endTime);
+        afterCommit(() -> tellPeers(imageId, url -> clusterClient.scheduleAuction(url, imageId, endTime)));
+    }
+
+    /**
+     * An auction was deleted: forget it here and, once that is committed, on the peers
+     */
+    public void auctionRemoved(UUID imageId) {
+        forget(imageId);
+        afterCommit(() -> tellPeers(imageId, url -> clusterClient.forgetAuction(url, imageId)));
+    }
+
+    // Private helper methods
+
+    private void tick() {
+        try {
+            List<UUID> due = wheel.advance(System.currentTimeMillis());
+            if (due.isEmpty()) return;
+
+            logger.debug("{} auctions came due", due.size());
+            for (UUID imageId : due) {
+                closers.execute(() -> close(imageId));
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the fixed-rate task
+            logger.error("Auction expiry tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void close(UUID imageId) {
+        try {
+            // Closed by its owner; kept on the wheel in case it moves here
+            if (!auctionPartitioner.isLocal(imageId)) {
+                wheel.schedule(imageId, System.currentTimeMillis() + RETRY_DELAY_MILLIS);
+                return;
+            }
+
+            // Extended by a late bid since this deadline was scheduled
+            LocalDateTime endTime = auctionEngine.getState(imageId).getEndTime();
+            if (endTime != null && endTime.isAfter(LocalDateTime.now())) {
+                schedule(imageId, endTime);
+                return;
+            }
+
+            auctionService.endAuction(imageId);
+
+            // The other nodes keep it on their wheels in case it moves to them
+            tellPeers(imageId, url -> clusterClient.forgetAuction(url, imageId));
+        } catch (ResourceNotFoundException e) {
+            logger.info("Auction for image {} was deleted, not closing it", imageId);
+        } catch (Exception e) {
+            // endAuction is idempotent, so trying again later is always safe
+            logger.error("Failed to close auction for image {}, retrying: {}", imageId, e.getMessage());
+            wheel.schedule(imageId, System.currentTimeMillis() + RETRY_DELAY_MILLIS);
+        }
+    }
+
+    private void loadOpenAuctions() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        Integer count = template.execute(status -> {
+            int scheduled = 0;
+            try (Stream<Object[]> rows = imageRepository.streamOpenAuctionEndTimes()) {
+                Iterator<Object[]> it = rows.iterator();
+                while (it.hasNext()) {
+                    Object[] row = it.next();
+                    schedule((UUID) row[0], (LocalDateTime) row[1]);
+                    scheduled++;
+                }
+            }
+            return scheduled;
+        });
+        logger.info("Scheduled {} open auctions for closing", count);
+    }
+
+    private void tellPeers(UUID imageId, Predicate<String> rpc) {
+        for (String url : auctionPartitioner.getPeerUrls()) {
+            closers.execute(() -> {
+                if (!rpc.test(url)) {
+                    // It reloads every deadline when it rejoins the ring
+                    logger.warn("Could not tell {} about auction {}", url, imageId);
+                }
+            });
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,29 +1,46 @@
 package com.marketplace.service;
 
+import com.marketplace.auction.AuctionBidWriter;
+import com.marketplace.auction.AuctionEngine;
+import com.marketplace.auction.AuctionEventBroadcaster;
+import com.marketplace.auction.AuctionMetrics;
+import com.marketplace.auction.AuctionState;
+import com.marketplace.auction.BidOutcome;
+import com.marketplace.auction.BidRecord;
+import com.marketplace.auction.cluster.AuctionMovedException;
+import com.marketplace.auction.cluster.AuctionPartitioner;
+import com.marketplace.auction.cluster.ClusterClient;
 import com.marketplace.exception.BadRequestException;
 import com.marketplace.exception.ResourceNotFoundException;
 import com.marketplace.model.dto.request.BidRequest;
-import com.marketplace.model.dto.request.PurchaseRequest;
 import com.marketplace.model.dto.response.AuctionBidResponse;
+import com.marketplace.model.dto.response.AuctionListingResponse;
 import com.marketplace.model.entity.AuctionBid;
 import com.marketplace.model.entity.Image;
 import com.marketplace.model.entity.User;
 import com.marketplace.model.enums.SaleType;
-import com.marketplace.model.enums.UserRole;
 import com.marketplace.repository.AuctionBidRepository;
 import com.marketplace.repository.ImageRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -50,70 +67,105 @@ public class AuctionService {
     @Autowired
     private EmailService emailService;
     
-    private static final BigDecimal MIN_BID_INCREMENT = new BigDecimal("1.00");
+    @Autowired
+    private AuctionEngine auctionEngine;
+    
+    @Autowired
+    private AuctionBidWriter bidWriter;
+    
+    @Autowired
+    private AuctionEventBroadcaster eventBroadcaster;
+    
+    @Autowired
+    private BidArchiveService bidArchiveService;
+    
+    @Autowired
+    private AuctionPartitioner auctionPartitioner;
+    
+    @Autowired
+    private ClusterClient clusterClient;
+    
+    @Autowired
+    private AuctionMetrics auctionMetrics;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private static final long BID_PERSIST_TIMEOUT_MS = 10000;
+    private static final String AUCTION_MOVING_MESSAGE = "This auction is moving to another server, please try again";
+    private static final Duration ENDING_SOON_WINDOW = Duration.ofHours(24);
+    private static final int MAX_AUCTION_YEARS = 100;
+    private static final int MAX_REPORTED_QUEUES = 10;
     
     /**
-     * Place a bid on an auction
+     * Place a bid on an auction, on the node that owns it. Runs without a transaction:
+     * the engine accepts the bid in memory and the writer persists it behind.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuctionBidResponse placeBid(UUID bidderId, BidRequest request) {
-        logger.info("User {} placing bid of {} on image {}", 
-                   bidderId, request.getBidAmount(), request.getImageId());
-        
-        // Validate bidder
-        User bidder = userService.getUserById(bidderId);
-        userService.validateUserAction(bidderId, UserRole.BUYER);
-        
-        // Get and validate image
-        Image image = imageRepository.findById(request.getImageId())
-                .orElseThrow(() -> new ResourceNotFoundException("Image", "id", request.getImageId()));
-        
-        validateAuctionBid(bidder, image, request.getBidAmount());
-        
-        // Get current highest bid
-        AuctionBid currentHighestBid = bidRepository.findHighestBidForImage(request.getImageId())
-                .orElse(null);
-        
-        // Check if this bid is higher than current highest bid
-        BigDecimal currentHighest = currentHighestBid != null ? 
-                currentHighestBid.getBidAmount() : image.getStartingBid();
-        
-        if (request.getBidAmount().compareTo(currentHighest.add(MIN_BID_INCREMENT)) < 0) {
-            throw new BadRequestException(
-                String.format("Bid must be at least %s higher than current bid of %s", 
-                            MIN_BID_INCREMENT, currentHighest));
+        long start = System.nanoTime();
+        try {
+            return placeLocalBid(bidderId, request);
+        } catch (AuctionMovedException e) {
+            auctionMetrics.bidForwarded();
+            return clusterClient.placeBid(auctionPartitioner.ownerUrl(request.getImageId()), bidderId, request);
+        } finally {
+            auctionMetrics.recordPlaceBid(System.nanoTime() - start);
         }
-        
-        // Mark previous bids as not winning
-        if (currentHighestBid != null) {
-            bidRepository.markBidsAsNotWinning(request.getImageId());
+    }
+    
+    /**
+     * Place a bid forwarded by the node that received it
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuctionBidResponse placeForwardedBid(UUID bidderId, BidRequest request) {
+        try {
+            return placeLocalBid(bidderId, request);
+        } catch (AuctionMovedException e) {
+            // The nodes disagree about the owner until the next heartbeat
+            throw new BadRequestException(AUCTION_MOVING_MESSAGE);
         }
-        
-        // Create new bid
-        AuctionBid bid = new AuctionBid();
-        bid.setImage(image);
-        bid.setBidder(bidder);
-        bid.setBidAmount(request.getBidAmount());
-        bid.setMaxBidAmount(request.getMaxBidAmount());
-        bid.setBidTime(LocalDateTime.now());
-        bid.setIsActive(true);
-        bid.setIsWinningBid(true);
-        
-        AuctionBid savedBid = bidRepository.save(bid);
-        
-        // Update image current bid and bid count
-        image.setCurrentBid(request.getBidAmount());
-        image.setBidCount(image.getBidCount() + 1);
-        imageRepository.save(image);
-        
-        // Send notifications
-        sendBidNotifications(image, bidder, savedBid, currentHighestBid);
-        
-        // Check for automatic bidding
-        processAutomaticBidding(image, savedBid);
-        
-        logger.info("Successfully placed bid {} on image {}", savedBid.getId(), request.getImageId());
-        
-        return mapBidToResponse(savedBid);
+    }
+    
+    /**
+     * Buy an auction item at its buy-now price, on the node that owns the auction.
+     * Runs without a transaction, settlement opens its own.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuctionBidResponse buyNow(UUID buyerId, UUID imageId) {
+        try {
+            return buyNowLocal(buyerId, imageId);
+        } catch (AuctionMovedException e) {
+            return clusterClient.buyNow(auctionPartitioner.ownerUrl(imageId), buyerId, imageId);
+        }
+    }
+    
+    /**
+     * Buy an auction item now for a request forwarded by the node that received it
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuctionBidResponse buyNowForwarded(UUID buyerId, UUID imageId) {
+        try {
+            return buyNowLocal(buyerId, imageId);
+        } catch (AuctionMovedException e) {
+            throw new BadRequestException(AUCTION_MOVING_MESSAGE);
+        }
+    }
+    
+    /**
+     * Hand an auction over to the node asking for it
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void releaseAuction(UUID imageId) {
+        logger.info("Releasing auction {} to another node", imageId);
+        auctionEngine.release(imageId);
+    }
+    
+    /**
+     * Base URL of the node serving an auction's live stream
+     */
+    public String getAuctionNodeUrl(UUID imageId) {
+        return auctionPartitioner.ownerUrl(imageId);
     }
     
     /**
@@ -129,7 +181,14 @@ public class AuctionService {
             throw new BadRequestException("Image is not an auction item");
         }
         
-        Page<AuctionBid> bids = bidRepository.findByImageIdOrderByBidAmountDesc(imageId, pageable);
+        // Settled auctions may have been moved to the archive
+        Page<AuctionBid> bids = null;
+        if (image.getAuctionClosedAt() != null) {
+            bids = bidArchiveService.findArchivedBids(image, pageable).orElse(null);
+        }
+        if (bids == null) {
+            bids = bidRepository.findByImageIdOrderByBidAmountDesc(imageId, pageable);
+        }
         return bids.map(this::mapBidToResponse);
     }
     
@@ -140,25 +199,125 @@ public class AuctionService {
     public Page<AuctionBidResponse> getUserBids(UUID userId, Pageable pageable) {
         userService.validateUserAction(userId, null);
         
-        Page<AuctionBid> bids = bidRepository.findByBidderIdOrderByBidTimeDesc(userId, pageable);
-        return bids.map(this::mapBidToResponse);
+        // Losing bids of archived auctions are only in the archive
+        long archivedCount = bidArchiveService.countArchivedBidsOfBidder(userId);
+        if (archivedCount == 0) {
+            return bidRepository.findByBidderIdOrderByBidTimeDesc(userId, pageable).map(this::mapBidToResponse);
+        }
+        
+        // Merge the newest bids of both down to the end of the requested page
+        int window = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+        Page<AuctionBid> live = bidRepository.findByBidderIdOrderByBidTimeDesc(userId, PageRequest.of(0, window));
+        List<AuctionBid> bids = new ArrayList<>(live.getContent());
+        bids.addAll(bidArchiveService.findArchivedBidsOfBidder(userId, window));
+        bids.sort(Comparator.comparing(AuctionBid::getBidTime).reversed());
+        
+        int from = (int) Math.min(pageable.getOffset(), bids.size());
+        int to = Math.min(from + pageable.getPageSize(), bids.size());
+        return new PageImpl<>(bids.subList(from, to), pageable, live.getTotalElements() + archivedCount)
+                .map(this::mapBidToResponse);
+    }
+    
+    /**
+     * Watch an auction's bids, extensions and close as Server-Sent Events
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter watchAuction(UUID imageId) {
+        return auctionEngine.watch(imageId);
+    }
+    
+    /**
+     * Get running auctions, ending soonest first
+     */
+    @Transactional(readOnly = true)
+    public Page<AuctionListingResponse> getActiveAuctions(Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        return imageRepository.findAuctionListings(now, now.plusYears(MAX_AUCTION_YEARS), unsorted(pageable));
+    }
+    
+    /**
+     * Get running auctions ending within the next 24 hours
+     */
+    @Transactional(readOnly = true)
+    public Page<AuctionListingResponse> getAuctionsEndingSoon(Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        return imageRepository.findAuctionListings(now, now.plus(ENDING_SOON_WINDOW), unsorted(pageable));
     }
     
     /**
-     * End auction and process winner
+     * End auction and process winner.
+     *
+     * Bidding is stopped and the bid writer drained before any transaction is open,
+     * because the writer updates the image row the close locks. Only then is the
+     * close claimed and settled in one short transaction. Whether a local auction
+     * has ended is decided by the engine, whose end time includes extensions the
+     * writer may not have saved yet.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void endAuction(UUID imageId) {
+        long start = System.nanoTime();
+        try {
+            Image image = imageRepository.findById(imageId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Image", "id", imageId));
+            if (image.getSaleType() != SaleType.AUCTION) {
+                throw new BadRequestException("Image is not an auction item");
+            }
+            if (image.getAuctionClosedAt() != null) {
+                logger.info("Auction for image {} is already closed", imageId);
+                return;
+            }
+            
+            // Stop bidding and wait until every accepted bid has reached auction_bids
+            boolean local = auctionPartitioner.isLocal(imageId);
+            if (local) {
+                awaitBidsPersisted(auctionEngine.close(imageId));
+            } else {
+                validateEnded(image);
+                // The owner saves its bids and, should it reload the auction, finds it ended
+                clusterClient.releaseAuction(auctionPartitioner.ownerUrl(imageId), imageId);
+            }
+            
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> settleAuction(imageId, local));
+            } finally {
+                // Later reads reload the auction from the database, settled or, should settling fail, ended
+                auctionEngine.evict(imageId);
+            }
+        } finally {
+            auctionMetrics.recordEndAuction(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Latency histograms and counters of the bid path, plus the deepest bid queues
+     */
+    public Map<String, Object> getAuctionMetrics(boolean reset) {
+        Map<String, Object> metrics = auctionMetrics.toMap();
+        metrics.put("lockQueueDepths", auctionEngine.getLockQueueDepths(MAX_REPORTED_QUEUES));
+        metrics.put("writerBacklog", bidWriter.getBacklog());
+        metrics.put("watchers", eventBroadcaster.getWatcherCount());
+        if (reset) {
+            auctionMetrics.reset();
+        }
+        return metrics;
+    }
+    
+    // Private helper methods
+    
+    private void settleAuction(UUID imageId, boolean local) {
         logger.info("Ending auction for image {}", imageId);
         
         Image image = imageRepository.findById(imageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Image", "id", imageId));
-        
-        if (image.getSaleType() != SaleType.AUCTION) {
-            throw new BadRequestException("Image is not an auction item");
+        if (!local) {
+            // Its owner just saved its bids, a late one there may have extended it
+            validateEnded(image);
         }
         
-        if (!image.isAuctionEnded()) {
-            throw new BadRequestException("Auction has not ended yet");
+        // Settled in this transaction or not at all, so a retry after a crash cannot charge twice
+        if (imageRepository.claimAuctionClose(imageId, LocalDateTime.now()) == 0) {
+            logger.info("Auction for image {} is already closed", imageId);
+            return;
         }
         
         // Get winning bid
@@ -171,8 +330,10 @@ public class AuctionService {
             return;
         }
         
-        // Check if reserve price is met
-        if (image.getReservePrice() != null && 
+        // Check if reserve price is met, a buy-now purchase always meets it
+        boolean boughtNow = image.getBuyNowPrice() != null &&
+            winningBid.getBidAmount().compareTo(image.getBuyNowPrice()) >= 0;
+        if (!boughtNow && image.getReservePrice() != null && 
             winningBid.getBidAmount().compareTo(image.getReservePrice()) < 0) {
             logger.info("Reserve price not met for auction {}", imageId);
             handleAuctionReserveNotMet(image, winningBid);
@@ -181,10 +342,8 @@ public class AuctionService {
         
         // Process winning bid as purchase
         try {
-            PurchaseRequest purchaseRequest = new PurchaseRequest();
-            purchaseRequest.setImageId(imageId);
-            
-            transactionService.initiatePurchase(winningBid.getBidder().getId(), purchaseRequest);
+            transactionService.initiateAuctionPurchase(winningBid.getBidder().getId(), imageId,
+                    winningBid.getBidAmount());
             
             // Mark image as sold
             image.setIsAvailable(false);
@@ -205,107 +364,63 @@ public class AuctionService {
         }
     }
 
-    /**
-     * Process automatic bidding
-     */
-    @Async
-    public void processAutomaticBidding(Image image, AuctionBid newBid) {
-        logger.info("Processing automatic bidding for image {}", image.getId());
-
-        // Find all active bids with max bid amounts higher than current bid
-        List<AuctionBid> autobids = bidRepository.findAutoBidsForImage(
-                image.getId(), newBid.getBidAmount());
-
-        for (AuctionBid autobid : autobids) {
-            if (autobid.canIncreaseTo(newBid.getBidAmount().add(MIN_BID_INCREMENT))) {
-                // Place automatic counter-bid
-                BigDecimal counterBid = newBid.getBidAmount().add(MIN_BID_INCREMENT);
-
-                AuctionBid autoBid = new AuctionBid();
-                autoBid.setImage(image);
-                autoBid.setBidder(autobid.getBidder());
-                autoBid.setBidAmount(counterBid);
-                autoBid.setMaxBidAmount(autobid.getMaxBidAmount());
-                autoBid.setBidTime(LocalDateTime.now());
-                autoBid.setIsActive(true);
-                autoBid.setIsWinningBid(true);
-
-                bidRepository.save(autoBid);
-
-                // Update image
-                image.setCurrentBid(counterBid);
-                image.setBidCount(image.getBidCount() + 1);
-                imageRepository.save(image);
-
-                // Mark other bids as not winning
-                bidRepository.markBidsAsNotWinning(image.getId());
-                autoBid.setIsWinningBid(true);
-                bidRepository.save(autoBid);
-
-                // Send notification
-                notificationService.sendAutoBidNotification(autobid.getBidder(), image, autoBid);
-
-                logger.info("Placed automatic bid {} for user {} on image {}",
-                        autoBid.getId(), autobid.getBidder().getId(), image.getId());
-                break; // Only one auto-bid per trigger
-            }
+    private void validateEnded(Image image) {
+        if (image.getSaleType() != SaleType.AUCTION) {
+            throw new BadRequestException("Image is not an auction item");
+        }
+        
+        if (!image.isAuctionEnded()) {
+            throw new BadRequestException("Auction has not ended yet");
         }
     }
 
-    /**
-     * Extend auction if bid placed in last minutes (sniping protection)
-     */
-    public void checkAuctionExtension(UUID imageId, AuctionBid newBid) {
-        Image image = imageRepository.findById(imageId).orElse(null);
-        if (image == null || image.getAuctionEndTime() == null) return;
+    private AuctionBidResponse placeLocalBid(UUID bidderId, BidRequest request) {
+        logger.info("User {} placing bid of {} on image {}", 
+                   bidderId, request.getBidAmount(), request.getImageId());
 
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime endTime = image.getAuctionEndTime();
+        // Validate bidder from cached role and status
+        User bidder = userService.validateBidder(bidderId);
 
-        // If bid placed in last 5 minutes, extend auction by 5 minutes
-        if (now.isAfter(endTime.minusMinutes(5)) && now.isBefore(endTime)) {
-            LocalDateTime newEndTime = now.plusMinutes(5);
-            image.setAuctionEndTime(newEndTime);
-            imageRepository.save(image);
+        // Validated and sequenced against the in-memory auction, persisted in the background
+        BidOutcome outcome = auctionEngine.placeBid(bidderId, request.getImageId(),
+                request.getBidAmount(), request.getMaxBidAmount());
 
-            logger.info("Extended auction for image {} to {}", imageId, newEndTime);
+        // Built from the engine's copy of the listing, so the bid path runs no query
+        Image image = toImage(outcome);
+        AuctionBid bid = toAuctionBid(outcome.getRecord(), image, bidder);
 
-            // Notify bidders about extension
-            notificationService.sendAuctionExtensionNotification(image, newEndTime);
-        }
-    }
+        // Send notifications, proxy bidding was already settled by the engine
+        sendBidNotifications(image, bidder, bid, outcome);
 
-    // Private helper methods
+        logger.info("Successfully placed bid {} on image {}", bid.getId(), request.getImageId());
 
-    private void validateAuctionBid(User bidder, Image image, BigDecimal bidAmount) {
-        // Check if image is auction
-        if (image.getSaleType() != SaleType.AUCTION) {
-            throw new BadRequestException("Image is not an auction item");
-        }
+        return mapBidToResponse(bid);
+    }
 
-        // Check if auction is active
-        if (!image.isAuctionActive()) {
-            throw new BadRequestException("Auction is not active");
-        }
+    /**
+     * The engine ends the auction on the spot and it is settled right away,
+     * like an auction that ran out of time. The purchase stands once the engine
+     * accepted it; should settling fail here, the expiry service retries it.
+     */
+    private AuctionBidResponse buyNowLocal(UUID buyerId, UUID imageId) {
+        logger.info("User {} buying auction item {} now", buyerId, imageId);
 
-        // Check if bidder is not the owner
-        if (image.getCurrentOwner().getId().equals(bidder.getId())) {
-            throw new BadRequestException("You cannot bid on your own auction");
-        }
+        User buyer = userService.validateBidder(buyerId);
 
-        // Check minimum bid amount
-        if (bidAmount.compareTo(image.getStartingBid()) < 0) {
-            throw new BadRequestException(
-                    String.format("Bid must be at least %s", image.getStartingBid()));
-        }
+        BidOutcome outcome = auctionEngine.buyNow(buyerId, imageId);
 
-        // Check bidder status
-        if (bidder.getStatus() != com.marketplace.model.enums.UserStatus.ACTIVE) {
-            throw new BadRequestException("Your account is not active");
+        try {
+            // The purchase closed the auction in the engine, settle it once the bid is written
+            awaitBidsPersisted(outcome.getRecord().getSequence());
+            endAuction(imageId);
+        } catch (RuntimeException e) {
+            logger.warn("Buy-now of auction {} is left to the expiry service to settle: {}", imageId, e.getMessage());
         }
+
+        return mapBidToResponse(toAuctionBid(outcome.getRecord(), toImage(outcome), buyer));
     }
 
-    private void sendBidNotifications(Image image, User bidder, AuctionBid newBid, AuctionBid previousBid) {
+    private void sendBidNotifications(Image image, User bidder, AuctionBid newBid, BidOutcome outcome) {
         // Notify seller
         notificationService.sendSellerNotification(
                 image.getCurrentOwner(),
@@ -315,14 +430,80 @@ public class AuctionService {
         );
 
         // Notify previous highest bidder if exists
-        if (previousBid != null && !previousBid.getBidder().getId().equals(bidder.getId())) {
+        if (outcome.isOutbid()) {
             notificationService.sendBidOutbidNotification(
-                    previousBid.getBidder(), image, newBid
+                    userReference(outcome.getPreviousLeaderId()), image, newBid
             );
         }
 
-        // Check for auction extension
-        checkAuctionExtension(image.getId(), newBid);
+        // A standing maximum covered the bid and was raised on the proxy bidder's behalf
+        if (outcome.getCounterBid() != null) {
+            User proxyBidder = userReference(outcome.getCounterBid().getBidderId());
+            AuctionBid autoBid = toAuctionBid(outcome.getCounterBid(), image, proxyBidder);
+
+            notificationService.sendAutoBidNotification(proxyBidder, image, autoBid);
+            notificationService.sendBidOutbidNotification(bidder, image, autoBid);
+
+            logger.info("Placed automatic bid {} for user {} on image {}",
+                    autoBid.getId(), proxyBidder.getId(), image.getId());
+        }
+
+        // The engine already extended the auction, watchers and the expiry scheduler know about it
+        if (outcome.getExtendedEndTime() != null) {
+            notificationService.sendAuctionExtensionNotification(image, outcome.getExtendedEndTime());
+        }
+    }
+
+    private void awaitBidsPersisted(long sequence) {
+        try {
+            if (!bidWriter.awaitPersisted(sequence, BID_PERSIST_TIMEOUT_MS)) {
+                throw new BadRequestException("Bids for this auction are still being saved, please try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BadRequestException("Interrupted while waiting for bids to be saved");
+        }
+    }
+
+    private Pageable unsorted(Pageable pageable) {
+        // Listings are always ordered by end time, which is what the index serves
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+    }
+
+    /**
+     * Detached image holding what bid responses and notifications read
+     */
+    private Image toImage(BidOutcome outcome) {
+        AuctionState auction = outcome.getAuction();
+        Image image = new Image();
+        image.setId(auction.getImageId());
+        image.setTitle(auction.getTitle());
+        image.setThumbnailUrl(auction.getThumbnailUrl());
+        image.setCurrentOwner(userReference(auction.getOwnerId()));
+        image.setAuctionEndTime(outcome.getRecord().getAuctionEndTime());
+        return image;
+    }
+
+    /**
+     * Detached user with only its id, notifications do not read more
+     */
+    private User userReference(UUID userId) {
+        User user = new User();
+        user.setId(userId);
+        return user;
+    }
+
+    private AuctionBid toAuctionBid(BidRecord record, Image image, User bidder) {
+        AuctionBid bid = new AuctionBid();
+        bid.setId(record.getBidId());
+        bid.setImage(image);
+        bid.setBidder(bidder);
+        bid.setBidAmount(record.getBidAmount());
+        bid.setMaxBidAmount(record.getMaxBidAmount());
+        bid.setBidTime(record.getBidTime());
+        bid.setIsActive(true);
+        bid.setIsWinningBid(record.isWinning());
+        return bid;
     }
 
     private void handleAuctionNoBids(Image image) {
@@ -357,13 +538,12 @@ public class AuctionService {
     }
 
     private void sendAuctionEndNotifications(Image image, AuctionBid winningBid) {
-        // Get all bidders except the winner
-        List<AuctionBid> allBids = bidRepository.findByImageIdAndBidderIdNot(
+        // Every other bidder once, rendered and sent in bulk
+        List<User> losers = bidRepository.findDistinctBiddersForImageExcept(
                 image.getId(), winningBid.getBidder().getId());
 
-        for (AuctionBid bid : allBids) {
-            emailService.sendAuctionLostEmail(
-                    bid.getBidder(), image, winningBid, "Another bidder won");
+        if (!losers.isEmpty()) {
+            emailService.sendAuctionLostEmails(losers, image, winningBid, "Another bidder won");
         }
     }
 
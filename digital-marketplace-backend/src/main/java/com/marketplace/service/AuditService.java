@@ -35,10 +35,12 @@ public class AuditService {
                 user.getId(), image.getId(), image.getTitle());
     }
 
-    @Async
-    public void logTransactionCompleted(Transaction transaction) {
+    /**
+     * Logged on the calling thread, so the purchase follow-up retries it if it fails
+     */
+    public void logTransactionCompleted(UUID transactionId, UUID imageId, UUID buyerId) {
         auditLogger.info("TRANSACTION_COMPLETED: Transaction {} for image {} by user {}",
-                         transaction.getId(), transaction.getImage().getId(), transaction.getBuyer().getId());
+                         transactionId, imageId, buyerId);
 //        response.setWatermarkUrl(image.getWatermarkUrl());
 //        response.setPreviewUrl(image.getPreviewUrl());
 //        response.setDimensions(image.getDimensions());
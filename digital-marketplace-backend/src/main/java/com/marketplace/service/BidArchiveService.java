@@ -0,0 +1,226 @@
+package com.marketplace.service;
+
+import com.marketplace.auction.BidHistory;
+import com.marketplace.model.entity.AuctionBid;
+import com.marketplace.model.entity.AuctionBidArchive;
+import com.marketplace.model.entity.AuctionBidArchiveBidder;
+import com.marketplace.model.entity.Image;
+import com.marketplace.model.entity.User;
+import com.marketplace.repository.AuctionBidArchiveBidderRepository;
+import com.marketplace.repository.AuctionBidArchiveRepository;
+import com.marketplace.repository.AuctionBidRepository;
+import com.marketplace.repository.ImageRepository;
+import com.marketplace.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves the bid history of ended auctions out of {@code auction_bids}.
+ *
+ * A day after an auction was settled its bids are packed into one compressed
+ * {@link BidHistory} per auction and the losing bids are deleted from the hot
+ * table, so its indexes only cover running and recently ended auctions. The
+ * winning bid stays. Archived histories are read back for the auction's bid list,
+ * and a small per-bidder index finds them for each user's own bid list.
+ */
+@Service
+public class BidArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidArchiveService.class);
+
+    private static final Duration ARCHIVE_AFTER = Duration.ofDays(1);
+    private static final int AUCTIONS_PER_RUN = 1000;
+    private static final int AUCTIONS_PER_QUERY = 100;
+    private static final Comparator<AuctionBid> NEWEST_FIRST = Comparator.comparing(AuctionBid::getBidTime).reversed();
+
+    @Autowired
+    private AuctionBidRepository bidRepository;
+
+    @Autowired
+    private AuctionBidArchiveRepository archiveRepository;
+
+    @Autowired
+    private AuctionBidArchiveBidderRepository archiveBidderRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Archive auctions settled more than a day ago, one transaction per auction
+     */
+    @Scheduled(initialDelay = 300000, fixedDelay = 3600000)
+    public void archiveEndedAuctions() {
+        LocalDateTime before = LocalDateTime.now().minus(ARCHIVE_AFTER);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+
+        int archived = 0;
+        int trimmed = 0;
+        while (archived < AUCTIONS_PER_RUN) {
+            List<UUID> imageIds = template.execute(status ->
+                    bidRepository.findAuctionsToArchive(before, PageRequest.of(0, AUCTIONS_PER_QUERY)));
+            if (imageIds == null || imageIds.isEmpty()) break;
+
+            for (UUID imageId : imageIds) {
+                try {
+                    Integer deleted = template.execute(status -> archive(imageId));
+                    trimmed += deleted != null ? deleted : 0;
+                    archived++;
+                } catch (RuntimeException e) {
+                    // Left in the hot table and picked up again by the next run
+                    logger.error("Failed to archive bids of auction {}: {}", imageId, e.getMessage(), e);
+                    return;
+                }
+            }
+        }
+
+        if (archived > 0) {
+            logger.info("Archived bid history of {} auctions, trimmed {} bids", archived, trimmed);
+        }
+    }
+
+    /**
+     * Bids of an archived auction, highest first like the live table; empty if it is not archived
+     */
+    public Optional<Page<AuctionBid>> findArchivedBids(Image image, Pageable pageable) {
+        Optional<AuctionBidArchive> archive = archiveRepository.findById(image.getId());
+        if (archive.isEmpty()) return Optional.empty();
+
+        BidHistory history = BidHistory.fromBytes(archive.get().getBids());
+        int[] order = history.byAmountDescending();
+        int from = (int) Math.min(pageable.getOffset(), order.length);
+        int to = Math.min(from + pageable.getPageSize(), order.length);
+
+        Set<UUID> bidderIds = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            bidderIds.add(history.getBidderId(order[i]));
+        }
+        Map<UUID, User> bidders = userRepository.findAllById(bidderIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<AuctionBid> bids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            int index = order[i];
+            bids.add(toAuctionBid(history, index, image, bidders.get(history.getBidderId(index))));
+        }
+        return Optional.of(new PageImpl<>(bids, pageable, order.length));
+    }
+
+    /**
+     * Number of a bidder's bids that only the archive holds
+     */
+    public long countArchivedBidsOfBidder(UUID bidderId) {
+        return archiveBidderRepository.countArchivedBids(bidderId);
+    }
+
+    /**
+     * A bidder's newest archived bids, newest first and at most limit of them. Only
+     * trimmed bids are returned, winning bids are still in the hot table.
+     */
+    public List<AuctionBid> findArchivedBidsOfBidder(UUID bidderId, int limit) {
+        List<AuctionBidArchiveBidder> entries = archiveBidderRepository.findByBidderIdOrderByLastBidTimeDesc(bidderId);
+        List<AuctionBid> bids = new ArrayList<>();
+        if (entries.isEmpty()) return bids;
+
+        User bidder = userRepository.findById(bidderId).orElse(null);
+        for (AuctionBidArchiveBidder entry : entries) {
+            // The remaining archives only hold bids older than the ones already enough
+            if (bids.size() >= limit) {
+                bids.sort(NEWEST_FIRST);
+                if (!bids.get(limit - 1).getBidTime().isBefore(entry.getLastBidTime())) break;
+            }
+
+            AuctionBidArchive archive = archiveRepository.findById(entry.getImageId()).orElse(null);
+            Image image = imageRepository.findById(entry.getImageId()).orElse(null);
+            if (archive == null || image == null) continue;
+
+            BidHistory history = BidHistory.fromBytes(archive.getBids());
+            for (int i = 0; i < history.size(); i++) {
+                if (history.isWinning(i) || !bidderId.equals(history.getBidderId(i))) continue;
+                bids.add(toAuctionBid(history, i, image, bidder));
+            }
+        }
+
+        bids.sort(NEWEST_FIRST);
+        return bids.size() > limit ? new ArrayList<>(bids.subList(0, limit)) : bids;
+    }
+
+    // Private helper methods
+
+    private int archive(UUID imageId) {
+        if (archiveRepository.existsById(imageId)) {
+            // Archived by another node, only the trim is left
+            return bidRepository.deleteLosingBidsForImage(imageId);
+        }
+
+        List<Object[]> rows = bidRepository.findBidRowsForImage(imageId);
+        BidHistory history = BidHistory.fromRows(rows);
+        byte[] packed = history.toBytes();
+        archiveRepository.save(new AuctionBidArchive(imageId, history.size(), packed));
+        archiveBidderRepository.saveAll(indexBidders(imageId, history));
+
+        int deleted = bidRepository.deleteLosingBidsForImage(imageId);
+        logger.debug("Archived {} bids of auction {} into {} bytes", history.size(), imageId, packed.length);
+        return deleted;
+    }
+
+    /**
+     * One entry per bidder with trimmed bids, the ones the archive alone holds from now on
+     */
+    private List<AuctionBidArchiveBidder> indexBidders(UUID imageId, BidHistory history) {
+        Map<UUID, AuctionBidArchiveBidder> entries = new HashMap<>();
+        for (int i = 0; i < history.size(); i++) {
+            if (history.isWinning(i)) continue;
+
+            LocalDateTime bidTime = history.getBidTime(i);
+            AuctionBidArchiveBidder entry = entries.computeIfAbsent(history.getBidderId(i),
+                    bidderId -> new AuctionBidArchiveBidder(bidderId, imageId, 0, bidTime));
+            entry.setBidCount(entry.getBidCount() + 1);
+            if (bidTime.isAfter(entry.getLastBidTime())) {
+                entry.setLastBidTime(bidTime);
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    private static AuctionBid toAuctionBid(BidHistory history, int index, Image image, User bidder) {
+        AuctionBid bid = new AuctionBid();
+        bid.setId(history.getBidId(index));
+        bid.setImage(image);
+        bid.setBidder(bidder);
+        bid.setBidAmount(history.getBidAmount(index));
+        bid.setMaxBidAmount(history.getMaxBidAmount(index));
+        bid.setBidTime(history.getBidTime(index));
+        bid.setIsActive(history.isActive(index));
+        bid.setIsWinningBid(history.isWinning(index));
+        return bid;
+    }
+}
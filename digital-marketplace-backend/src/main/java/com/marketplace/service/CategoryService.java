@@ -20,6 +20,9 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ImageSuggestService imageSuggestService;
+
     public List<CategoryResponse> getAllActiveCategories() {
         List<Category> categories = categoryRepository.findAll()
                 .stream()
@@ -59,6 +62,7 @@ public class CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        imageSuggestService.indexCategory(savedCategory);
         return convertToResponse(savedCategory);
     }
 
@@ -70,6 +74,7 @@ public class CategoryService {
         updateCategoryFromRequest(category, request);
 
         Category updatedCategory = categoryRepository.save(category);
+        imageSuggestService.indexCategory(updatedCategory);
         return convertToResponse(updatedCategory);
     }
 
@@ -81,6 +86,7 @@ public class CategoryService {
         // Soft delete by setting isActive to false
         category.setIsActive(false);
         categoryRepository.save(category);
+        imageSuggestService.removeCategory(categoryId);
     }
 
     private void updateCategoryFromRequest(Category category, CategoryRequest request) {
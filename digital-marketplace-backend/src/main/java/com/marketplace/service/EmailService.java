@@ -1,29 +1,52 @@
 package com.marketplace.service;
 
 import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.exception.ResourceNotFoundException;
 import com.marketplace.model.entity.AuctionBid;
 import com.marketplace.model.entity.Image;
 import com.marketplace.model.entity.Transaction;
 import com.marketplace.model.entity.User;
+import com.marketplace.repository.TransactionRepository;
+import com.marketplace.util.BatchStats;
+import com.marketplace.util.WriteBehindQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
+    // Stand-ins for the recipient in templates rendered once for many recipients
+    private static final String FIRST_NAME_PLACEHOLDER = "%%FIRST_NAME%%";
+    private static final String LAST_NAME_PLACEHOLDER = "%%LAST_NAME%%";
+
+    // Bulk messages that failed once and were queued again; a second failure drops them
+    private final Set<MimeMessage> bulkRetries = ConcurrentHashMap.newKeySet();
+
     @Autowired
     private JavaMailSender mailSender;
 
@@ -33,6 +56,33 @@ public class EmailService {
     @Autowired
     private ApplicationPropertiesProvider appProperties;
 
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    // Bulk mail goes out in batches, each batch over a single SMTP connection
+    private WriteBehindQueue<MimeMessage> bulkQueue;
+
+    @PostConstruct
+    public void startBulkQueue() {
+        bulkQueue = new WriteBehindQueue<>("bulk-mail",
+                appProperties.getMail().getBatchSize(),
+                appProperties.getMail().getBatchWindowMs(),
+                this::sendBatch);
+        bulkQueue.start();
+    }
+
+    @PreDestroy
+    public void stopBulkQueue() throws InterruptedException {
+        bulkQueue.stop();
+    }
+
+    /**
+     * Batch sizes achieved by the bulk mail queue
+     */
+    public BatchStats getBatchStats() {
+        return bulkQueue.getStats();
+    }
+
     /**
      * Send welcome email to new user
      */
@@ -86,62 +136,58 @@ public class EmailService {
     }
 
     /**
-     * Send purchase confirmation email to buyer
+     * Send purchase confirmation email to buyer. Sent on the calling thread and failures
+     * are thrown, so the purchase follow-up retries it.
      */
-    @Async
-    public void sendPurchaseConfirmationEmail(User buyer, Transaction transaction) {
-        try {
-            Context context = new Context();
-            context.setVariable("buyer", buyer);
-            context.setVariable("transaction", transaction);
-            context.setVariable("image", transaction.getImage());
-            context.setVariable("appName", appProperties.getName());
-            context.setVariable("downloadUrl", appProperties.getFrontendUrl() + "/downloads/" + transaction.getImage().getId());
-
-            String htmlContent = templateEngine.process("emails/purchase-confirmation", context);
-
-            sendHtmlEmail(
-                    buyer.getEmail(),
-                    "Purchase Confirmation - " + transaction.getImage().getTitle(),
-                    htmlContent
-            );
-
-            logger.info("Purchase confirmation email sent to buyer: {}", buyer.getEmail());
-
-        } catch (Exception e) {
-            logger.error("Failed to send purchase confirmation email to buyer {}: {}",
-                    buyer.getEmail(), e.getMessage(), e);
-        }
+    @Transactional(readOnly = true)
+    public void sendPurchaseConfirmationEmail(UUID transactionId) {
+        Transaction transaction = findTransaction(transactionId);
+        User buyer = transaction.getBuyer();
+
+        Context context = new Context();
+        context.setVariable("buyer", buyer);
+        context.setVariable("transaction", transaction);
+        context.setVariable("image", transaction.getImage());
+        context.setVariable("appName", appProperties.getName());
+        context.setVariable("downloadUrl", appProperties.getFrontendUrl() + "/downloads/" + transaction.getImage().getId());
+
+        String htmlContent = templateEngine.process("emails/purchase-confirmation", context);
+
+        deliverHtmlEmail(
+                buyer.getEmail(),
+                "Purchase Confirmation - " + transaction.getImage().getTitle(),
+                htmlContent
+        );
+
+        logger.info("Purchase confirmation email sent to buyer: {}", buyer.getEmail());
     }
 
     /**
-     * Send sale notification email to seller
+     * Send sale notification email to seller. Sent on the calling thread and failures
+     * are thrown, so the purchase follow-up retries it.
      */
-    @Async
-    public void sendSaleNotificationEmail(User seller, Transaction transaction) {
-        try {
-            Context context = new Context();
-            context.setVariable("seller", seller);
-            context.setVariable("transaction", transaction);
-            context.setVariable("image", transaction.getImage());
-            context.setVariable("buyer", transaction.getBuyer());
-            context.setVariable("appName", appProperties.getName());
-            context.setVariable("salesUrl", appProperties.getFrontendUrl() + "/seller/sales");
-
-            String htmlContent = templateEngine.process("emails/sale-notification", context);
-
-            sendHtmlEmail(
-                    seller.getEmail(),
-                    "Sale Notification - " + transaction.getImage().getTitle(),
-                    htmlContent
-            );
-
-            logger.info("Sale notification email sent to seller: {}", seller.getEmail());
-
-        } catch (Exception e) {
-            logger.error("Failed to send sale notification email to seller {}: {}",
-                    seller.getEmail(), e.getMessage(), e);
-        }
+    @Transactional(readOnly = true)
+    public void sendSaleNotificationEmail(UUID transactionId) {
+        Transaction transaction = findTransaction(transactionId);
+        User seller = transaction.getSeller();
+
+        Context context = new Context();
+        context.setVariable("seller", seller);
+        context.setVariable("transaction", transaction);
+        context.setVariable("image", transaction.getImage());
+        context.setVariable("buyer", transaction.getBuyer());
+        context.setVariable("appName", appProperties.getName());
+        context.setVariable("salesUrl", appProperties.getFrontendUrl() + "/seller/sales");
+
+        String htmlContent = templateEngine.process("emails/sale-notification", context);
+
+        deliverHtmlEmail(
+                seller.getEmail(),
+                "Sale Notification - " + transaction.getImage().getTitle(),
+                htmlContent
+        );
+
+        logger.info("Sale notification email sent to seller: {}", seller.getEmail());
     }
 
     /**
@@ -203,6 +249,37 @@ public class EmailService {
         }
     }
 
+    /**
+     * Send the auction lost email to many bidders. The template is rendered once and
+     * personalised per recipient, and the messages go out through the bulk queue.
+     */
+    @Async
+    public void sendAuctionLostEmails(List<User> bidders, Image image, AuctionBid winningBid, String reason) {
+        try {
+            User recipient = new User(null, null, FIRST_NAME_PLACEHOLDER, LAST_NAME_PLACEHOLDER);
+
+            Context context = new Context();
+            context.setVariable("bidder", recipient);
+            context.setVariable("image", image);
+            context.setVariable("winningBid", winningBid);
+            context.setVariable("reason", reason);
+            context.setVariable("appName", appProperties.getName());
+            context.setVariable("auctionsUrl", appProperties.getFrontendUrl() + "/auctions");
+
+            String htmlTemplate = templateEngine.process("emails/auction-lost", context);
+            String subject = "Auction Result - " + image.getTitle();
+
+            for (User bidder : bidders) {
+                queueHtmlEmail(bidder.getEmail(), subject, personalise(htmlTemplate, bidder));
+            }
+
+            logger.info("Queued auction lost emails for {} bidders of image {}", bidders.size(), image.getId());
+
+        } catch (Exception e) {
+            logger.error("Failed to send auction lost emails for image {}: {}", image.getId(), e.getMessage(), e);
+        }
+    }
+
     /**
      * Send refund confirmation email
      */
@@ -481,15 +558,7 @@ public class EmailService {
 
     private void sendHtmlEmail(String to, String subject, String htmlContent) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(appProperties.getMail().getFrom());
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
+            mailSender.send(createHtmlMessage(to, subject, htmlContent));
 
         } catch (Exception e) {
             logger.error("Failed to send HTML email to {}: {}", to, e.getMessage(), e);
@@ -498,6 +567,80 @@ public class EmailService {
         }
     }
 
+    /**
+     * Send an HTML email without the plain text fallback, throwing if it fails
+     */
+    private void deliverHtmlEmail(String to, String subject, String htmlContent) {
+        try {
+            mailSender.send(createHtmlMessage(to, subject, htmlContent));
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Failed to prepare email to " + to, e);
+        }
+    }
+
+    private void queueHtmlEmail(String to, String subject, String htmlContent) {
+        try {
+            bulkQueue.add(createHtmlMessage(to, subject, htmlContent));
+
+        } catch (Exception e) {
+            logger.error("Failed to queue HTML email to {}: {}", to, e.getMessage(), e);
+        }
+    }
+
+    private MimeMessage createHtmlMessage(String to, String subject, String htmlContent) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(appProperties.getMail().getFrom());
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(htmlContent, true);
+        return message;
+    }
+
+    private Transaction findTransaction(UUID transactionId) {
+        return transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", transactionId));
+    }
+
+    private void sendBatch(List<MimeMessage> messages) {
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Not rethrown: a retry would send the delivered messages of the batch again
+            failures = e.getFailedMessages();
+        }
+
+        int requeued = 0;
+        int dropped = 0;
+        for (MimeMessage message : messages) {
+            if (!failures.containsKey(message)) {
+                bulkRetries.remove(message);
+            } else if (bulkRetries.add(message)) {
+                // Only the failed messages go out again, with a later batch
+                bulkQueue.add(message);
+                requeued++;
+            } else {
+                bulkRetries.remove(message);
+                dropped++;
+            }
+        }
+        if (!failures.isEmpty()) {
+            logger.error("Failed to send {} of {} bulk emails, queued {} again and dropped {} after a second failure",
+                    failures.size(), messages.size(), requeued, dropped);
+        }
+    }
+
+    private String personalise(String html, User user) {
+        return html.replace(FIRST_NAME_PLACEHOLDER, HtmlUtils.htmlEscape(nullToEmpty(user.getFirstName())))
+                .replace(LAST_NAME_PLACEHOLDER, HtmlUtils.htmlEscape(nullToEmpty(user.getLastName())));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
     private void sendSimpleEmail(String to, String subject, String text) {
         try {
             SimpleMailMessage message = new SimpleMailMessage();
@@ -0,0 +1,105 @@
+package com.marketplace.service;
+
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.exception.BadRequestException;
+import com.marketplace.model.entity.IdempotencyKey;
+import com.marketplace.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Deduplicates client retries by their Idempotency-Key header.
+ *
+ * The key is claimed in the transaction of the request it protects: if that
+ * transaction fails the claim is rolled back with it and a retry runs again, if it
+ * commits the key points at what the request created and retries get that back.
+ * Requests that fail in a later step release the key explicitly.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ApplicationPropertiesProvider appProperties;
+
+    /**
+     * Claim a key for a request. Returns the resource an earlier request with the same
+     * key created, or empty if this request claimed the key and has to run
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<UUID> claim(UUID userId, String scope, String key, int requestHash) {
+        UUID id = idFor(userId, scope, key);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(appProperties.getPurchase().getIdempotencyKeyHours());
+
+        if (idempotencyKeyRepository.claim(id, requestHash, now, expiresAt) == 1) {
+            return Optional.empty();
+        }
+
+        IdempotencyKey existing = idempotencyKeyRepository.findById(id)
+                .orElseThrow(() -> new BadRequestException("Idempotency key is being released, please retry"));
+        if (existing.getRequestHash() != requestHash) {
+            throw new BadRequestException("Idempotency key was already used for a different request");
+        }
+        if (existing.getResourceId() == null) {
+            throw new BadRequestException("A request with this idempotency key is still in progress");
+        }
+
+        logger.debug("Replaying {} request of user {} for resource {}", scope, userId, existing.getResourceId());
+        return Optional.of(existing.getResourceId());
+    }
+
+    /**
+     * Record what the request that claimed the key created
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(UUID userId, String scope, String key, UUID resourceId) {
+        idempotencyKeyRepository.complete(idFor(userId, scope, key), resourceId);
+    }
+
+    /**
+     * Give up a claimed key after its request failed past its first transaction, so a retry runs again
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(UUID userId, String scope, String key) {
+        idempotencyKeyRepository.deleteById(idFor(userId, scope, key));
+    }
+
+    /**
+     * Remove expired keys
+     */
+    @Scheduled(fixedDelay = 3600000)
+    @Transactional
+    public void deleteExpiredKeys() {
+        int deleted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    // Private helper methods
+
+    private UUID idFor(UUID userId, String scope, String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        return UUID.nameUUIDFromBytes((scope + ':' + userId + ':' + key).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -6,31 +6,48 @@ import com.marketplace.exception.ResourceNotFoundException;
 import com.marketplace.exception.UnauthorizedException;
 import com.marketplace.model.dto.request.ImageUploadRequest;
 import com.marketplace.model.dto.request.ImageSearchRequest;
+import com.marketplace.model.dto.response.CatalogExportItem;
 import com.marketplace.model.dto.response.ImageResponse;
 import com.marketplace.model.entity.Image;
 import com.marketplace.model.entity.User;
 import com.marketplace.model.entity.Category;
+import com.marketplace.model.entity.Tag;
 import com.marketplace.model.enums.SaleType;
 import com.marketplace.model.enums.UserRole;
 import com.marketplace.repository.ImageRepository;
 import com.marketplace.repository.CategoryRepository;
+import com.marketplace.search.VisualEmbedding;
 import com.marketplace.util.ImageUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -38,6 +55,8 @@ public class ImageService {
     
     private static final Logger logger = LoggerFactory.getLogger(ImageService.class);
     
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+    
     @Autowired
     private ImageRepository imageRepository;
     
@@ -53,8 +72,26 @@ public class ImageService {
     @Autowired
     private AuditService auditService;
     
+    @Autowired
+    private ImageSuggestService imageSuggestService;
+    
+    @Autowired
+    private TagService tagService;
+    
+    @Autowired
+    private SimilarImageService similarImageService;
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @Autowired
     private ApplicationPropertiesProvider appProperties;
+    
+    @Autowired
+    private AuctionExpiryService auctionExpiryService;
 
     /**
      * Upload and process new image
@@ -86,6 +123,7 @@ public class ImageService {
             Map<String, Object> dimensions = ImageUtils.getImageDimensions(file);
             Map<String, Object> metadata = ImageUtils.extractMetadata(file);
             List<String> colorPalette = ImageUtils.extractColorPalette(file);
+            float[] visualEmbedding = ImageUtils.computeVisualEmbedding(file);
             
             // Get category if specified
             Category category = null;
@@ -112,6 +150,7 @@ public class ImageService {
             image.setTags(request.getTags());
             image.setMetadata(metadata);
             image.setColorPalette(colorPalette);
+            image.setVisualEmbedding(visualEmbedding != null ? VisualEmbedding.toBytes(visualEmbedding) : null);
             image.setPrice(request.getPrice());
             image.setCurrency(request.getCurrency() != null ? request.getCurrency() : "USD");
             image.setSaleType(request.getSaleType() != null ? request.getSaleType() : SaleType.FIXED);
@@ -139,6 +178,15 @@ public class ImageService {
             image.setAltText(generateAltText(image));
             
             Image savedImage = imageRepository.save(image);
+            tagService.syncImageTags(savedImage);
+            
+            // Make title and tags suggestible, and the image findable as similar
+            imageSuggestService.indexImage(savedImage);
+            similarImageService.indexImage(savedImage);
+            
+            if (savedImage.getSaleType() == SaleType.AUCTION && savedImage.getAuctionEndTime() != null) {
+                auctionExpiryService.auctionListed(savedImage.getId(), savedImage.getAuctionEndTime());
+            }
             
             // Create audit log
             auditService.logImageUpload(uploader, savedImage);
@@ -161,6 +209,34 @@ public class ImageService {
         return images.map(this::mapToResponse);
     }
     
+    /**
+     * Write every public image to the stream as NDJSON, one object per line
+     */
+    @Transactional(readOnly = true)
+    public long exportCatalog(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(CatalogExportItem.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long exported = 0;
+        
+        try (Stream<CatalogExportItem> items = imageRepository.streamCatalogExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            
+            Iterator<CatalogExportItem> it = items.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+                if (++exported % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        
+        logger.info("Exported {} images", exported);
+        return exported;
+    }
+    
     /**
      * Get image by ID with view count increment
      */
@@ -173,6 +249,7 @@ public class ImageService {
         if (viewerId != null && !image.getCurrentOwner().getId().equals(viewerId)) {
             image.incrementViewCount();
             imageRepository.save(image);
+            recommendationService.recordView(viewerId, imageId);
         }
         
         return mapToResponse(image);
@@ -183,7 +260,20 @@ public class ImageService {
      */
     @Transactional(readOnly = true)
     public Page<ImageResponse> searchImages(ImageSearchRequest searchRequest, Pageable pageable) {
-        Specification<Image> spec = createSearchSpecification(searchRequest);
+        // Resolve tag names to interned ids up front so the query filters on the posting index
+        List<Long> tagIds = new ArrayList<>();
+        if (searchRequest.getTags() != null) {
+            for (String tag : searchRequest.getTags()) {
+                if (tag == null || tag.isBlank()) continue;
+                Long tagId = tagService.findTagId(tag);
+                if (tagId == null) {
+                    return Page.empty(pageable); // Unknown tag cannot match anything
+                }
+                tagIds.add(tagId);
+            }
+        }
+        
+        Specification<Image> spec = createSearchSpecification(searchRequest, tagIds);
         Page<Image> images = imageRepository.findAll(spec, pageable);
         return images.map(this::mapToResponse);
     }
@@ -237,6 +327,7 @@ public class ImageService {
         
         if (updateRequest.getTags() != null) {
             image.setTags(updateRequest.getTags());
+            tagService.syncImageTags(image);
         }
         
         if (updateRequest.getCategoryId() != null) {
@@ -250,6 +341,8 @@ public class ImageService {
         image.setSeoDescription(generateSeoDescription(image));
         
         Image updatedImage = imageRepository.save(image);
+        imageSuggestService.indexImage(updatedImage);
+        similarImageService.indexImage(updatedImage);
         
         // Create audit log
         auditService.logImageUpdate(userService.getUserById(userId), updatedImage);
@@ -281,7 +374,11 @@ public class ImageService {
         
         // Soft delete
         image.setIsAvailable(false);
+        tagService.clearImageTags(image);
         imageRepository.save(image);
+        imageSuggestService.removeImage(imageId);
+        similarImageService.removeImage(imageId);
+        auctionExpiryService.auctionRemoved(imageId);
         
         // Create audit log
         auditService.logImageDeletion(user, image);
@@ -346,6 +443,60 @@ public class ImageService {
         return images.map(this::mapToResponse);
     }
     
+    /**
+     * Get visually similar images ("more like this")
+     */
+    @Transactional(readOnly = true)
+    public List<ImageResponse> getSimilarImages(UUID imageId, int limit) {
+        Image image = imageRepository.findById(imageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Image", "id", imageId));
+        
+        List<UUID> similarIds = similarImageService.findSimilarImageIds(imageId, image.getVisualEmbedding(), limit);
+        if (similarIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // Keep the ranking of the index, the index may briefly lag behind delistings
+        Map<UUID, Image> images = new HashMap<>();
+        for (Image similar : imageRepository.findAllById(similarIds)) {
+            images.put(similar.getId(), similar);
+        }
+        return similarIds.stream()
+                .map(images::get)
+                .filter(similar -> similar != null && Boolean.TRUE.equals(similar.getIsAvailable()))
+                .map(this::mapToResponse)
+                .toList();
+    }
+    
+    /**
+     * Get personalized recommendations, falling back to trending images for new users
+     */
+    @Transactional(readOnly = true)
+    public List<ImageResponse> getRecommendedImages(UUID userId, int limit) {
+        int size = Math.max(1, Math.min(limit, 50));
+        
+        // Over-fetch since some candidates are sold, delisted or owned by the user
+        List<UUID> recommendedIds = recommendationService.recommendImageIds(userId, size * 2);
+        List<Image> candidates;
+        if (recommendedIds.isEmpty()) {
+            candidates = imageRepository.findTrendingImages(PageRequest.of(0, size * 2)).getContent();
+        } else {
+            Map<UUID, Image> images = new HashMap<>();
+            for (Image image : imageRepository.findAllById(recommendedIds)) {
+                images.put(image.getId(), image);
+            }
+            candidates = recommendedIds.stream().map(images::get).filter(image -> image != null).toList();
+        }
+        
+        return candidates.stream()
+                .filter(image -> Boolean.TRUE.equals(image.getIsAvailable()))
+                .filter(image -> !Boolean.TRUE.equals(image.getIsMatureContent()))
+                .filter(image -> !image.getCurrentOwner().getId().equals(userId))
+                .limit(size)
+                .map(this::mapToResponse)
+                .toList();
+    }
+    
     /**
      * Get featured images
      */
@@ -383,7 +534,7 @@ public class ImageService {
         }
     }
     
-    private Specification<Image> createSearchSpecification(ImageSearchRequest request) {
+    private Specification<Image> createSearchSpecification(ImageSearchRequest request, List<Long> tagIds) {
         return (root, query, cb) -> {
             var predicates = new java.util.ArrayList<jakarta.persistence.criteria.Predicate>();
             
@@ -406,6 +557,15 @@ public class ImageService {
                 predicates.add(cb.equal(root.get("category").get("id"), request.getCategoryId()));
             }
             
+            // Tag filter, every requested tag must be present
+            for (Long tagId : tagIds) {
+                Subquery<UUID> tagged = query.subquery(UUID.class);
+                Root<Image> taggedImage = tagged.from(Image.class);
+                Join<Image, Tag> tag = taggedImage.join("normalizedTags");
+                tagged.select(taggedImage.<UUID>get("id")).where(cb.equal(tag.get("id"), tagId));
+                predicates.add(root.get("id").in(tagged));
+            }
+            
             // Price range filter
             if (request.getMinPrice() != null) {
                 predicates.add(cb.greaterThanOrEqualTo(root.get("price"), request.getMinPrice()));
@@ -0,0 +1,228 @@
+package com.marketplace.service;
+
+import com.marketplace.model.dto.response.SuggestionResponse;
+import com.marketplace.model.entity.Category;
+import com.marketplace.model.entity.Image;
+import com.marketplace.model.enums.SuggestionType;
+import com.marketplace.repository.CategoryRepository;
+import com.marketplace.repository.ImageRepository;
+import com.marketplace.search.SearchText;
+import com.marketplace.search.SuggestionTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Search-as-you-type completions for image titles, tags and category names.
+ *
+ * Completions are served from an in-memory {@link SuggestionTrie} that is built once
+ * at startup and then kept up to date by the image and category services, so typing
+ * never reaches the database.
+ */
+@Service
+public class ImageSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageSuggestService.class);
+
+    private static final int MAX_SUGGESTIONS = 10;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final SuggestionTrie trie = new SuggestionTrie(MAX_SUGGESTIONS);
+    private final Map<UUID, IndexedImage> indexedImages = new HashMap<>();
+    private final Map<UUID, Integer> categoryImageCounts = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Build the suggestion index from the catalog once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        long start = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            indexedImages.clear();
+            categoryImageCounts.clear();
+
+            try (Stream<Object[]> rows = imageRepository.streamSuggestionSources()) {
+                rows.forEach(row -> index((UUID) row[0], (String) row[1], castTags(row[2]), (UUID) row[3]));
+            }
+
+            for (Category category : categoryRepository.findByIsActiveTrueOrderBySortOrderAsc()) {
+                putCategory(category);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Built suggestion index with {} entries from {} images in {} ms",
+                trie.size(), indexedImages.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Get completions for a partially typed query
+     */
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+
+        lock.readLock().lock();
+        try {
+            return trie.complete(query, size).stream()
+                    .map(c -> new SuggestionResponse(c.getText(), c.getType(), c.getWeight()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or re-index an image after it was uploaded or updated
+     */
+    public void indexImage(Image image) {
+        if (!Boolean.TRUE.equals(image.getIsAvailable()) || Boolean.TRUE.equals(image.getIsMatureContent())) {
+            removeImage(image.getId());
+            return;
+        }
+
+        UUID categoryId = image.getCategory() != null ? image.getCategory().getId() : null;
+
+        lock.writeLock().lock();
+        try {
+            index(image.getId(), image.getTitle(), image.getTags(), categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop an image that is no longer publicly listed
+     */
+    public void removeImage(UUID imageId) {
+        lock.writeLock().lock();
+        try {
+            IndexedImage previous = indexedImages.remove(imageId);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add, rename or deactivate a category completion
+     */
+    public void indexCategory(Category category) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(categoryKey(category.getId()));
+            if (Boolean.TRUE.equals(category.getIsActive())) {
+                putCategory(category);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCategory(UUID categoryId) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(categoryKey(categoryId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Private helper methods (callers hold the write lock)
+
+    private void index(UUID imageId, String title, List<String> tags, UUID categoryId) {
+        IndexedImage previous = indexedImages.remove(imageId);
+        if (previous != null) {
+            unindex(previous);
+        }
+
+        String titleKey = null;
+        if (title != null && !title.isBlank()) {
+            titleKey = "title:" + SearchText.normalize(title);
+            trie.adjust(titleKey, SuggestionType.TITLE, title, 1);
+        }
+
+        Set<String> tagKeys = new LinkedHashSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag == null || tag.isBlank()) continue;
+                String tagKey = "tag:" + SearchText.normalize(tag);
+                if (tagKeys.add(tagKey)) {
+                    trie.adjust(tagKey, SuggestionType.TAG, tag, 1);
+                }
+            }
+        }
+
+        if (categoryId != null) {
+            categoryImageCounts.merge(categoryId, 1, Integer::sum);
+            trie.adjust(categoryKey(categoryId), SuggestionType.CATEGORY, null, 1);
+        }
+
+        indexedImages.put(imageId, new IndexedImage(titleKey, tagKeys.toArray(new String[0]), categoryId));
+    }
+
+    private void unindex(IndexedImage image) {
+        if (image.titleKey != null) {
+            trie.adjust(image.titleKey, SuggestionType.TITLE, null, -1);
+        }
+        for (String tagKey : image.tagKeys) {
+            trie.adjust(tagKey, SuggestionType.TAG, null, -1);
+        }
+        if (image.categoryId != null) {
+            categoryImageCounts.computeIfPresent(image.categoryId, (id, count) -> count > 1 ? count - 1 : null);
+            trie.adjust(categoryKey(image.categoryId), SuggestionType.CATEGORY, null, -1);
+        }
+    }
+
+    private void putCategory(Category category) {
+        // Active categories stay suggestible even before their first image
+        int weight = 1 + categoryImageCounts.getOrDefault(category.getId(), 0);
+        trie.adjust(categoryKey(category.getId()), SuggestionType.CATEGORY, category.getName(), weight);
+    }
+
+    private String categoryKey(UUID categoryId) {
+        return "category:" + categoryId;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> castTags(Object tags) {
+        return tags instanceof List ? (List<String>) tags : null;
+    }
+
+    private static final class IndexedImage {
+        private final String titleKey;
+        private final String[] tagKeys;
+        private final UUID categoryId;
+
+        private IndexedImage(String titleKey, String[] tagKeys, UUID categoryId) {
+            this.titleKey = titleKey;
+            this.tagKeys = tagKeys;
+            this.categoryId = categoryId;
+        }
+    }
+}
@@ -1,22 +1,33 @@
 package com.marketplace.service;
 
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.config.ApplicationPropertiesProvider;
 import com.marketplace.model.entity.AuctionBid;
 import com.marketplace.model.entity.Image;
 import com.marketplace.model.entity.Notification;
 import com.marketplace.model.entity.User;
 import com.marketplace.repository.NotificationRepository;
+import com.marketplace.util.BatchStats;
+import com.marketplace.util.WriteBehindQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -26,12 +37,42 @@ public class NotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (id, created_at, updated_at, version, user_id, title, message, type, " +
+            "data, action_url, is_read) VALUES (?, ?, ?, 0, ?, ?, ?, ?, ?::jsonb, ?, false)";
+
     @Autowired
     private NotificationRepository notificationRepository;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+
+    // Notifications are written behind in batches, a busy auction close creates thousands at once
+    private WriteBehindQueue<Notification> writeQueue;
+
+    @PostConstruct
+    public void startWriter() {
+        writeQueue = new WriteBehindQueue<>("notifications",
+                applicationPropertiesProvider.getNotification().getBatchSize(),
+                applicationPropertiesProvider.getNotification().getBatchWindowMs(),
+                this::insertBatch);
+        writeQueue.start();
+    }
+
+    @PreDestroy
+    public void stopWriter() throws InterruptedException {
+        writeQueue.stop();
+    }
+
     /**
      * Send seller notification
      */
@@ -129,6 +170,13 @@ public class NotificationService {
         return notificationRepository.countByUserIdAndIsReadFalse(userId);
     }
 
+    /**
+     * Batch sizes achieved by the notification writer
+     */
+    public BatchStats getBatchStats() {
+        return writeQueue.getStats();
+    }
+
     // Private helper methods
 
     private void createNotification(User user, String title, String message, String type,
@@ -142,8 +190,9 @@ public class NotificationService {
             notification.setData(data);
             notification.setActionUrl(actionUrl);
             notification.setIsRead(false);
+            notification.setCreatedAt(LocalDateTime.now());
 
-            notificationRepository.save(notification);
+            writeQueue.add(notification);
 
             logger.info("Notification sent to user {}: {}", user.getId(), title);
 
@@ -152,4 +201,25 @@ public class NotificationService {
                     user.getId(), e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    private void insertBatch(List<Notification> notifications) {
+        List<Object[]> rows = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            Timestamp createdAt = Timestamp.valueOf(notification.getCreatedAt());
+            rows.add(new Object[]{UUID.randomUUID(), createdAt, createdAt, notification.getUser().getId(),
+                    notification.getTitle(), notification.getMessage(), notification.getType(),
+                    toJson(notification.getData()), notification.getActionUrl()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, rows);
+    }
+
+    private String toJson(Map<String, Object> data) {
+        if (data == null) return null;
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            logger.warn("Dropping unserializable notification data: {}", e.getMessage());
+            return null;
+        }
+    }
+}
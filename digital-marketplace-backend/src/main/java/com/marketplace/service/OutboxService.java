@@ -0,0 +1,229 @@
+package com.marketplace.service;
+
+import com.marketplace.model.entity.OutboxEvent;
+import com.marketplace.model.enums.OutboxEventStatus;
+import com.marketplace.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Transactional outbox for work that follows a committed state change.
+ *
+ * An event is inserted in the transaction of the change, so it exists exactly when the
+ * change committed. Right after the commit it is handed to a worker; events missed that
+ * way, e.g. across a restart, are found by a poller. A handler runs an event's steps
+ * through {@link #runStep}, each in its own short transaction that first claims the step
+ * on the event's row, so a failed event is retried with backoff from the first step that
+ * did not finish, and an attempt that outlived its lease cannot run a step twice with the
+ * next one. Database steps therefore run once; steps with outside effects, like sending
+ * mail, run at least once.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final int WORKERS = 4;
+    private static final int EVENTS_PER_POLL = 100;
+    private static final long LEASE_SECONDS = 60;
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+    private static final int MAX_ATTEMPTS = 12;
+    private static final Duration KEEP_DONE = Duration.ofDays(7);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, Consumer<OutboxEvent>> handlers = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private ExecutorService workers;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(WORKERS, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Events still leased are picked up by the poller once the lease runs out
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public void registerHandler(String type, Consumer<OutboxEvent> handler) {
+        handlers.put(type, handler);
+    }
+
+    /**
+     * Record an event in the current transaction, it is processed once that commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String type, UUID aggregateId) {
+        OutboxEvent event = outboxEventRepository.save(new OutboxEvent(type, aggregateId));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                leaseAndSubmit(event.getId(), LocalDateTime.now());
+            }
+        });
+    }
+
+    /**
+     * Run one step of an event unless another attempt already did, in a transaction that claims it first.
+     * The action has to finish its work before it returns and throw if that fails; work handed
+     * to another thread would count as done either way.
+     */
+    public void runStep(OutboxEvent event, int step, Runnable action) {
+        if (event.isStepDone(step)) return;
+
+        // The bitmask loaded with the event may be stale if its lease ran out meanwhile
+        transactionTemplate.executeWithoutResult(status -> {
+            if (outboxEventRepository.claimStep(event.getId(), step) == 0) {
+                logger.debug("Step {} of outbox event {} was already done by another attempt", step, event.getId());
+                return;
+            }
+            action.run();
+        });
+        event.setCompletedSteps(event.getCompletedSteps() | step);
+    }
+
+    /**
+     * Pick up events that were not handed over after their commit, or are due for a retry
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void processDueEvents() {
+        int capacity = WORKERS * 2 - inFlight.get();
+        if (capacity <= 0) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> due = outboxEventRepository.findDue(now, PageRequest.of(0, Math.min(capacity, EVENTS_PER_POLL)));
+        for (UUID eventId : due) {
+            leaseAndSubmit(eventId, now);
+        }
+    }
+
+    @Scheduled(initialDelay = 600000, fixedDelay = 3600000)
+    @Transactional
+    public void deleteDoneEvents() {
+        int deleted = outboxEventRepository.deleteDoneBefore(LocalDateTime.now().minus(KEEP_DONE));
+        if (deleted > 0) {
+            logger.info("Deleted {} processed outbox events", deleted);
+        }
+    }
+
+    public Map<String, Object> getQueueStats() {
+        return Map.of(
+            "pending", outboxEventRepository.countByStatus(OutboxEventStatus.PENDING),
+            "failed", outboxEventRepository.countByStatus(OutboxEventStatus.FAILED),
+            "inFlight", inFlight.get()
+        );
+    }
+
+    // Private helper methods
+
+    private void leaseAndSubmit(UUID eventId, LocalDateTime now) {
+        try {
+            Integer leased = transactionTemplate.execute(status ->
+                    outboxEventRepository.lease(eventId, now, now.plusSeconds(LEASE_SECONDS)));
+            if (leased == null || leased == 0) return;
+
+            inFlight.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    process(eventId);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            logger.warn("Outbox event {} left for the poller, workers are shut down", eventId);
+        } catch (RuntimeException e) {
+            logger.error("Failed to hand over outbox event {}: {}", eventId, e.getMessage(), e);
+        }
+    }
+
+    private void process(UUID eventId) {
+        try {
+            OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
+            if (event == null || event.getStatus() != OutboxEventStatus.PENDING) return;
+
+            Consumer<OutboxEvent> handler = handlers.get(event.getType());
+            if (handler == null) {
+                throw new IllegalStateException("No handler for outbox event type " + event.getType());
+            }
+            handler.accept(event);
+
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markDone(eventId, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            recordFailure(eventId, e);
+        }
+    }
+
+    private void recordFailure(UUID eventId, RuntimeException error) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
+                if (event == null) return;
+
+                int attempts = event.getAttempts() + 1;
+                boolean givingUp = attempts >= MAX_ATTEMPTS;
+                long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+                String message = String.valueOf(error.getMessage());
+
+                outboxEventRepository.markAttemptFailed(eventId,
+                        givingUp ? OutboxEventStatus.FAILED : OutboxEventStatus.PENDING,
+                        LocalDateTime.now().plusSeconds(backoff),
+                        message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+
+                if (givingUp) {
+                    logger.error("Giving up on outbox event {} ({}) after {} attempts: {}",
+                            eventId, event.getType(), attempts, message, error);
+                } else {
+                    logger.warn("Outbox event {} ({}) failed (attempt {}), retrying in {}s: {}",
+                            eventId, event.getType(), attempts, backoff, message);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Retried once the lease runs out
+            logger.error("Failed to record failure of outbox event {}: {}", eventId, e.getMessage(), e);
+        }
+    }
+}
@@ -1,26 +1,142 @@
 package com.marketplace.service;
 
-import com.marketplace.model.entity.Transaction;
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.exception.PaymentException;
+import com.marketplace.payment.PaymentGateway;
+import com.marketplace.payment.PaymentGatewayException;
+import com.marketplace.payment.PaymentIntent;
+import com.marketplace.payment.PaymentIntentRequest;
+import com.marketplace.util.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Payment provider calls through the configured {@link PaymentGateway}.
+ *
+ * Every call gets a deadline and goes through a circuit breaker, so while the provider
+ * is down purchases fail fast instead of piling up. Async results complete on the
+ * payment callback threads rather than the HTTP client's, so dependent steps may run
+ * a short transaction. Callers must not hold a database transaction while waiting.
+ */
 @Service
 public class PaymentService {
-    public String createPaymentIntent(Transaction transaction) {
-        // TODO: Stripe-Integration
-        return "pi_" + System.currentTimeMillis();
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private ApplicationPropertiesProvider appProperties;
+
+    private CircuitBreaker circuitBreaker;
+    private ExecutorService callbacks;
+
+    @PostConstruct
+    public void init() {
+        ApplicationPropertiesProvider.Payment config = appProperties.getPayment();
+        circuitBreaker = new CircuitBreaker("payment-" + paymentGateway.getName(),
+                config.getBreakerFailureThreshold(), config.getBreakerOpenMs());
+
+        AtomicInteger counter = new AtomicInteger();
+        callbacks = Executors.newFixedThreadPool(config.getCallbackThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "payment-callback-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        callbacks.shutdown();
+    }
+
+    public CompletableFuture<PaymentIntent> createPaymentIntentAsync(PaymentIntentRequest request) {
+        return call(() -> paymentGateway.createPaymentIntent(request));
+    }
+
+    public PaymentIntent createPaymentIntent(PaymentIntentRequest request) {
+        return await(createPaymentIntentAsync(request));
     }
 
     public boolean verifyPayment(String paymentIntentId) {
-        // TODO: Stripe-Integration
-        return true;
+        return await(call(() -> paymentGateway.retrievePaymentIntent(paymentIntentId))).isSucceeded();
+    }
+
+    public String processRefund(String paymentIntentId, BigDecimal amount, String reason) {
+        return await(call(() -> paymentGateway.refund(paymentIntentId, amount, reason)));
+    }
+
+    public Map<String, Object> getGatewayStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("gateway", paymentGateway.getName());
+        stats.put("circuitBreaker", circuitBreaker.toMap());
+        return stats;
     }
 
-    public String processRefund(String paymentIntentId, java.math.BigDecimal amount, String reason) {
-        // TODO: Stripe-Integration
-        return "re_" + System.currentTimeMillis();
+    // Private helper methods
+
+    private <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayException("Payment provider is unavailable, please try again shortly", true));
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.orTimeout(appProperties.getPayment().getRequestTimeoutMs(), TimeUnit.MILLISECONDS)
+                .handleAsync((result, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess();
+                        return result;
+                    }
+                    PaymentException failure = toPaymentException(error);
+                    if (failure instanceof PaymentGatewayException gatewayError && !gatewayError.isProviderFault()) {
+                        circuitBreaker.onSuccess(); // The provider answered
+                    } else {
+                        circuitBreaker.onFailure();
+                    }
+                    throw failure;
+                }, callbacks);
     }
 
-    public void handleStripeWebhook(String payload, String sigHeader) {
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw toPaymentException(e);
+        }
+    }
 
+    private PaymentException toPaymentException(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof PaymentException paymentException) {
+            return paymentException;
+        }
+        if (cause instanceof TimeoutException) {
+            return new PaymentGatewayException("Payment provider did not answer in time", true, cause);
+        }
+        return new PaymentGatewayException("Payment provider error: " + cause.getMessage(), true, cause);
     }
 }
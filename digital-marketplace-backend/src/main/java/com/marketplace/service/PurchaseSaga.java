@@ -0,0 +1,123 @@
+package com.marketplace.service;
+
+import com.marketplace.exception.ResourceNotFoundException;
+import com.marketplace.model.entity.Image;
+import com.marketplace.model.entity.OutboxEvent;
+import com.marketplace.model.entity.OwnershipHistory;
+import com.marketplace.model.entity.Transaction;
+import com.marketplace.model.enums.TransferType;
+import com.marketplace.repository.ImageRepository;
+import com.marketplace.repository.OwnershipHistoryRepository;
+import com.marketplace.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * The steps after a purchase was paid, driven by its PurchaseCompleted outbox event.
+ *
+ * TransactionService commits the completed transaction and the new owner of the image
+ * in one short transaction; everything here follows from the outbox, each step in its
+ * own transaction and skipped on retries once it ran.
+ */
+@Service
+public class PurchaseSaga {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseSaga.class);
+
+    public static final String PURCHASE_COMPLETED = "PurchaseCompleted";
+
+    private static final int STEP_OWNERSHIP_HISTORY = 1;
+    private static final int STEP_SELLER_STATS = 1 << 1;
+    private static final int STEP_BUYER_EMAIL = 1 << 2;
+    private static final int STEP_SELLER_EMAIL = 1 << 3;
+    private static final int STEP_AUDIT = 1 << 4;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private OwnershipHistoryRepository ownershipHistoryRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @PostConstruct
+    public void registerHandlers() {
+        outboxService.registerHandler(PURCHASE_COMPLETED, this::onPurchaseCompleted);
+    }
+
+    // Private helper methods
+
+    private void onPurchaseCompleted(OutboxEvent event) {
+        UUID transactionId = event.getAggregateId();
+
+        outboxService.runStep(event, STEP_OWNERSHIP_HISTORY, () -> recordOwnershipHistory(findTransaction(transactionId)));
+
+        outboxService.runStep(event, STEP_SELLER_STATS, () -> {
+            Transaction transaction = findTransaction(transactionId);
+            userService.recordSale(transaction.getId(),
+                                 transaction.getSeller().getId(),
+                                 transaction.getGrossAmount(),
+                                 transaction.getPlatformCommission());
+        });
+
+        // Sent on this thread and thrown on failure, so a step is only done once its mail went out
+        outboxService.runStep(event, STEP_BUYER_EMAIL, () -> emailService.sendPurchaseConfirmationEmail(transactionId));
+
+        outboxService.runStep(event, STEP_SELLER_EMAIL, () -> emailService.sendSaleNotificationEmail(transactionId));
+
+        outboxService.runStep(event, STEP_AUDIT, () -> {
+            Transaction transaction = findTransaction(transactionId);
+            auditService.logTransactionCompleted(transaction.getId(), transaction.getImage().getId(),
+                                                 transaction.getBuyer().getId());
+        });
+
+        logger.info("Finished follow-up of completed purchase {}", transactionId);
+    }
+
+    private void recordOwnershipHistory(Transaction transaction) {
+        Image image = transaction.getImage();
+        image.incrementDownloadCount(); // Buyer gets download access
+        imageRepository.save(image);
+
+        OwnershipHistory ownershipHistory = new OwnershipHistory();
+        ownershipHistory.setImage(image);
+        ownershipHistory.setPreviousOwner(transaction.getSeller());
+        ownershipHistory.setNewOwner(transaction.getBuyer());
+        ownershipHistory.setTransaction(transaction);
+        ownershipHistory.setTransferType(TransferType.PURCHASE);
+        ownershipHistory.setTransferDate(transaction.getCompletedAt());
+        ownershipHistory.setPurchasePrice(transaction.getGrossAmount());
+        ownershipHistory.setCurrency(transaction.getCurrency());
+        ownershipHistoryRepository.save(ownershipHistory);
+
+        // Link ownership history to transaction
+        transaction.setOwnershipHistory(ownershipHistory);
+        transactionRepository.save(transaction);
+
+        logger.info("Recorded transfer of image {} from {} to {}",
+                   image.getId(), transaction.getSeller().getId(), transaction.getBuyer().getId());
+    }
+
+    private Transaction findTransaction(UUID transactionId) {
+        return transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", transactionId));
+    }
+}
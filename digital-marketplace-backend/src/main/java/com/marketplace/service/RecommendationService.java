@@ -0,0 +1,262 @@
+package com.marketplace.service;
+
+import com.marketplace.model.entity.ImageNeighbours;
+import com.marketplace.model.entity.ImageView;
+import com.marketplace.recommendation.ItemSimilarityMatrix;
+import com.marketplace.recommendation.RankedItems;
+import com.marketplace.repository.ImageNeighboursRepository;
+import com.marketplace.repository.ImageReactionRepository;
+import com.marketplace.repository.ImageViewRepository;
+import com.marketplace.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * "Recommended for you" from purchase, like and view co-occurrence.
+ *
+ * A scheduled batch job folds new events into an {@link ItemSimilarityMatrix} and
+ * re-ranks only the images and users it touched. The resulting neighbour lists are
+ * stored packed in {@code image_neighbours} and, together with the user profiles,
+ * served from memory. Once a day the matrix is rebuilt from scratch so withdrawn
+ * likes and refunded purchases drop out.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final float PURCHASE_WEIGHT = 5f;
+    private static final float LIKE_WEIGHT = 3f;
+    private static final float VIEW_WEIGHT = 1f;
+
+    private static final int NEIGHBOURS_PER_IMAGE = 20;
+    private static final int PROFILE_SIZE = 50;
+    private static final int MAX_ITEMS_PER_USER = 500;
+    private static final int MAX_RECOMMENDATIONS = 100;
+    private static final int SAVE_BATCH_SIZE = 500;
+    private static final Duration FULL_REBUILD_INTERVAL = Duration.ofHours(24);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ImageReactionRepository imageReactionRepository;
+
+    @Autowired
+    private ImageViewRepository imageViewRepository;
+
+    @Autowired
+    private ImageNeighboursRepository imageNeighboursRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Read lock-free by requests, replaced entry by entry by the batch job
+    private final Map<UUID, RankedItems> neighbours = new ConcurrentHashMap<>();
+    private final Map<UUID, RankedItems> profiles = new ConcurrentHashMap<>();
+
+    // Owned by the batch job
+    private ItemSimilarityMatrix matrix;
+    private LocalDateTime lastFullBuild;
+    private LocalDateTime purchasesSince = BEGINNING;
+    private long lastLikeId;
+    private long lastViewId;
+
+    /**
+     * Serve the stored neighbour lists until the first batch run has finished
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadNeighbours() {
+        try (Stream<Object[]> rows = imageNeighboursRepository.streamAll()) {
+            rows.forEach(row -> {
+                RankedItems items = RankedItems.fromBytes((byte[]) row[1]);
+                if (items.size() > 0) {
+                    neighbours.put((UUID) row[0], items);
+                }
+            });
+        }
+        logger.info("Loaded neighbour lists for {} images", neighbours.size());
+    }
+
+    /**
+     * Record a detail page view of a signed-in user
+     */
+    @Transactional
+    public void recordView(UUID userId, UUID imageId) {
+        imageViewRepository.save(new ImageView(userId, imageId));
+    }
+
+    /**
+     * Fold new events into the similarity matrix and publish what changed
+     */
+    @Scheduled(initialDelay = 30000, fixedDelay = 300000)
+    @Transactional
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        boolean full = matrix == null || lastFullBuild.plus(FULL_REBUILD_INTERVAL).isBefore(now);
+        if (full) {
+            matrix = new ItemSimilarityMatrix(MAX_ITEMS_PER_USER);
+            purchasesSince = BEGINNING;
+            lastLikeId = 0;
+            lastViewId = 0;
+        }
+
+        int events = applyNewEvents();
+        int images = publishNeighbours(matrix.drainDirtyItems(), full);
+        int users = publishProfiles(matrix.drainDirtyUsers(), full);
+
+        if (full) {
+            // Lists not rewritten by a full build belong to images nobody interacts with anymore
+            imageNeighboursRepository.deleteUpdatedBefore(now);
+            lastFullBuild = now;
+        }
+
+        if (events > 0 || full) {
+            logger.info("{} recommendation refresh: {} events, {} images and {} users re-ranked in {} ms",
+                    full ? "Full" : "Incremental", events, images, users, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Ids of images to recommend to a user, best first. Empty if we know nothing about the user.
+     */
+    public List<UUID> recommendImageIds(UUID userId, int limit) {
+        RankedItems profile = profiles.get(userId);
+        if (profile == null) return Collections.emptyList();
+
+        // Images the user already liked or bought are not worth recommending again
+        Set<UUID> known = new HashSet<>();
+        for (int i = 0; i < profile.size(); i++) {
+            if (profile.getScore(i) >= LIKE_WEIGHT) {
+                known.add(profile.getId(i));
+            }
+        }
+
+        Map<UUID, Float> scores = new HashMap<>();
+        for (int i = 0; i < profile.size(); i++) {
+            RankedItems similar = neighbours.get(profile.getId(i));
+            if (similar == null) continue;
+
+            float weight = profile.getScore(i);
+            for (int j = 0; j < similar.size(); j++) {
+                if (!known.contains(similar.getId(j))) {
+                    scores.merge(similar.getId(j), weight * similar.getScore(j), Float::sum);
+                }
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Float>comparingByValue().reversed())
+                .limit(Math.max(1, Math.min(limit, MAX_RECOMMENDATIONS)))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Private helper methods
+
+    private int applyNewEvents() {
+        int events = 0;
+
+        try (Stream<Object[]> rows = transactionRepository.streamCompletedPurchasesSince(purchasesSince)) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                // Re-reading the boundary timestamp is harmless, weights never add up
+                matrix.record((UUID) row[0], (UUID) row[1], PURCHASE_WEIGHT);
+                purchasesSince = (LocalDateTime) row[2];
+                events++;
+            }
+        }
+
+        try (Stream<Object[]> rows = imageReactionRepository.streamLikesAfter(lastLikeId)) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                matrix.record((UUID) row[1], (UUID) row[2], LIKE_WEIGHT);
+                lastLikeId = (Long) row[0];
+                events++;
+            }
+        }
+
+        try (Stream<Object[]> rows = imageViewRepository.streamViewsAfter(lastViewId)) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                matrix.record((UUID) row[1], (UUID) row[2], VIEW_WEIGHT);
+                lastViewId = (Long) row[0];
+                events++;
+            }
+        }
+        return events;
+    }
+
+    private int publishNeighbours(int[] dirtyItems, boolean full) {
+        Set<UUID> published = full ? new HashSet<>() : null;
+        List<ImageNeighbours> batch = new ArrayList<>(SAVE_BATCH_SIZE);
+
+        for (int item : dirtyItems) {
+            UUID imageId = matrix.itemId(item);
+            RankedItems similar = matrix.neighbours(item, NEIGHBOURS_PER_IMAGE);
+
+            if (similar.size() > 0) {
+                neighbours.put(imageId, similar);
+            } else {
+                neighbours.remove(imageId);
+            }
+            if (published != null) published.add(imageId);
+
+            batch.add(new ImageNeighbours(imageId, similar.toBytes()));
+            if (batch.size() == SAVE_BATCH_SIZE) {
+                saveBatch(batch);
+            }
+        }
+        saveBatch(batch);
+
+        if (published != null) {
+            neighbours.keySet().retainAll(published);
+        }
+        return dirtyItems.length;
+    }
+
+    private int publishProfiles(int[] dirtyUsers, boolean full) {
+        Set<UUID> published = full ? new HashSet<>() : null;
+
+        for (int user : dirtyUsers) {
+            UUID userId = matrix.userId(user);
+            profiles.put(userId, matrix.userProfile(user, PROFILE_SIZE));
+            if (published != null) published.add(userId);
+        }
+
+        if (published != null) {
+            profiles.keySet().retainAll(published);
+        }
+        return dirtyUsers.length;
+    }
+
+    private void saveBatch(List<ImageNeighbours> batch) {
+        if (batch.isEmpty()) return;
+
+        imageNeighboursRepository.saveAll(batch);
+        entityManager.flush();
+        entityManager.clear();
+        batch.clear();
+    }
+}
@@ -0,0 +1,176 @@
+package com.marketplace.service;
+
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.model.entity.Image;
+import com.marketplace.repository.ImageRepository;
+import com.marketplace.search.HnswIndex;
+import com.marketplace.search.VisualEmbedding;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * "More like this" lookups over the visual embeddings of listed images.
+ *
+ * Embeddings are kept in a memory-mapped {@link HnswIndex} that survives clean
+ * restarts. After a crash, on first start or once too many tombstones piled up,
+ * the index is rebuilt from the embeddings stored with the images.
+ */
+@Service
+public class SimilarImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarImageService.class);
+
+    private static final int MAX_CONNECTIONS = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int EF_SEARCH = 64;
+    private static final int MAX_SIMILAR = 50;
+    private static final double MAX_DELETED_RATIO = 0.25;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ApplicationPropertiesProvider applicationPropertiesProvider;
+
+    private HnswIndex index;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Open the index once the application is up, rebuilding it if it is stale
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void openIndex() {
+        long start = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            index = new HnswIndex(Paths.get(applicationPropertiesProvider.getSimilarityIndexPath()),
+                    VisualEmbedding.DIMENSIONS, MAX_CONNECTIONS, EF_CONSTRUCTION);
+
+            int total = index.size() + index.deletedCount();
+            boolean fragmented = total > 0 && index.deletedCount() > total * MAX_DELETED_RATIO;
+
+            if (index.isRestored() && !fragmented) {
+                logger.info("Loaded similarity index with {} images", index.size());
+                return;
+            }
+
+            index.clear();
+            try (Stream<Object[]> rows = imageRepository.streamVisualEmbeddings()) {
+                Iterator<Object[]> it = rows.iterator();
+                while (it.hasNext()) {
+                    Object[] row = it.next();
+                    float[] embedding = VisualEmbedding.fromBytes((byte[]) row[1]);
+                    if (embedding != null) {
+                        index.add((UUID) row[0], embedding);
+                    }
+                }
+            }
+            logger.info("Built similarity index with {} images in {} ms",
+                    index.size(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            // Similar images are optional, the rest of the catalog keeps working
+            logger.error("Failed to open similarity index: {}", e.getMessage(), e);
+            index = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write the upper graph layers so the next start can reuse the index
+     */
+    @PreDestroy
+    public void closeIndex() {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.close();
+                index = null;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to close similarity index: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add an image after upload or drop it once it is no longer publicly listed
+     */
+    public void indexImage(Image image) {
+        if (!Boolean.TRUE.equals(image.getIsAvailable()) || Boolean.TRUE.equals(image.getIsMatureContent())) {
+            removeImage(image.getId());
+            return;
+        }
+
+        float[] embedding = VisualEmbedding.fromBytes(image.getVisualEmbedding());
+        if (embedding == null) return;
+
+        lock.writeLock().lock();
+        try {
+            // The file never changes after upload, so an indexed image stays as it is
+            if (index != null && !index.contains(image.getId())) {
+                index.add(image.getId(), embedding);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to index image {} for similarity search: {}", image.getId(), e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeImage(UUID imageId) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.remove(imageId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the images most similar to the given one, most similar first
+     */
+    public List<UUID> findSimilarImageIds(UUID imageId, byte[] storedEmbedding, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_SIMILAR));
+
+        lock.readLock().lock();
+        try {
+            if (index == null) return Collections.emptyList();
+
+            // Unlisted images are not in the index but can still be compared by their stored embedding
+            float[] embedding = index.vector(imageId);
+            if (embedding == null) {
+                embedding = VisualEmbedding.fromBytes(storedEmbedding);
+            }
+            if (embedding == null) return Collections.emptyList();
+
+            List<UUID> ids = new ArrayList<>(size);
+            for (HnswIndex.Neighbour neighbour : index.search(embedding, size + 1, EF_SEARCH)) {
+                if (neighbour.getId().equals(imageId)) continue;
+                ids.add(neighbour.getId());
+                if (ids.size() == size) break;
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
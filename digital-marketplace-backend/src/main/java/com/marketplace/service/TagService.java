@@ -0,0 +1,183 @@
+package com.marketplace.service;
+
+import com.marketplace.model.dto.response.TagResponse;
+import com.marketplace.model.entity.Image;
+import com.marketplace.model.entity.Tag;
+import com.marketplace.repository.ImageRepository;
+import com.marketplace.repository.TagRepository;
+import com.marketplace.search.SearchText;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the normalized tag dictionary and the image-tag postings.
+ *
+ * Tag names are interned to numeric ids, so tag filters and popularity
+ * ranking use the {@code image_tags} and {@code tags.image_count} indexes
+ * instead of scanning the jsonb tag lists.
+ */
+@Service
+@Transactional
+public class TagService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagService.class);
+
+    private static final int MAX_POPULAR_TAGS = 100;
+    private static final int MAX_TAG_LENGTH = 100;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Tags are never deleted, so committed name -> id pairs stay valid
+    private final Map<String, Long> tagIds = new ConcurrentHashMap<>();
+
+    /**
+     * Point an image's tag postings at its current tags and AI tags
+     */
+    public void syncImageTags(Image image) {
+        Map<String, String> wanted = collectTagNames(image);
+        Set<Tag> current = image.getNormalizedTags();
+
+        Set<String> currentNames = current.stream().map(Tag::getName).collect(Collectors.toSet());
+        if (currentNames.equals(wanted.keySet())) return;
+
+        List<Tag> resolved = wanted.isEmpty() ? Collections.emptyList() : resolveTags(wanted);
+
+        Set<Long> before = current.stream().map(Tag::getId).collect(Collectors.toSet());
+        Set<Long> after = resolved.stream().map(Tag::getId).collect(Collectors.toSet());
+
+        Set<Long> added = new HashSet<>(after);
+        added.removeAll(before);
+        Set<Long> removed = new HashSet<>(before);
+        removed.removeAll(after);
+
+        current.clear();
+        current.addAll(resolved);
+
+        if (!added.isEmpty()) tagRepository.adjustImageCount(added, 1);
+        if (!removed.isEmpty()) tagRepository.adjustImageCount(removed, -1);
+    }
+
+    /**
+     * Remove all postings of an image that is no longer listed
+     */
+    public void clearImageTags(Image image) {
+        Set<Tag> current = image.getNormalizedTags();
+        if (current.isEmpty()) return;
+
+        Set<Long> removed = current.stream().map(Tag::getId).collect(Collectors.toSet());
+        current.clear();
+        tagRepository.adjustImageCount(removed, -1);
+    }
+
+    /**
+     * Look up the interned id of a tag, null if nobody ever used it
+     */
+    @Transactional(readOnly = true)
+    public Long findTagId(String tag) {
+        String name = SearchText.normalize(tag);
+        Long cached = tagIds.get(name);
+        if (cached != null) return cached;
+
+        Long id = tagRepository.findByName(name).map(Tag::getId).orElse(null);
+        if (id != null) {
+            tagIds.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * Get the most used tags from the precomputed counts
+     */
+    @Transactional(readOnly = true)
+    public List<TagResponse> getPopularTags(int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_POPULAR_TAGS));
+        return tagRepository.findByImageCountGreaterThanOrderByImageCountDesc(0, PageRequest.of(0, size))
+                .stream()
+                .map(tag -> new TagResponse(tag.getName(), tag.getDisplayName(), tag.getImageCount()))
+                .toList();
+    }
+
+    /**
+     * Rebuild the postings of every image from its jsonb tags (admin only)
+     */
+    public int reindexAllImages() {
+        logger.info("Reindexing image tags");
+
+        int processed = 0;
+        UUID lastId = new UUID(0L, 0L);
+        List<Image> batch = imageRepository.findTop500ByIdGreaterThanOrderByIdAsc(lastId);
+
+        while (!batch.isEmpty()) {
+            for (Image image : batch) {
+                if (Boolean.TRUE.equals(image.getIsAvailable())) {
+                    syncImageTags(image);
+                } else {
+                    clearImageTags(image);
+                }
+            }
+            processed += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+
+            // Keep the persistence context from growing with the catalog
+            entityManager.flush();
+            entityManager.clear();
+
+            batch = imageRepository.findTop500ByIdGreaterThanOrderByIdAsc(lastId);
+        }
+
+        logger.info("Reindexed tags of {} images", processed);
+        return processed;
+    }
+
+    // Private helper methods
+
+    private Map<String, String> collectTagNames(Image image) {
+        Map<String, String> names = new LinkedHashMap<>();
+        addTagNames(names, image.getTags());
+        addTagNames(names, image.getAiTags());
+        return names;
+    }
+
+    private void addTagNames(Map<String, String> names, List<String> tags) {
+        if (tags == null) return;
+        for (String tag : tags) {
+            String name = SearchText.normalize(tag);
+            if (name.isEmpty() || name.length() > MAX_TAG_LENGTH) continue;
+            names.putIfAbsent(name, tag.trim());
+        }
+    }
+
+    private List<Tag> resolveTags(Map<String, String> wanted) {
+        List<Tag> tags = new ArrayList<>(tagRepository.findByNameIn(wanted.keySet()));
+        tags.forEach(tag -> tagIds.put(tag.getName(), tag.getId()));
+
+        Set<String> missing = new HashSet<>(wanted.keySet());
+        tags.forEach(tag -> missing.remove(tag.getName()));
+
+        if (!missing.isEmpty()) {
+            // New tags are not cached until a later lookup sees them committed
+            for (String name : missing) {
+                tagRepository.insertIfAbsent(name, wanted.get(name));
+            }
+            tags.addAll(tagRepository.findByNameIn(missing));
+        }
+        return tags;
+    }
+}
@@ -9,6 +9,8 @@ import com.marketplace.model.dto.request.PurchaseRequest;
 import com.marketplace.model.dto.response.TransactionResponse;
 import com.marketplace.model.entity.*;
 import com.marketplace.model.enums.*;
+import com.marketplace.payment.PaymentIntent;
+import com.marketplace.payment.PaymentIntentRequest;
 import com.marketplace.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,12 +18,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -30,6 +39,8 @@ public class TransactionService {
     
     private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
     
+    private static final String PURCHASE_SCOPE = "purchase";
+    
     @Autowired
     private TransactionRepository transactionRepository;
     
@@ -54,129 +65,139 @@ public class TransactionService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
     @Autowired
     private ApplicationPropertiesProvider appProperties;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     /**
-     * Initiate purchase of an image
+     * Initiate purchase of an image. The image is held for the buyer while they pay; a
+     * retry with the same idempotency key returns the transaction the first request created.
+     * The pending transaction commits before the payment gateway is called and the payment
+     * intent is stored in a second short transaction, so no locks are held while waiting.
      */
-    public TransactionResponse initiatePurchase(UUID buyerId, PurchaseRequest request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TransactionResponse initiatePurchase(UUID buyerId, PurchaseRequest request, String idempotencyKey) {
         logger.info("Initiating purchase for buyer {} of image {}", buyerId, request.getImageId());
         
-        // Validate buyer
-        User buyer = userService.getUserById(buyerId);
-        userService.validateUserAction(buyerId, UserRole.BUYER);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        PendingPurchase pending = transactionTemplate.execute(status -> startPurchase(buyerId, request, idempotencyKey));
         
-        // Get and validate image
-        Image image = imageRepository.findById(request.getImageId())
-                .orElseThrow(() -> new ResourceNotFoundException("Image", "id", request.getImageId()));
-        
-        User seller = image.getCurrentOwner();
+        if (pending.replayed) {
+            return transactionTemplate.execute(status -> mapToResponse(findTransaction(pending.transactionId)));
+        }
         
-        // Validate purchase
-        validatePurchase(buyer, seller, image);
+        PaymentIntent intent;
+        try {
+            intent = paymentService.createPaymentIntent(pending.paymentRequest);
+        } catch (PaymentException e) {
+            logger.error("Failed to create payment intent for transaction {}: {}", pending.transactionId, e.getMessage());
+            
+            // Release the image, and the key so a retry can try again
+            transactionTemplate.executeWithoutResult(status -> {
+                abandonPurchase(pending.transactionId, e.getMessage());
+                if (idempotencyKey != null) {
+                    idempotencyService.release(buyerId, PURCHASE_SCOPE, idempotencyKey);
+                }
+            });
+            throw new PaymentException("Failed to initiate payment: " + e.getMessage(), e);
+        }
         
-        // Create transaction
-        Transaction transaction = new Transaction();
-        transaction.setImage(image);
-        transaction.setBuyer(buyer);
-        transaction.setSeller(seller);
-        transaction.setTransactionType(TransactionType.PURCHASE);
-        transaction.setGrossAmount(image.getPrice());
-        transaction.setCurrency(image.getCurrency());
-        transaction.setPaymentStatus(PaymentStatus.PENDING);
-        transaction.setTaxRegion(request.getTaxRegion());
-        transaction.setVatNumber(request.getVatNumber());
+        return transactionTemplate.execute(status -> attachPaymentIntent(pending.transactionId, intent.getId()));
+    }
+    
+    /**
+     * Start the purchase of an auction item by the bidder who won it, at the winning price.
+     * The auction has already been closed, so only the parties are validated. The payment
+     * intent is requested once the caller's transaction has committed.
+     */
+    public TransactionResponse initiateAuctionPurchase(UUID buyerId, UUID imageId, BigDecimal amount) {
+        logger.info("Initiating auction purchase for buyer {} of image {} at {}", buyerId, imageId, amount);
         
-        // Calculate amounts
-        calculateTransactionAmounts(transaction, request.getTaxRate());
+        User buyer = userService.getUserById(buyerId);
+        Image image = imageRepository.findById(imageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Image", "id", imageId));
+        User seller = image.getCurrentOwner();
         
-        // Generate invoice number
-        transaction.setInvoiceNumber(generateInvoiceNumber());
+        validateParties(buyer, seller, image);
         
-        Transaction savedTransaction = transactionRepository.save(transaction);
+        PurchaseRequest request = new PurchaseRequest();
+        request.setImageId(imageId);
+        Transaction transaction = createPendingTransaction(buyer, seller, image, amount, request);
+        PaymentIntentRequest paymentRequest = paymentRequestFor(transaction);
         
-        try {
-            // Create payment intent with Stripe
-            String paymentIntentId = paymentService.createPaymentIntent(savedTransaction);
-            transaction.setPaymentIntentId(paymentIntentId);
-            transactionRepository.save(transaction);
-            
-            // Send notification to seller
-            notificationService.sendSellerNotification(seller, "New Purchase", 
-                String.format("Someone wants to buy your image '%s'", image.getTitle()));
-            
-            logger.info("Successfully initiated purchase transaction: {}", savedTransaction.getId());
-            return mapToResponse(savedTransaction);
-            
-        } catch (Exception e) {
-            logger.error("Failed to create payment intent for transaction {}: {}", 
-                        savedTransaction.getId(), e.getMessage(), e);
-            
-            // Mark transaction as failed
-            transaction.setPaymentStatus(PaymentStatus.FAILED);
-            transaction.setFailureReason(e.getMessage());
-            transactionRepository.save(transaction);
-            
-            throw new PaymentException("Failed to initiate payment: " + e.getMessage());
-        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestPaymentIntentLater(paymentRequest);
+            }
+        });
+        return mapToResponse(transaction);
     }
     
     /**
-     * Complete purchase after successful payment
+     * Complete purchase after successful payment. The payment is verified with no transaction
+     * open, then one short transaction marks the transaction completed, hands the image to the
+     * buyer and records a PurchaseCompleted outbox event. Ownership history, seller statistics,
+     * emails and the audit log follow from that event, see PurchaseSaga.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void completePurchase(String paymentIntentId) {
         logger.info("Completing purchase for payment intent: {}", paymentIntentId);
         
-        Transaction transaction = transactionRepository.findByPaymentIntentId(paymentIntentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "paymentIntentId", paymentIntentId));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Transaction transaction = transactionTemplate.execute(status -> 
+            transactionRepository.findByPaymentIntentId(paymentIntentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "paymentIntentId", paymentIntentId)));
         
         if (transaction.getPaymentStatus() == PaymentStatus.COMPLETED) {
             logger.warn("Transaction {} already completed", transaction.getId());
             return;
         }
+        if (transaction.getPaymentStatus() != PaymentStatus.PENDING) {
+            logger.error("Payment {} succeeded for transaction {} which is {}, it has to be refunded",
+                        paymentIntentId, transaction.getId(), transaction.getPaymentStatus());
+            return;
+        }
         
-        try {
-            // Verify payment with Stripe
-            boolean paymentVerified = paymentService.verifyPayment(paymentIntentId);
-            
-            if (!paymentVerified) {
-                throw new PaymentException("Payment verification failed");
-            }
-            
-            // Update transaction status
-            transaction.setPaymentStatus(PaymentStatus.COMPLETED);
-            transaction.setCompletedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
-            
-            // Transfer ownership
-            transferImageOwnership(transaction);
-            
-            // Update seller statistics
-            userService.recordSale(transaction.getSeller().getId(), 
-                                 transaction.getGrossAmount(), 
-                                 transaction.getPlatformCommission());
-            
-            // Send notifications
-            emailService.sendPurchaseConfirmationEmail(transaction.getBuyer(), transaction);
-            emailService.sendSaleNotificationEmail(transaction.getSeller(), transaction);
-            
-            // Create audit log
-            auditService.logTransactionCompleted(transaction);
-            
-            logger.info("Successfully completed purchase transaction: {}", transaction.getId());
-            
-        } catch (Exception e) {
-            logger.error("Failed to complete purchase {}: {}", transaction.getId(), e.getMessage(), e);
-            
-            // Mark transaction as failed
-            transaction.setPaymentStatus(PaymentStatus.FAILED);
-            transaction.setFailureReason(e.getMessage());
-            transaction.setFailedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
-            
-            throw new PaymentException("Failed to complete purchase: " + e.getMessage());
+        // Verify payment with the provider
+        if (!paymentService.verifyPayment(paymentIntentId)) {
+            transactionTemplate.executeWithoutResult(status -> 
+                abandonPurchase(transaction.getId(), "Payment verification failed"));
+            throw new PaymentException("Payment verification failed");
         }
+        
+        transactionTemplate.executeWithoutResult(status -> recordCompletion(transaction.getId()));
+    }
+    
+    /**
+     * Mark a pending purchase as failed after the payment provider declined or cancelled it,
+     * and release the buyer's hold on the image
+     */
+    public void failPurchase(String paymentIntentId, String reason) {
+        logger.info("Failing purchase for payment intent {}: {}", paymentIntentId, reason);
+        
+        Transaction transaction = transactionRepository.findByPaymentIntentId(paymentIntentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "paymentIntentId", paymentIntentId));
+        
+        if (transaction.getPaymentStatus() != PaymentStatus.PENDING) {
+            logger.warn("Transaction {} is {}, not failing it", transaction.getId(), transaction.getPaymentStatus());
+            return;
+        }
+        
+        transaction.setPaymentStatus(PaymentStatus.FAILED);
+        transaction.setFailureReason(reason);
+        transaction.setFailedAt(LocalDateTime.now());
+        transactionRepository.save(transaction);
+        
+        imageRepository.releaseReservation(transaction.getImage().getId(), transaction.getBuyer().getId());
     }
     
     /**
@@ -307,18 +328,150 @@ public class TransactionService {
     }
     
     // Private helper methods
+
+    private PendingPurchase startPurchase(UUID buyerId, PurchaseRequest request, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<UUID> previous = idempotencyService.claim(buyerId, PURCHASE_SCOPE, idempotencyKey,
+                                                               purchaseRequestHash(request));
+            if (previous.isPresent()) {
+                return new PendingPurchase(previous.get(), null, true);
+            }
+        }
+        
+        // Validate buyer
+        User buyer = userService.getUserById(buyerId);
+        userService.validateUserAction(buyerId, UserRole.BUYER);
+        
+        // Get and validate image
+        Image image = imageRepository.findById(request.getImageId())
+                .orElseThrow(() -> new ResourceNotFoundException("Image", "id", request.getImageId()));
+        
+        User seller = image.getCurrentOwner();
+        
+        // Validate purchase
+        validatePurchase(buyer, seller, image);
+        reserveImage(buyer, image);
+        
+        Transaction transaction = createPendingTransaction(buyer, seller, image, image.getPrice(), request);
+        
+        if (idempotencyKey != null) {
+            idempotencyService.complete(buyerId, PURCHASE_SCOPE, idempotencyKey, transaction.getId());
+        }
+        return new PendingPurchase(transaction.getId(), paymentRequestFor(transaction), false);
+    }
     
-    private void validatePurchase(User buyer, User seller, Image image) {
-        // Check if image is available
-        if (!image.getIsAvailable()) {
-            throw new BadRequestException("Image is not available for purchase");
+    private Transaction createPendingTransaction(User buyer, User seller, Image image, BigDecimal grossAmount,
+                                                 PurchaseRequest request) {
+        // Create transaction
+        Transaction transaction = new Transaction();
+        transaction.setImage(image);
+        transaction.setBuyer(buyer);
+        transaction.setSeller(seller);
+        transaction.setTransactionType(TransactionType.PURCHASE);
+        transaction.setGrossAmount(grossAmount);
+        transaction.setCurrency(image.getCurrency());
+        transaction.setPaymentStatus(PaymentStatus.PENDING);
+        transaction.setTaxRegion(request.getTaxRegion());
+        transaction.setVatNumber(request.getVatNumber());
+        
+        // Calculate amounts
+        calculateTransactionAmounts(transaction, request.getTaxRate());
+        
+        // Generate invoice number
+        transaction.setInvoiceNumber(generateInvoiceNumber());
+        
+        return transactionRepository.save(transaction);
+    }
+    
+    private PaymentIntentRequest paymentRequestFor(Transaction transaction) {
+        BigDecimal amount = transaction.getGrossAmount();
+        if (transaction.getTaxAmount() != null) {
+            amount = amount.add(transaction.getTaxAmount());
         }
+        return new PaymentIntentRequest(transaction.getId(), amount.setScale(2, RoundingMode.HALF_UP),
+                transaction.getCurrency(), "Invoice " + transaction.getInvoiceNumber());
+    }
+    
+    private TransactionResponse attachPaymentIntent(UUID transactionId, String paymentIntentId) {
+        Transaction transaction = findTransaction(transactionId);
+        transaction.setPaymentIntentId(paymentIntentId);
+        transactionRepository.save(transaction);
         
-        // Check if buyer is trying to buy their own image
-        if (buyer.getId().equals(seller.getId())) {
-            throw new BadRequestException("You cannot purchase your own image");
+        // Send notification to seller
+        notificationService.sendSellerNotification(transaction.getSeller(), "New Purchase", 
+            String.format("Someone wants to buy your image '%s'", transaction.getImage().getTitle()));
+        
+        logger.info("Successfully initiated purchase transaction: {}", transactionId);
+        return mapToResponse(transaction);
+    }
+    
+    private void abandonPurchase(UUID transactionId, String reason) {
+        Transaction transaction = findTransaction(transactionId);
+        transaction.setPaymentStatus(PaymentStatus.FAILED);
+        transaction.setFailureReason(reason);
+        transaction.setFailedAt(LocalDateTime.now());
+        transactionRepository.save(transaction);
+        
+        imageRepository.releaseReservation(transaction.getImage().getId(), transaction.getBuyer().getId());
+    }
+    
+    private void recordCompletion(UUID transactionId) {
+        Transaction transaction = findTransaction(transactionId);
+        
+        // A concurrent delivery of the same confirmation got here first
+        if (transaction.getPaymentStatus() != PaymentStatus.PENDING) {
+            logger.warn("Transaction {} is already {}", transactionId, transaction.getPaymentStatus());
+            return;
         }
         
+        Image image = transaction.getImage();
+        
+        // The hold may have run out and the image been sold to someone else meanwhile
+        if (imageRepository.transferOwnership(image.getId(), transaction.getSeller(), transaction.getBuyer()) == 0) {
+            transaction.setPaymentStatus(PaymentStatus.FAILED);
+            transaction.setFailureReason("Image was sold to another buyer while the payment was pending");
+            transaction.setFailedAt(LocalDateTime.now());
+            transactionRepository.save(transaction);
+            logger.error("Transaction {} was paid but image {} was sold meanwhile, it has to be refunded",
+                        transactionId, image.getId());
+            return;
+        }
+        imageRepository.releaseReservation(image.getId(), transaction.getBuyer().getId());
+        
+        // Update transaction status, the version check stops a concurrent completion
+        transaction.setPaymentStatus(PaymentStatus.COMPLETED);
+        transaction.setCompletedAt(LocalDateTime.now());
+        transactionRepository.save(transaction);
+        
+        outboxService.publish(PurchaseSaga.PURCHASE_COMPLETED, transactionId);
+        
+        logger.info("Successfully completed purchase transaction: {}", transactionId);
+    }
+    
+    private void requestPaymentIntentLater(PaymentIntentRequest paymentRequest) {
+        UUID transactionId = paymentRequest.getTransactionId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        
+        paymentService.createPaymentIntentAsync(paymentRequest).whenComplete((intent, error) -> {
+            try {
+                if (error == null) {
+                    transactionTemplate.executeWithoutResult(status -> attachPaymentIntent(transactionId, intent.getId()));
+                } else {
+                    logger.error("Failed to create payment intent for transaction {}: {}", transactionId, error.getMessage());
+                    transactionTemplate.executeWithoutResult(status -> abandonPurchase(transactionId, error.getMessage()));
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to store payment intent of transaction {}: {}", transactionId, e.getMessage(), e);
+            }
+        });
+    }
+    
+    private Transaction findTransaction(UUID transactionId) {
+        return transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", transactionId));
+    }
+    
+    private void validatePurchase(User buyer, User seller, Image image) {
         // Check if it's an auction and if it's active
         if (image.getSaleType() == SaleType.AUCTION) {
             if (!image.isAuctionActive()) {
@@ -327,6 +480,34 @@ public class TransactionService {
             throw new BadRequestException("Auction items must be purchased through bidding");
         }
         
+        validateParties(buyer, seller, image);
+    }
+    
+    private void reserveImage(User buyer, Image image) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusMinutes(appProperties.getPurchase().getHoldMinutes());
+        
+        if (imageRepository.reserveForPurchase(image.getId(), buyer.getId(), now, until) == 0) {
+            throw new BadRequestException("Image is reserved by another buyer, please try again later");
+        }
+    }
+    
+    private int purchaseRequestHash(PurchaseRequest request) {
+        BigDecimal taxRate = request.getTaxRate() != null ? request.getTaxRate().stripTrailingZeros() : null;
+        return Objects.hash(request.getImageId(), request.getTaxRegion(), request.getVatNumber(), taxRate);
+    }
+    
+    private void validateParties(User buyer, User seller, Image image) {
+        // Check if image is available
+        if (!image.getIsAvailable()) {
+            throw new BadRequestException("Image is not available for purchase");
+        }
+        
+        // Check if buyer is trying to buy their own image
+        if (buyer.getId().equals(seller.getId())) {
+            throw new BadRequestException("You cannot purchase your own image");
+        }
+        
         // Check buyer status
         if (buyer.getStatus() != UserStatus.ACTIVE) {
             throw new BadRequestException("Your account is not active");
@@ -383,37 +564,6 @@ public class TransactionService {
                 .setScale(2, RoundingMode.HALF_UP);
     }
 
-    private void transferImageOwnership(Transaction transaction) {
-        Image image = transaction.getImage();
-        User previousOwner = image.getCurrentOwner();
-        User newOwner = transaction.getBuyer();
-        
-        // Update image ownership
-        image.setCurrentOwner(newOwner);
-        image.incrementDownloadCount(); // Buyer gets download access
-        imageRepository.save(image);
-        
-        // Create ownership history record
-        OwnershipHistory ownershipHistory = new OwnershipHistory();
-        ownershipHistory.setImage(image);
-        ownershipHistory.setPreviousOwner(previousOwner);
-        ownershipHistory.setNewOwner(newOwner);
-        ownershipHistory.setTransaction(transaction);
-        ownershipHistory.setTransferType(TransferType.PURCHASE);
-        ownershipHistory.setTransferDate(LocalDateTime.now());
-        ownershipHistory.setPurchasePrice(transaction.getGrossAmount());
-        ownershipHistory.setCurrency(transaction.getCurrency());
-        
-        ownershipHistoryRepository.save(ownershipHistory);
-        
-        // Link ownership history to transaction
-        transaction.setOwnershipHistory(ownershipHistory);
-        transactionRepository.save(transaction);
-        
-        logger.info("Transferred ownership of image {} from {} to {}", 
-                   image.getId(), previousOwner.getId(), newOwner.getId());
-    }
-    
     private void reverseOwnershipTransfer(Transaction transaction) {
         OwnershipHistory ownershipHistory = transaction.getOwnershipHistory();
         if (ownershipHistory == null) {
@@ -511,4 +661,17 @@ public class TransactionService {
         response.setFailureReason(transaction.getFailureReason());
         return response;
     }
-}
\ No newline at end of file
+    
+    // Outcome of the first purchase transaction: a new pending purchase, or a replayed one
+    private static final class PendingPurchase {
+        private final UUID transactionId;
+        private final PaymentIntentRequest paymentRequest;
+        private final boolean replayed;
+        
+        private PendingPurchase(UUID transactionId, PaymentIntentRequest paymentRequest, boolean replayed) {
+            this.transactionId = transactionId;
+            this.paymentRequest = paymentRequest;
+            this.replayed = replayed;
+        }
+    }
+}
@@ -7,9 +7,12 @@ import com.marketplace.model.dto.response.UserProfileResponse;
 import com.marketplace.model.dto.request.UserProfileUpdateRequest;
 import com.marketplace.model.dto.request.UserRegistrationRequest;
 import com.marketplace.model.dto.response.UserStatusResponse;
+import com.marketplace.model.entity.SellerBalance;
 import com.marketplace.model.entity.User;
 import com.marketplace.model.enums.UserRole;
 import com.marketplace.model.enums.UserStatus;
+import com.marketplace.repository.SellerBalanceRepository;
+import com.marketplace.repository.SellerEarningsEntryRepository;
 import com.marketplace.repository.UserRepository;
 import com.marketplace.security.PasswordEncoder;
 import org.slf4j.Logger;
@@ -17,12 +20,22 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -30,15 +43,26 @@ public class UserService {
     
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     
+    private static final long ELIGIBILITY_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private SellerEarningsEntryRepository earningsEntryRepository;
+    
+    @Autowired
+    private SellerBalanceRepository sellerBalanceRepository;
+    
     @Autowired
     private PasswordEncoder passwordEncoder;
     
     @Autowired
     private EmailService emailService;
     
+    // Role, status and name of recent bidders, so the bid path does not load the user on every bid
+    private final Map<UUID, Eligibility> eligibility = new ConcurrentHashMap<>();
+    
     /**
      * Register a new user
      */
@@ -133,6 +157,7 @@ public class UserService {
         }
         
         User updatedUser = userRepository.save(user);
+        evictEligibility(userId);
         logger.info("Successfully updated profile for user ID: {}", userId);
         
         return updatedUser;
@@ -152,6 +177,7 @@ public class UserService {
         
         user.setRole(UserRole.SELLER);
         userRepository.save(user);
+        evictEligibility(userId);
         
         // Send seller welcome email
         emailService.sendSellerWelcomeEmail(user);
@@ -169,14 +195,25 @@ public class UserService {
     }
     
     /**
-     * Add sale to user's statistics
+     * Add a transaction's sale to the seller's earnings ledger and balance.
+     * Recording the same transaction again changes nothing; the users row is never written.
      */
-    public void recordSale(UUID sellerId, BigDecimal grossAmount, BigDecimal commission) {
+    public void recordSale(UUID transactionId, UUID sellerId, BigDecimal grossAmount, BigDecimal commission) {
         logger.info("Recording sale for seller {}: gross={}, commission={}", sellerId, grossAmount, commission);
         
-        User seller = getUserById(sellerId);
-        seller.addSale(grossAmount, commission);
-        userRepository.save(seller);
+        BigDecimal gross = grossAmount != null ? grossAmount : BigDecimal.ZERO;
+        BigDecimal fee = commission != null ? commission : BigDecimal.ZERO;
+        BigDecimal net = gross.subtract(fee);
+        LocalDateTime now = LocalDateTime.now();
+        
+        int appended = earningsEntryRepository.append(UUID.randomUUID(), sellerId, transactionId, gross, fee, net, now);
+        if (appended == 0) {
+            logger.debug("Sale of transaction {} is already in the ledger", transactionId);
+            return;
+        }
+        if (sellerBalanceRepository.add(sellerId, gross, net, now) == 0) {
+            throw new ResourceNotFoundException("User", "id", sellerId);
+        }
     }
     
     /**
@@ -188,7 +225,10 @@ public class UserService {
             java.util.Arrays.asList(UserRole.SELLER, UserRole.PREMIUM_SELLER), 
             pageable
         );
-        return sellers.map(this::mapToProfileResponse);
+        List<UUID> sellerIds = sellers.map(User::getId).getContent();
+        Map<UUID, SellerBalance> balances = sellerBalanceRepository.findAllById(sellerIds).stream()
+                .collect(Collectors.toMap(SellerBalance::getSellerId, Function.identity()));
+        return sellers.map(seller -> mapToProfileResponse(seller, balances.get(seller.getId())));
     }
     
     /**
@@ -222,6 +262,7 @@ public class UserService {
         User user = getUserById(userId);
         user.setStatus(UserStatus.SUSPENDED);
         userRepository.save(user);
+        evictEligibility(userId);
         
         // Send suspension email
         emailService.sendAccountSuspensionEmail(user, reason);
@@ -241,6 +282,7 @@ public class UserService {
         
         user.setStatus(UserStatus.ACTIVE);
         userRepository.save(user);
+        evictEligibility(userId);
         
         // Send reactivation email
         emailService.sendAccountReactivationEmail(user);
@@ -263,16 +305,65 @@ public class UserService {
      */
     public void validateUserAction(UUID userId, UserRole requiredRole) {
         User user = getUserById(userId);
+        checkEligible(user.getStatus(), user.getRole(), requiredRole);
+    }
+    
+    /**
+     * Check that a user may bid. Role, status and name are cached for a short time and
+     * evicted when an account is suspended, reactivated, upgraded or deleted.
+     * Returns a detached user holding only id and name, enough for the bid's response.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public User validateBidder(UUID userId) {
+        Eligibility cached = eligibility.get(userId);
+        if (cached == null || cached.isExpired(System.nanoTime())) {
+            User user = getUserById(userId);
+            cached = new Eligibility(user.getStatus(), user.getRole(), user.getFirstName(), user.getLastName(),
+                    System.nanoTime() + ELIGIBILITY_TTL_NANOS);
+            eligibility.put(userId, cached);
+        }
+        checkEligible(cached.status, cached.role, UserRole.BUYER);
         
-        if (user.getStatus() != UserStatus.ACTIVE) {
+        User bidder = new User();
+        bidder.setId(userId);
+        bidder.setFirstName(cached.firstName);
+        bidder.setLastName(cached.lastName);
+        return bidder;
+    }
+    
+    /**
+     * Drop expired bidder eligibility entries
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredEligibility() {
+        long now = System.nanoTime();
+        eligibility.values().removeIf(entry -> entry.isExpired(now));
+    }
+    
+    private void checkEligible(UserStatus status, UserRole role, UserRole requiredRole) {
+        if (status != UserStatus.ACTIVE) {
             throw new UnauthorizedException("User account is not active");
         }
         
-        if (requiredRole != null && !hasRequiredRole(user.getRole(), requiredRole)) {
+        if (requiredRole != null && !hasRequiredRole(role, requiredRole)) {
             throw new UnauthorizedException("User does not have required permissions");
         }
     }
     
+    private void evictEligibility(UUID userId) {
+        eligibility.remove(userId);
+        
+        // A bid racing the update may have cached the old state again before it committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eligibility.remove(userId);
+                }
+            });
+        }
+    }
+    
     private boolean hasRequiredRole(UserRole userRole, UserRole requiredRole) {
         if (userRole == UserRole.ADMIN) return true; // Admin can do everything
         
@@ -285,6 +376,10 @@ public class UserService {
     }
     
     private UserProfileResponse mapToProfileResponse(User user) {
+        return mapToProfileResponse(user, sellerBalanceRepository.findById(user.getId()).orElse(null));
+    }
+    
+    private UserProfileResponse mapToProfileResponse(User user, SellerBalance balance) {
         UserProfileResponse response = new UserProfileResponse();
         response.setId(user.getId().toString());
         response.setEmail(user.getEmail());
@@ -297,8 +392,9 @@ public class UserService {
         response.setCountryCode(user.getCountryCode());
         response.setEmailVerified(user.getEmailVerified());
         response.setSellerRating(user.getSellerRating());
-        response.setTotalSales(user.getTotalSales());
-        response.setTotalEarnings(user.getTotalEarnings());
+        // Sellers without a sale since the ledger was introduced still show their totals from users
+        response.setTotalSales(balance != null ? balance.getTotalSales() : user.getTotalSales());
+        response.setTotalEarnings(balance != null ? balance.getTotalEarnings() : user.getTotalEarnings());
         response.setCreatedAt(user.getCreatedAt());
         response.setLastLoginAt(user.getLastLoginAt());
         return response;
@@ -311,11 +407,12 @@ public class UserService {
 
     public UserStatusResponse getUserPublicStats(UUID userId) {
         User user = getUserById(userId);
+        SellerBalance balance = sellerBalanceRepository.findById(userId).orElse(null);
         UserStatusResponse response = new UserStatusResponse();
         response.setStatus(user.getStatus());
         response.setSellerRating(user.getSellerRating());
-        response.setTotalSales(user.getTotalSales());
-        response.setTotalEarnings(user.getTotalEarnings());
+        response.setTotalSales(balance != null ? balance.getTotalSales() : user.getTotalSales());
+        response.setTotalEarnings(balance != null ? balance.getTotalEarnings() : user.getTotalEarnings());
         return response;
     }
 
@@ -323,6 +420,27 @@ public class UserService {
         User user = getUserById(id);
         user.setStatus(UserStatus.DELETED);
         userRepository.save(user);
+        evictEligibility(id);
         logger.info("User account {} marked as deleted", id);
     }
-}
\ No newline at end of file
+
+    private static final class Eligibility {
+        private final UserStatus status;
+        private final UserRole role;
+        private final String firstName;
+        private final String lastName;
+        private final long expiresAt;
+        
+        private Eligibility(UserStatus status, UserRole role, String firstName, String lastName, long expiresAt) {
+            this.status = status;
+            this.role = role;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.expiresAt = expiresAt;
+        }
+        
+        private boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+}
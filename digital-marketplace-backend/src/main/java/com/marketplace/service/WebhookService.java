@@ -0,0 +1,240 @@
+package com.marketplace.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.exception.BadRequestException;
+import com.marketplace.exception.ResourceNotFoundException;
+import com.marketplace.model.entity.WebhookEvent;
+import com.marketplace.model.enums.WebhookEventStatus;
+import com.marketplace.payment.WebhookSignature;
+import com.marketplace.repository.WebhookEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Takes payment provider webhooks off the request thread.
+ *
+ * An incoming event is verified, stored in {@code webhook_events} and acknowledged;
+ * the provider's event id is the key, so redeliveries are dropped on insert. The table
+ * is the queue: a poller leases due events to a small worker pool, whose handlers run
+ * their own short transactions and may see an event twice. Only the oldest pending
+ * event of a payment intent is due, so events of one intent are applied in the order
+ * the provider created them while different intents run in parallel. Failed events
+ * are retried with exponential backoff and parked as FAILED after the last attempt.
+ * Leases expire, so events held by a node that died are picked up again by the others.
+ */
+@Service
+public class WebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookService.class);
+
+    private static final long LEASE_SECONDS = 60;
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+    private static final Duration KEEP_PROCESSED = Duration.ofDays(7); // Longer than the provider redelivers
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private WebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationPropertiesProvider appProperties;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private ExecutorService workers;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(appProperties.getWebhook().getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "webhook-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Events still leased are retried once the lease runs out
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Verify and store a Stripe event for processing. Returns false for a redelivery of a stored event
+     */
+    @Transactional
+    public boolean receiveStripeEvent(String payload, String signature) {
+        ApplicationPropertiesProvider.Webhook config = appProperties.getWebhook();
+        if (!WebhookSignature.verify(config.getSecret(), signature, payload, config.getToleranceSeconds())) {
+            throw new BadRequestException("Invalid webhook signature");
+        }
+
+        JsonNode event = parse(payload);
+        String id = event.path("id").asText(null);
+        String type = event.path("type").asText(null);
+        if (id == null || type == null) {
+            throw new BadRequestException("Webhook event has no id or type");
+        }
+
+        // Charges and refunds point at their payment intent, intent events are the intent
+        JsonNode object = event.path("data").path("object");
+        String paymentIntentId = "payment_intent".equals(object.path("object").asText())
+                ? object.path("id").asText(null)
+                : object.path("payment_intent").asText(null);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdAt = event.has("created")
+                ? LocalDateTime.ofInstant(Instant.ofEpochSecond(event.get("created").asLong()), ZoneId.systemDefault())
+                : now;
+
+        boolean inserted = webhookEventRepository.insertIfAbsent(id, type, paymentIntentId, payload, createdAt, now) == 1;
+        if (!inserted) {
+            logger.debug("Dropped redelivered webhook event {}", id);
+        }
+        return inserted;
+    }
+
+    /**
+     * Lease due events to the workers, as many as they can take
+     */
+    @Scheduled(fixedDelayString = "${marketplace.webhook.poll-ms:500}")
+    public void processDueEvents() {
+        int capacity = appProperties.getWebhook().getWorkers() * 2 - inFlight.get();
+        if (capacity <= 0) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        List<String> due = webhookEventRepository.findDueHeads(now, capacity);
+        for (String eventId : due) {
+            Integer leased = transactionTemplate.execute(status ->
+                    webhookEventRepository.lease(eventId, now, now.plusSeconds(LEASE_SECONDS)));
+            if (leased == null || leased == 0) continue;
+
+            inFlight.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    process(eventId);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Forget processed events once the provider no longer redelivers them
+     */
+    @Scheduled(initialDelay = 600000, fixedDelay = 3600000)
+    @Transactional
+    public void deleteProcessedEvents() {
+        int deleted = webhookEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(KEEP_PROCESSED));
+        if (deleted > 0) {
+            logger.info("Deleted {} processed webhook events", deleted);
+        }
+    }
+
+    public Map<String, Object> getQueueStats() {
+        return Map.of(
+            "pending", webhookEventRepository.countByStatus(WebhookEventStatus.PENDING),
+            "failed", webhookEventRepository.countByStatus(WebhookEventStatus.FAILED),
+            "inFlight", inFlight.get()
+        );
+    }
+
+    // Private helper methods
+
+    private void process(String eventId) {
+        try {
+            WebhookEvent event = webhookEventRepository.findById(eventId)
+                    .orElseThrow(() -> new ResourceNotFoundException("WebhookEvent", "id", eventId));
+            
+            // Handlers run their own short transactions and tolerate being repeated
+            dispatch(event);
+            transactionTemplate.executeWithoutResult(status ->
+                    webhookEventRepository.markProcessed(eventId, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            recordFailure(eventId, e);
+        }
+    }
+
+    private void dispatch(WebhookEvent event) {
+        switch (event.getType()) {
+            case "payment_intent.succeeded" -> transactionService.completePurchase(event.getPaymentIntentId());
+            case "payment_intent.payment_failed", "payment_intent.canceled" ->
+                    transactionService.failPurchase(event.getPaymentIntentId(), failureReason(event));
+            default -> logger.debug("Ignoring webhook event {} of type {}", event.getId(), event.getType());
+        }
+    }
+
+    private void recordFailure(String eventId, RuntimeException error) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                WebhookEvent event = webhookEventRepository.findById(eventId).orElse(null);
+                if (event == null) return;
+
+                int attempts = event.getAttempts() + 1;
+                boolean givingUp = attempts >= appProperties.getWebhook().getMaxAttempts();
+                long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+                String message = String.valueOf(error.getMessage());
+
+                webhookEventRepository.markAttemptFailed(eventId,
+                        givingUp ? WebhookEventStatus.FAILED : WebhookEventStatus.PENDING,
+                        LocalDateTime.now().plusSeconds(backoff),
+                        message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+
+                if (givingUp) {
+                    logger.error("Giving up on webhook event {} after {} attempts: {}", eventId, attempts, message, error);
+                } else {
+                    logger.warn("Webhook event {} failed (attempt {}), retrying in {}s: {}", eventId, attempts, backoff, message);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Retried once the lease runs out
+            logger.error("Failed to record failure of webhook event {}: {}", eventId, e.getMessage(), e);
+        }
+    }
+
+    private String failureReason(WebhookEvent event) {
+        JsonNode error = parse(event.getPayload()).path("data").path("object").path("last_payment_error");
+        return error.path("message").asText(event.getType());
+    }
+
+    private JsonNode parse(String payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Malformed webhook payload");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.marketplace.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sizes of the JDBC batches a writer achieved, as totals and a power-of-two histogram.
+ * Cheap enough to record on every flush and safe to read from any thread.
+ */
+public class BatchStats {
+
+    private static final int BUCKETS = 16; // 1, 2-3, 4-7, ... 16384+
+
+    private final String name;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong maxSize = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    public BatchStats(String name) {
+        this.name = name;
+    }
+
+    public void record(int size) {
+        if (size <= 0) return;
+
+        batches.incrementAndGet();
+        rows.addAndGet(size);
+        maxSize.accumulateAndGet(size, Math::max);
+        histogram.incrementAndGet(Math.min(BUCKETS - 1, 31 - Integer.numberOfLeadingZeros(size)));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public double getAverageSize() {
+        long count = batches.get();
+        return count == 0 ? 0 : (double) rows.get() / count;
+    }
+
+    /**
+     * Totals plus the batch count per size bucket, keyed by the bucket's lower bound
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = histogram.get(i);
+            if (count > 0) {
+                buckets.put(i == BUCKETS - 1 ? (1 << i) + "+" : String.valueOf(1 << i), count);
+            }
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("batches", getBatches());
+        map.put("rows", getRows());
+        map.put("averageSize", Math.round(getAverageSize() * 10) / 10.0);
+        map.put("maxSize", maxSize.get());
+        map.put("histogram", buckets);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d rows in %d batches (avg %.1f, max %d)",
+                name, getRows(), getBatches(), getAverageSize(), maxSize.get());
+    }
+}
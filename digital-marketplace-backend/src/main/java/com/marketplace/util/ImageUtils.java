@@ -1,5 +1,6 @@
 package com.marketplace.util;
 
+import com.marketplace.search.VisualEmbedding;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
@@ -56,6 +57,15 @@ public final class ImageUtils {
         return Arrays.asList("#000000", "#FFFFFF");
     }
 
+    public static float[] computeVisualEmbedding(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            BufferedImage img = ImageIO.read(in);
+            return img != null ? VisualEmbedding.compute(img) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     public static String getFileExtension(String filename) {
         if (filename == null) return "";
         int idx = filename.lastIndexOf('.');
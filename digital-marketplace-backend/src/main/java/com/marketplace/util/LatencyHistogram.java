@@ -0,0 +1,127 @@
+package com.marketplace.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency distribution in microseconds with about 3% precision, for tail percentiles.
+ *
+ * Values below 64µs get a bucket each; above that every power of two is split into
+ * 32 linear sub-buckets, the same log-linear layout HdrHistogram uses. Recording is
+ * a few arithmetic operations and one atomic increment, so it can sit on the bid
+ * path; reading is safe from any thread while values are being recorded.
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 64;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAGNITUDES = 32; // Up to about three days
+    private static final int BUCKETS = LINEAR_BUCKETS + MAGNITUDES * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(indexOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile, in microseconds
+     */
+    public long getPercentileMicros(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(upperBoundOf(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    /**
+     * Start a new interval, values recorded meanwhile may land on either side
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    /**
+     * Count, mean and percentiles, in microseconds
+     */
+    public Map<String, Object> toMap() {
+        long n = count.get();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", n);
+        map.put("meanMicros", n == 0 ? 0 : totalMicros.get() / n);
+        map.put("p50Micros", getPercentileMicros(50));
+        map.put("p90Micros", getPercentileMicros(90));
+        map.put("p99Micros", getPercentileMicros(99));
+        map.put("p999Micros", getPercentileMicros(99.9));
+        map.put("maxMicros", maxMicros.get());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d calls, p50 %dus, p99 %dus, p99.9 %dus, max %dus", name, count.get(),
+                getPercentileMicros(50), getPercentileMicros(99), getPercentileMicros(99.9), maxMicros.get());
+    }
+
+    // Bucket layout, package-private so tests can check it
+
+    static int indexOf(long micros) {
+        if (micros < LINEAR_BUCKETS) return (int) micros;
+
+        // Shift so the value keeps SUB_BUCKET_BITS + 1 significant bits, the top one always set
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        int magnitude = shift - 1;
+        if (magnitude >= MAGNITUDES) return BUCKETS - 1;
+        return LINEAR_BUCKETS + magnitude * SUB_BUCKETS + (int) ((micros >>> shift) - SUB_BUCKETS);
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < LINEAR_BUCKETS) return index;
+
+        int magnitude = (index - LINEAR_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = magnitude + 1;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.marketplace.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects rows from any thread and hands them to a writer in batches.
+ *
+ * A single background thread flushes as soon as a batch is full, or once the oldest
+ * waiting row has waited for the window, so a quiet system still writes promptly and
+ * a busy one writes in large batches. A batch that fails is retried once and then
+ * dropped, callers only use this for rows they can afford to lose.
+ */
+public class WriteBehindQueue<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private static final int CAPACITY = 100_000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private final String name;
+    private final int batchSize;
+    private final long windowMs;
+    private final Consumer<List<T>> writer;
+    private final BatchStats stats;
+    private final BlockingQueue<T> queue = new LinkedBlockingQueue<>(CAPACITY);
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public WriteBehindQueue(String name, int batchSize, long windowMs, Consumer<List<T>> writer) {
+        this.name = name;
+        this.batchSize = Math.max(1, batchSize);
+        this.windowMs = Math.max(0, windowMs);
+        this.writer = writer;
+        this.stats = new BatchStats(name);
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, name + "-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop taking rows and write what is still queued
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(SHUTDOWN_TIMEOUT_MS);
+
+        List<T> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            flush(new ArrayList<>(rest.subList(from, Math.min(rest.size(), from + batchSize))));
+        }
+    }
+
+    /**
+     * Queue a row, or write it right away when the queue is full
+     */
+    public void add(T row) {
+        if (!running || !queue.offer(row)) {
+            flush(new ArrayList<>(List.of(row)));
+        }
+    }
+
+    public BatchStats getStats() {
+        return stats;
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    // Private helper methods
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                T first = queue.take();
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) continue;
+
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                flush(batch);
+                batch = new ArrayList<>(batchSize);
+            } catch (InterruptedException e) {
+                // Stopping, write what was already taken and leave the rest to stop()
+                flush(batch);
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<T> batch) {
+        if (batch.isEmpty()) return;
+
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                writer.accept(batch);
+                stats.record(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == 2) {
+                    logger.error("Dropping {} {} rows after a failed batch write: {}", batch.size(), name, e.getMessage(), e);
+                } else {
+                    logger.warn("Batch write of {} {} rows failed, retrying: {}", batch.size(), name, e.getMessage());
+                }
+            }
+        }
+    }
+}
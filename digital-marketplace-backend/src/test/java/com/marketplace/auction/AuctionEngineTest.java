@@ -0,0 +1,131 @@
+package com.marketplace.auction;
+
+import com.marketplace.config.ApplicationPropertiesProvider;
+import com.marketplace.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuctionEngineTest {
+
+    private static final long WINDOW_SECONDS = 60;
+
+    @TempDir
+    Path dir;
+
+    private final UUID imageId = UUID.randomUUID();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    @Test
+    void lateBidKeepsItsExtensionWhileTheAuctionIsBeingClosed() throws Exception {
+        AuctionEngine engine = engine();
+        LocalDateTime end = LocalDateTime.now().plusNanos(300_000_000);
+        AuctionState state = register(engine, auction(end, null));
+
+        AtomicReference<Throwable> closeFailure = new AtomicReference<>();
+        Thread closer = new Thread(() -> {
+            try {
+                engine.close(imageId);
+            } catch (Throwable e) {
+                closeFailure.set(e);
+            }
+        });
+
+        // The bid holds the auction's lock when the closer comes due on the original end time
+        state.lock.lock();
+        try {
+            BidOutcome outcome = engine.placeBid(alice, imageId, new BigDecimal("20.00"), null);
+            assertNotNull(outcome.getExtendedEndTime());
+
+            while (LocalDateTime.now().isBefore(end.plusNanos(50_000_000))) {
+                Thread.sleep(10);
+            }
+            closer.start();
+            while (!state.lock.hasQueuedThread(closer)) {
+                Thread.sleep(1);
+            }
+        } finally {
+            state.lock.unlock();
+        }
+        closer.join(5000);
+
+        assertTrue(closeFailure.get() instanceof BadRequestException);
+        assertFalse(state.isClosed());
+
+        // Bidding goes on for the rest of the extension
+        BidOutcome next = engine.placeBid(bob, imageId, new BigDecimal("30.00"), null);
+        assertEquals(bob, next.getAuction().getLeaderId());
+    }
+
+    @Test
+    void closeStopsBiddingOnceTheAuctionHasEnded() throws IOException {
+        AuctionEngine engine = engine();
+        AuctionState state = register(engine, auction(LocalDateTime.now().minusSeconds(1), null));
+
+        engine.close(imageId);
+
+        assertTrue(state.isClosed());
+        assertThrows(BadRequestException.class,
+                () -> engine.placeBid(alice, imageId, new BigDecimal("20.00"), null));
+    }
+
+    @Test
+    void closeAcceptsAnAuctionEndedByBuyNow() throws IOException {
+        AuctionEngine engine = engine();
+        AuctionState state = register(engine, auction(LocalDateTime.now().plusDays(1), new BigDecimal("100.00")));
+
+        BidOutcome outcome = engine.buyNow(alice, imageId);
+
+        assertEquals(outcome.getRecord().getSequence(), engine.close(imageId));
+        assertTrue(state.isClosed());
+    }
+
+    // Private helper methods
+
+    private AuctionEngine engine() throws IOException {
+        ApplicationPropertiesProvider properties = new ApplicationPropertiesProvider();
+        properties.getAuction().setJournalDir(dir.toString());
+        properties.getAuction().setExtendWindowSeconds(WINDOW_SECONDS);
+        properties.getAuction().setExtendBySeconds(WINDOW_SECONDS);
+
+        BidJournal journal = new BidJournal();
+        ReflectionTestUtils.setField(journal, "applicationPropertiesProvider", properties);
+        journal.open();
+
+        AuctionEngine engine = new AuctionEngine();
+        ReflectionTestUtils.setField(engine, "journal", journal);
+        ReflectionTestUtils.setField(engine, "broadcaster", new AuctionEventBroadcaster());
+        ReflectionTestUtils.setField(engine, "metrics", new AuctionMetrics());
+        ReflectionTestUtils.setField(engine, "applicationPropertiesProvider", properties);
+        return engine;
+    }
+
+    private AuctionState auction(LocalDateTime end, BigDecimal buyNowPrice) {
+        return new AuctionState(imageId, UUID.randomUUID(), "Harbour at dusk", null, new BigDecimal("10.00"),
+                null, buyNowPrice, end.minusDays(7), end);
+    }
+
+    /**
+     * Hand the engine a live auction, as if it had been loaded from the database
+     */
+    @SuppressWarnings("unchecked")
+    private static AuctionState register(AuctionEngine engine, AuctionState state) {
+        ((Map<UUID, AuctionState>) ReflectionTestUtils.getField(engine, "auctions")).put(state.getImageId(), state);
+        return state;
+    }
+}
@@ -0,0 +1,168 @@
+package com.marketplace.auction;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuctionStateTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 12, 0);
+    private static final LocalDateTime END = START.plusDays(7);
+
+    private final UUID imageId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+
+    @Test
+    void writeToAndReadFromRoundTrip() throws IOException {
+        AuctionState live = newState();
+        for (BidRecord record : bids()) {
+            live.apply(record);
+        }
+
+        assertSameState(live, copy(live));
+    }
+
+    @Test
+    void roundTripKeepsMissingOptionalFields() throws IOException {
+        AuctionState state = new AuctionState(imageId, ownerId, "Untitled", null, new BigDecimal("1.00"),
+                null, null, START, END);
+
+        AuctionState copy = copy(state);
+
+        assertNull(copy.getThumbnailUrl());
+        assertNull(copy.getReservePrice());
+        assertNull(copy.getBuyNowPrice());
+        assertNull(copy.getLeaderId());
+        assertSameState(state, copy);
+    }
+
+    @Test
+    void snapshotPlusReplayEqualsLiveState() throws IOException {
+        List<BidRecord> bids = bids();
+        AuctionState live = newState();
+        AuctionState snapshot = null;
+        for (BidRecord record : bids) {
+            live.apply(record);
+            if (record.getSequence() == 3) {
+                snapshot = copy(live);
+            }
+        }
+
+        // Replay covers the whole journal; records already in the snapshot are skipped
+        for (BidRecord record : bids) {
+            snapshot.apply(record);
+        }
+
+        assertSameState(live, snapshot);
+    }
+
+    @Test
+    void applyTracksExtensionsAndBuyNow() {
+        AuctionState state = newState();
+        List<BidRecord> bids = bids();
+        for (BidRecord record : bids.subList(0, 5)) {
+            state.apply(record);
+        }
+
+        assertEquals(1, state.getExtensionCount());
+        assertEquals(END.plusMinutes(2), state.getEndTime());
+        assertEquals(new BigDecimal("100.00"), state.getProxyMaxima().get(alice));
+        assertTrue(state.isReserveMet());
+        assertFalse(state.isClosed());
+
+        state.apply(bids.get(5));
+
+        // Buy-now is the only record that moves the end time back
+        assertTrue(state.isClosed());
+        assertEquals(bids.get(5).getAuctionEndTime(), state.getEndTime());
+        assertEquals(bob, state.getLeaderId());
+        assertEquals(6, state.getBidCount());
+    }
+
+    // Private helper methods
+
+    private AuctionState newState() {
+        return new AuctionState(imageId, ownerId, "Harbour at dusk", "https://cdn.example.com/t/harbour.jpg",
+                new BigDecimal("10.00"), new BigDecimal("50.00"), new BigDecimal("150.00"), START, END);
+    }
+
+    /**
+     * A bidding war with a proxy counter-bid, an anti-sniping extension and a buy-now
+     */
+    private List<BidRecord> bids() {
+        LocalDateTime late = END.minusSeconds(30);
+        UUID bid1 = UUID.randomUUID();
+        UUID bid3 = UUID.randomUUID();
+        UUID bid4 = UUID.randomUUID();
+        UUID bid5 = UUID.randomUUID();
+        return List.of(
+                new BidRecord(1, bid1, imageId, alice, amount("10.00"), amount("50.00"), START.plusHours(1),
+                        true, null, amount("10.00"), 1, END, false),
+                new BidRecord(2, UUID.randomUUID(), imageId, bob, amount("20.00"), null, START.plusHours(2),
+                        false, null, amount("10.00"), 2, END, false),
+                new BidRecord(3, bid3, imageId, alice, amount("21.00"), amount("50.00"), START.plusHours(2),
+                        true, bid1, amount("21.00"), 3, END, false),
+                new BidRecord(4, bid4, imageId, carol, amount("60.00"), null, late,
+                        true, bid3, amount("60.00"), 4, END.plusMinutes(2), false),
+                new BidRecord(5, bid5, imageId, alice, amount("70.00"), amount("100.00"), late.plusSeconds(10),
+                        true, bid4, amount("70.00"), 5, END.plusMinutes(2), false),
+                new BidRecord(6, UUID.randomUUID(), imageId, bob, amount("150.00"), null, late.plusSeconds(20),
+                        true, bid5, amount("150.00"), 6, late.plusSeconds(20), true));
+    }
+
+    private static BigDecimal amount(String value) {
+        return new BigDecimal(value);
+    }
+
+    private static AuctionState copy(AuctionState state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            state.writeTo(out);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return AuctionState.readFrom(in);
+        }
+    }
+
+    static void assertSameState(AuctionState expected, AuctionState actual) {
+        assertEquals(expected.getImageId(), actual.getImageId());
+        assertEquals(expected.getOwnerId(), actual.getOwnerId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getThumbnailUrl(), actual.getThumbnailUrl());
+        assertEquals(expected.getStartingBid(), actual.getStartingBid());
+        assertEquals(expected.getReservePrice(), actual.getReservePrice());
+        assertEquals(expected.getBuyNowPrice(), actual.getBuyNowPrice());
+        assertEquals(truncated(expected.getStartTime()), actual.getStartTime());
+        assertEquals(truncated(expected.getEndTime()), actual.getEndTime());
+        assertEquals(expected.getCurrentPrice(), actual.getCurrentPrice());
+        assertEquals(expected.getLeaderId(), actual.getLeaderId());
+        assertEquals(expected.getLeadingBidId(), actual.getLeadingBidId());
+        assertEquals(expected.getBidCount(), actual.getBidCount());
+        assertEquals(expected.getExtensionCount(), actual.getExtensionCount());
+        assertEquals(expected.isClosed(), actual.isClosed());
+        assertEquals(expected.getLastSequence(), actual.getLastSequence());
+        assertEquals(expected.getProxyMaxima(), actual.getProxyMaxima());
+    }
+
+    private static LocalDateTime truncated(LocalDateTime time) {
+        // Times are stored with millisecond precision
+        return time != null ? time.truncatedTo(ChronoUnit.MILLIS) : null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.marketplace.auction;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BidHistoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+
+    @Test
+    void roundTripKeepsEveryField() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(alice, "10.00", "50.00", START, false, true));
+        rows.add(row(bob, "25.50", null, START.plusSeconds(90), false, true));
+        rows.add(row(alice, "26.50", "50.00", START.plusSeconds(91), false, false));
+        rows.add(row(carol, "99999.99", null, START.plusDays(3), true, true));
+
+        assertSameHistory(rows, BidHistory.fromBytes(BidHistory.fromRows(rows).toBytes()));
+    }
+
+    @Test
+    void roundTripKeepsNegativeDeltas() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(alice, "500.00", "800.00", START, true, true));
+        // Lower amount than the previous bid, e.g. a losing bid recorded after a counter-bid
+        rows.add(row(bob, "120.00", null, START.plusSeconds(5), false, true));
+        // Maximum below the bid and a clock that stepped back
+        rows.add(row(carol, "130.00", "129.99", START.plusSeconds(4).plusNanos(250_000_000), false, false));
+        // Same millisecond as the previous bid
+        rows.add(row(alice, "0.01", null, START.plusSeconds(4).plusNanos(250_000_000), false, true));
+
+        assertSameHistory(rows, BidHistory.fromBytes(BidHistory.fromRows(rows).toBytes()));
+    }
+
+    @Test
+    void emptyHistoryRoundTrip() {
+        BidHistory history = BidHistory.fromBytes(BidHistory.fromRows(List.of()).toBytes());
+
+        assertEquals(0, history.size());
+        assertArrayEquals(new int[0], history.byAmountDescending());
+    }
+
+    @Test
+    void byAmountDescendingOrdersLikeTheLiveTable() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(alice, "10.00", null, START, false, true));
+        rows.add(row(bob, "30.00", null, START.plusSeconds(1), true, true));
+        rows.add(row(carol, "20.00", null, START.plusSeconds(2), false, true));
+
+        assertArrayEquals(new int[]{1, 2, 0}, BidHistory.fromRows(rows).byAmountDescending());
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(new byte[]{2, 0, 0});
+        }
+
+        assertThrows(IllegalStateException.class, () -> BidHistory.fromBytes(bytes.toByteArray()));
+    }
+
+    // Private helper methods
+
+    private static Object[] row(UUID bidderId, String amount, String maximum, LocalDateTime time,
+                                boolean winning, boolean active) {
+        return new Object[]{UUID.randomUUID(), bidderId, new BigDecimal(amount),
+                maximum != null ? new BigDecimal(maximum) : null, time, winning, active};
+    }
+
+    private static void assertSameHistory(List<Object[]> rows, BidHistory history) {
+        assertEquals(rows.size(), history.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            assertEquals(row[0], history.getBidId(i));
+            assertEquals(row[1], history.getBidderId(i));
+            assertEquals(row[2], history.getBidAmount(i));
+            assertEquals(row[3], history.getMaxBidAmount(i));
+            assertEquals(row[4], history.getBidTime(i));
+            assertEquals(row[5], history.isWinning(i));
+            assertEquals(row[6], history.isActive(i));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.marketplace.auction;
+
+import com.marketplace.config.ApplicationPropertiesProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BidJournalTest {
+
+    // Layout of a journal record, see BidJournal
+    private static final int RECORD_SIZE = 128;
+    private static final int CRC_OFFSET = 117;
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private final UUID imageId = UUID.randomUUID();
+
+    @Test
+    void appendedRecordsReadBackAfterReopen() throws IOException {
+        BidJournal journal = open();
+        List<BidRecord> records = records(5);
+        records.forEach(journal::append);
+
+        BidJournal reopened = open();
+
+        assertEquals(5, reopened.getLastSequence());
+        List<BidRecord> read = reopened.read(1, 10);
+        assertEquals(records.size(), read.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertSameRecord(records.get(i), read.get(i));
+        }
+    }
+
+    @Test
+    void appendRejectsSequenceGaps() throws IOException {
+        BidJournal journal = open();
+        journal.append(records(1).get(0));
+
+        assertThrows(IllegalStateException.class, () -> journal.append(record(3, true, null, null)));
+    }
+
+    @Test
+    void reopenStopsAtRecordWithChecksumMismatch() throws IOException {
+        BidJournal journal = open();
+        List<BidRecord> records = records(3);
+        records.forEach(journal::append);
+
+        // Flip one bit of the second record's bid amount
+        corrupt(RECORD_SIZE + 60);
+
+        BidJournal reopened = open();
+        assertEquals(1, reopened.getLastSequence());
+
+        // The journal continues where the valid records end
+        BidRecord replacement = record(2, false, null, null);
+        reopened.append(replacement);
+        assertSameRecord(replacement, reopened.read(2, 1).get(0));
+    }
+
+    @Test
+    void reopenDropsTornLastRecord() throws IOException {
+        BidJournal journal = open();
+        records(3).forEach(journal::append);
+
+        // The crash hit before the last record's checksum was written
+        try (FileChannel channel = FileChannel.open(segmentFile(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES), 2L * RECORD_SIZE + CRC_OFFSET);
+        }
+
+        assertEquals(2, open().getLastSequence());
+    }
+
+    @Test
+    void snapshotPlusReplayEqualsLiveState() throws IOException {
+        BidJournal journal = open();
+        AuctionState live = newState();
+        for (BidRecord record : records(6)) {
+            journal.append(record);
+            live.apply(record);
+            if (record.getSequence() == 4) {
+                journal.writeSnapshot(4, snapshotOf(live));
+            }
+        }
+
+        // What the engine does on startup: restore the snapshot, replay the journal tail
+        BidJournal reopened = open();
+        BidJournal.Snapshot snapshot = reopened.readLatestSnapshot();
+        assertNotNull(snapshot);
+        assertEquals(4, snapshot.getSequence());
+
+        AuctionState restored = restore(snapshot.getPayload());
+        for (BidRecord record : reopened.read(snapshot.getSequence() + 1, 100)) {
+            restored.apply(record);
+        }
+
+        AuctionStateTest.assertSameState(live, restored);
+    }
+
+    @Test
+    void corruptSnapshotFallsBackToOlderOne() throws IOException {
+        BidJournal journal = open();
+        AuctionState state = newState();
+        List<BidRecord> records = records(2);
+
+        journal.append(records.get(0));
+        state.apply(records.get(0));
+        journal.writeSnapshot(1, snapshotOf(state));
+        journal.append(records.get(1));
+        state.apply(records.get(1));
+        journal.writeSnapshot(2, snapshotOf(state));
+
+        Path newest = dir.resolve(String.format("snapshot-%020d.bin", 2));
+        byte[] bytes = Files.readAllBytes(newest);
+        bytes[20] ^= 1;
+        Files.write(newest, bytes);
+
+        BidJournal.Snapshot snapshot = open().readLatestSnapshot();
+        assertNotNull(snapshot);
+        assertEquals(1, snapshot.getSequence());
+    }
+
+    @Test
+    void emptyJournalHasNoSnapshot() throws IOException {
+        BidJournal journal = open();
+
+        assertEquals(0, journal.getLastSequence());
+        assertNull(journal.readLatestSnapshot());
+    }
+
+    // Private helper methods
+
+    private BidJournal open() throws IOException {
+        ApplicationPropertiesProvider properties = new ApplicationPropertiesProvider();
+        properties.getAuction().setJournalDir(dir.toString());
+
+        BidJournal journal = new BidJournal();
+        ReflectionTestUtils.setField(journal, "applicationPropertiesProvider", properties);
+        journal.open();
+        return journal;
+    }
+
+    private Path segmentFile() {
+        return dir.resolve(String.format("bids-%020d.seg", 1));
+    }
+
+    private void corrupt(long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 1));
+            one.rewind();
+            channel.write(one, position);
+        }
+    }
+
+    private AuctionState newState() {
+        return new AuctionState(imageId, UUID.randomUUID(), "Harbour at dusk", null, new BigDecimal("10.00"),
+                null, new BigDecimal("500.00"), START, START.plusDays(7));
+    }
+
+    /**
+     * Alternating leaders, every third bid with a standing maximum
+     */
+    private List<BidRecord> records(int count) {
+        List<BidRecord> records = new ArrayList<>();
+        UUID leadingBidId = null;
+        for (int sequence = 1; sequence <= count; sequence++) {
+            BigDecimal maximum = sequence % 3 == 0 ? BigDecimal.valueOf(sequence * 100L, 2).add(new BigDecimal("40.00")) : null;
+            BidRecord record = record(sequence, true, leadingBidId, maximum);
+            records.add(record);
+            leadingBidId = record.getBidId();
+        }
+        return records;
+    }
+
+    private BidRecord record(long sequence, boolean winning, UUID replacedBidId, BigDecimal maximum) {
+        BigDecimal amount = new BigDecimal("10.00").add(BigDecimal.valueOf(sequence));
+        return new BidRecord(sequence, UUID.randomUUID(), imageId, UUID.randomUUID(), amount, maximum,
+                START.plusMinutes(sequence), winning, replacedBidId, amount, (int) sequence,
+                START.plusDays(7), false);
+    }
+
+    private static byte[] snapshotOf(AuctionState state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(1);
+            state.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static AuctionState restore(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            assertEquals(1, in.readInt());
+            return AuctionState.readFrom(in);
+        }
+    }
+
+    private static void assertSameRecord(BidRecord expected, BidRecord actual) {
+        assertEquals(expected.getSequence(), actual.getSequence());
+        assertEquals(expected.getBidId(), actual.getBidId());
+        assertEquals(expected.getImageId(), actual.getImageId());
+        assertEquals(expected.getBidderId(), actual.getBidderId());
+        assertEquals(expected.getBidAmount(), actual.getBidAmount());
+        assertEquals(expected.getMaxBidAmount(), actual.getMaxBidAmount());
+        assertEquals(expected.getBidTime(), actual.getBidTime());
+        assertEquals(expected.isWinning(), actual.isWinning());
+        assertEquals(expected.getReplacedWinningBidId(), actual.getReplacedWinningBidId());
+        assertEquals(expected.getAuctionPrice(), actual.getAuctionPrice());
+        assertEquals(expected.getAuctionBidCount(), actual.getAuctionBidCount());
+        assertEquals(expected.getAuctionEndTime(), actual.getAuctionEndTime());
+        assertEquals(expected.isBuyNow(), actual.isBuyNow());
+    }
+}
@@ -0,0 +1,111 @@
+package com.marketplace.auction.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final int AUCTIONS = 20000;
+
+    // Fixed seed, so the spread checks cannot flake
+    private final List<UUID> imageIds = imageIds(AUCTIONS);
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertNull(new ConsistentHashRing(Set.of(), VIRTUAL_NODES).ownerOf(UUID.randomUUID()));
+    }
+
+    @Test
+    void singleNodeOwnsEveryAuction() {
+        ConsistentHashRing ring = new ConsistentHashRing(Set.of("node-1"), VIRTUAL_NODES);
+
+        for (UUID imageId : imageIds) {
+            assertEquals("node-1", ring.ownerOf(imageId));
+        }
+    }
+
+    @Test
+    void everyNodeAgreesOnTheOwner() {
+        // Built from the same nodes listed in a different order, as on two different nodes
+        ConsistentHashRing one = new ConsistentHashRing(List.of("node-1", "node-2", "node-3"), VIRTUAL_NODES);
+        ConsistentHashRing other = new ConsistentHashRing(List.of("node-3", "node-1", "node-2"), VIRTUAL_NODES);
+
+        for (UUID imageId : imageIds) {
+            assertEquals(one.ownerOf(imageId), other.ownerOf(imageId));
+        }
+    }
+
+    @Test
+    void auctionsSpreadEvenlyOverTheNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(Set.of("node-1", "node-2", "node-3"), VIRTUAL_NODES);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (UUID imageId : imageIds) {
+            owned.merge(ring.ownerOf(imageId), 1, Integer::sum);
+        }
+
+        assertEquals(3, owned.size());
+        for (int count : owned.values()) {
+            double share = count / (double) AUCTIONS;
+            assertTrue(share > 0.25 && share < 0.42);
+        }
+    }
+
+    @Test
+    void joiningNodeOnlyTakesAuctionsOver() {
+        ConsistentHashRing before = new ConsistentHashRing(Set.of("node-1", "node-2", "node-3"), VIRTUAL_NODES);
+        ConsistentHashRing after = new ConsistentHashRing(Set.of("node-1", "node-2", "node-3", "node-4"), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (UUID imageId : imageIds) {
+            String owner = after.ownerOf(imageId);
+            if (!owner.equals(before.ownerOf(imageId))) {
+                // Nothing moves between the nodes that were already there
+                assertEquals("node-4", owner);
+                moved++;
+            }
+        }
+
+        // About a quarter of the auctions, the new node's fair share
+        double share = moved / (double) AUCTIONS;
+        assertTrue(share > 0.18 && share < 0.32);
+    }
+
+    @Test
+    void leavingNodeOnlyHandsOverItsOwnAuctions() {
+        ConsistentHashRing before = new ConsistentHashRing(Set.of("node-1", "node-2", "node-3"), VIRTUAL_NODES);
+        ConsistentHashRing after = new ConsistentHashRing(Set.of("node-1", "node-3"), VIRTUAL_NODES);
+
+        for (UUID imageId : imageIds) {
+            String owner = before.ownerOf(imageId);
+            if (owner.equals("node-2")) {
+                assertTrue(Set.of("node-1", "node-3").contains(after.ownerOf(imageId)));
+            } else {
+                assertEquals(owner, after.ownerOf(imageId));
+            }
+        }
+    }
+
+    // Private helper methods
+
+    private static List<UUID> imageIds(int count) {
+        Random random = new Random(42);
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return ids;
+    }
+}
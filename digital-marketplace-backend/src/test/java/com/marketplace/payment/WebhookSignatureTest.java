@@ -0,0 +1,94 @@
+package com.marketplace.payment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookSignatureTest {
+
+    private static final String SECRET = "whsec_test";
+    private static final String PAYLOAD = "{\"id\":\"evt_1\",\"type\":\"payment_intent.succeeded\"}";
+    private static final long TOLERANCE_SECONDS = 300;
+
+    @Test
+    void signMatchesAReferenceHmac() {
+        // HMAC-SHA256 of "1700000000.<payload>" computed outside Java
+        assertEquals("t=1700000000,v1=001ce3ef73e456cedaab328328720d3ad59defb8bbd0f1518f46c04ad4ac0bb7",
+                WebhookSignature.sign(SECRET, 1700000000L, PAYLOAD));
+    }
+
+    @Test
+    void freshSignatureVerifies() {
+        String header = WebhookSignature.sign(SECRET, now(), PAYLOAD);
+
+        assertTrue(WebhookSignature.verify(SECRET, header, PAYLOAD, TOLERANCE_SECONDS));
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String header = WebhookSignature.sign(SECRET, now(), PAYLOAD);
+
+        assertFalse(WebhookSignature.verify(SECRET, header, PAYLOAD.replace("succeeded", "canceled"), TOLERANCE_SECONDS));
+        assertFalse(WebhookSignature.verify(SECRET, header, PAYLOAD + " ", TOLERANCE_SECONDS));
+    }
+
+    @Test
+    void tamperedSignatureOrTimestampIsRejected() {
+        long timestamp = now();
+        String header = WebhookSignature.sign(SECRET, timestamp, PAYLOAD);
+        String signature = header.substring(header.indexOf("v1=") + 3);
+        String flipped = (signature.charAt(0) == '0' ? "1" : "0") + signature.substring(1);
+
+        assertFalse(WebhookSignature.verify(SECRET, "t=" + timestamp + ",v1=" + flipped, PAYLOAD, TOLERANCE_SECONDS));
+        // The timestamp is signed too, so it cannot be moved into the window
+        assertFalse(WebhookSignature.verify(SECRET, "t=" + (timestamp - 1) + ",v1=" + signature, PAYLOAD, TOLERANCE_SECONDS));
+        assertFalse(WebhookSignature.verify("whsec_other", header, PAYLOAD, TOLERANCE_SECONDS));
+    }
+
+    @Test
+    void timestampMustBeWithinTheTolerance() {
+        long now = now();
+
+        assertTrue(WebhookSignature.verify(SECRET, WebhookSignature.sign(SECRET, now - TOLERANCE_SECONDS + 5, PAYLOAD),
+                PAYLOAD, TOLERANCE_SECONDS));
+        assertFalse(WebhookSignature.verify(SECRET, WebhookSignature.sign(SECRET, now - TOLERANCE_SECONDS - 5, PAYLOAD),
+                PAYLOAD, TOLERANCE_SECONDS));
+        // Clocks run apart both ways
+        assertTrue(WebhookSignature.verify(SECRET, WebhookSignature.sign(SECRET, now + TOLERANCE_SECONDS - 5, PAYLOAD),
+                PAYLOAD, TOLERANCE_SECONDS));
+        assertFalse(WebhookSignature.verify(SECRET, WebhookSignature.sign(SECRET, now + TOLERANCE_SECONDS + 5, PAYLOAD),
+                PAYLOAD, TOLERANCE_SECONDS));
+    }
+
+    @Test
+    void anyOfSeveralSignaturesMayMatch() {
+        // Sent during a secret rotation: one signature per secret
+        long timestamp = now();
+        String current = WebhookSignature.sign(SECRET, timestamp, PAYLOAD);
+        String old = WebhookSignature.sign("whsec_old", timestamp, PAYLOAD);
+        String header = old + "," + current.substring(current.indexOf("v1="));
+
+        assertTrue(WebhookSignature.verify(SECRET, header, PAYLOAD, TOLERANCE_SECONDS));
+    }
+
+    @Test
+    void malformedHeadersAreRejected() {
+        String header = WebhookSignature.sign(SECRET, now(), PAYLOAD);
+        String signature = header.substring(header.indexOf("v1="));
+
+        assertFalse(WebhookSignature.verify(SECRET, null, PAYLOAD, TOLERANCE_SECONDS));
+        assertFalse(WebhookSignature.verify(SECRET, "", PAYLOAD, TOLERANCE_SECONDS));
+        assertFalse(WebhookSignature.verify(SECRET, signature, PAYLOAD, TOLERANCE_SECONDS));
+        assertFalse(WebhookSignature.verify(SECRET, "t=soon," + signature, PAYLOAD, TOLERANCE_SECONDS));
+        assertFalse(WebhookSignature.verify(SECRET, header.substring(0, header.indexOf(",")), PAYLOAD, TOLERANCE_SECONDS));
+        assertFalse(WebhookSignature.verify("", header, PAYLOAD, TOLERANCE_SECONDS));
+    }
+
+    // Private helper methods
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,108 @@
+package com.marketplace.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    private static final int LINEAR_BUCKETS = 64;
+    private static final int BUCKETS = LINEAR_BUCKETS + 32 * 32;
+
+    @Test
+    void linearBucketsHoldOneValueEach() {
+        for (long micros = 0; micros < LINEAR_BUCKETS; micros++) {
+            assertEquals((int) micros, LatencyHistogram.indexOf(micros));
+            assertEquals(micros, LatencyHistogram.upperBoundOf((int) micros));
+        }
+    }
+
+    @Test
+    void bucketBoundsAroundTheFirstPowersOfTwo() {
+        // 63 is the last linear bucket, 64 opens the first log-linear one two values wide
+        assertEquals(63, LatencyHistogram.indexOf(63));
+        assertEquals(64, LatencyHistogram.indexOf(64));
+        assertEquals(64, LatencyHistogram.indexOf(65));
+        assertEquals(65, LatencyHistogram.upperBoundOf(64));
+
+        // 127 closes that magnitude, 128 opens the next one four values wide
+        assertEquals(95, LatencyHistogram.indexOf(127));
+        assertEquals(127, LatencyHistogram.upperBoundOf(95));
+        assertEquals(96, LatencyHistogram.indexOf(128));
+        assertEquals(96, LatencyHistogram.indexOf(131));
+        assertEquals(131, LatencyHistogram.upperBoundOf(96));
+    }
+
+    @Test
+    void topMagnitudeClampsToTheLastBucket() {
+        long top = 1L << 37;
+        int last = BUCKETS - 1;
+
+        assertEquals(last - 31, LatencyHistogram.indexOf(top));
+        assertEquals((1L << 38) - 1, LatencyHistogram.upperBoundOf(last));
+        assertEquals(last, LatencyHistogram.indexOf((1L << 38) - 1));
+        assertEquals(last, LatencyHistogram.indexOf(1L << 38));
+        assertEquals(last, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void bucketsAreContiguousWithinThreePercent() {
+        for (int index = 0; index < BUCKETS - 1; index++) {
+            long upper = LatencyHistogram.upperBoundOf(index);
+            assertEquals(index, LatencyHistogram.indexOf(upper));
+            assertEquals(index + 1, LatencyHistogram.indexOf(upper + 1));
+
+            long lower = index == 0 ? 0 : LatencyHistogram.upperBoundOf(index - 1) + 1;
+            assertTrue(lower < LINEAR_BUCKETS || (upper - lower + 1) * 32 <= lower);
+        }
+    }
+
+    @Test
+    void percentilesOfAUniformDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram("uniform");
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.recordNanos(micros * 1000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        // Upper bound of the bucket holding the exact value
+        assertEquals(503, histogram.getPercentileMicros(50));
+        assertEquals(911, histogram.getPercentileMicros(90));
+        assertEquals(991, histogram.getPercentileMicros(99));
+        // Capped at the largest value recorded
+        assertEquals(1000, histogram.getPercentileMicros(100));
+        assertEquals(500L, histogram.toMap().get("meanMicros"));
+    }
+
+    @Test
+    void percentilesOfABimodalDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram("bimodal");
+        for (int i = 0; i < 90; i++) {
+            histogram.recordNanos(50_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.recordNanos(10_000_000);
+        }
+
+        assertEquals(50, histogram.getPercentileMicros(50));
+        assertEquals(50, histogram.getPercentileMicros(90));
+        assertEquals(10000, histogram.getPercentileMicros(91));
+        assertEquals(10000, histogram.getPercentileMicros(99.9));
+    }
+
+    @Test
+    void resetStartsAnEmptyInterval() {
+        LatencyHistogram histogram = new LatencyHistogram("reset");
+        histogram.recordNanos(5_000);
+        // Below a microsecond and negative clock steps count as zero
+        histogram.recordNanos(-1);
+        assertEquals(0, histogram.getPercentileMicros(50));
+        assertEquals(5, histogram.getPercentileMicros(100));
+
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMicros(99));
+    }
+}